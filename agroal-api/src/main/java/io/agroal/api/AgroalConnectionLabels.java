@@ -0,0 +1,104 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Session state requested when acquiring a connection with {@link AgroalDataSource#getConnection(AgroalConnectionLabels)}.
+ * Attributes not specified are left as they are on the connection.
+ * <p>
+ * Custom labels identify session state the pool has no knowledge of, like a session variable. Each label has a name and the SQL that puts the session in that state.
+ * The SQL is only executed on connections that do not have the label already. Labels remain on the connection after it returns to the pool, as the pool does not reset them.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class AgroalConnectionLabels {
+
+    private Integer transactionIsolation;
+    private Boolean readOnly;
+    private String schema;
+    private String catalog;
+    private final Map<String, String> labels = new LinkedHashMap<>();
+
+    /**
+     * Requests a transaction isolation level.
+     */
+    public AgroalConnectionLabels transactionIsolation(int level) {
+        transactionIsolation = level;
+        return this;
+    }
+
+    /**
+     * Requests a read-only state.
+     */
+    public AgroalConnectionLabels readOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+        return this;
+    }
+
+    /**
+     * Requests a schema.
+     */
+    public AgroalConnectionLabels schema(String schema) {
+        this.schema = schema;
+        return this;
+    }
+
+    /**
+     * Requests a catalog.
+     */
+    public AgroalConnectionLabels catalog(String catalog) {
+        this.catalog = catalog;
+        return this;
+    }
+
+    /**
+     * Requests a custom label. The SQL is executed on connections that do not have a label with the same name and SQL.
+     */
+    public AgroalConnectionLabels label(String name, String sql) {
+        labels.put( name, sql );
+        return this;
+    }
+
+    // --- //
+
+    /**
+     * The requested transaction isolation level, or null if not specified.
+     */
+    public Integer getTransactionIsolation() {
+        return transactionIsolation;
+    }
+
+    /**
+     * The requested read-only state, or null if not specified.
+     */
+    public Boolean getReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * The requested schema, or null if not specified.
+     */
+    public String getSchema() {
+        return schema;
+    }
+
+    /**
+     * The requested catalog, or null if not specified.
+     */
+    public String getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * The requested custom labels, mapping names to the SQL that applies them.
+     */
+    public Map<String, String> getLabels() {
+        return unmodifiableMap( labels );
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.function.Supplier;
 
+import static java.util.Collections.emptyList;
 import static java.util.ServiceLoader.load;
 
 /**
@@ -62,6 +63,16 @@ public interface AgroalDataSource extends AutoCloseable, DataSource, Serializabl
      */
     Connection getReadOnlyConnection() throws SQLException;
 
+    /**
+     * Get connection with the session state described by the labels.
+     * Idle connections already in that state are preferred, otherwise the one that requires the fewest changes is used.
+     * Connections keep their schema, catalog and custom labels when returned to the pool. Other attributes are reset, unless {@link io.agroal.api.configuration.AgroalConnectionPoolConfiguration#lazyReset()} is enabled.
+     * By default, the labels are ignored and this is the same as {@link #getConnection()}.
+     */
+    default Connection getConnection(AgroalConnectionLabels labels) throws SQLException {
+        return getConnection();
+    }
+
     /**
      * Allows inspection of the configuration. Some properties allow read / write.
      */
@@ -96,6 +107,23 @@ public interface AgroalDataSource extends AutoCloseable, DataSource, Serializabl
         return true;
     }
 
+    /**
+     * Takes a consistent snapshot of the state of the pool and of each of it's connections, in a single pass.
+     * Preferable to reading multiple metrics, that are computed independently.
+     * By default, the snapshot is built from the metrics, without the state of each connection.
+     */
+    default AgroalPoolSnapshot getSnapshot() {
+        return AgroalPoolSnapshot.fromMetrics( getMetrics() );
+    }
+
+    /**
+     * Returns the most recent events of the pool, oldest first. Useful for post-mortem analysis of pool exhaustion.
+     * Events are only recorded if a flight recorder size is configured, otherwise the list is empty.
+     */
+    default List<AgroalPoolEvent> dumpFlightRecorder() {
+        return emptyList();
+    }
+
     /**
      * {@inheritDoc}
      */
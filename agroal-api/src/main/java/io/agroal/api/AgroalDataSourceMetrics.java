@@ -4,6 +4,10 @@
 package io.agroal.api;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
 
 /**
  * Several metrics provided by the pool.
@@ -84,6 +88,20 @@ public interface AgroalDataSourceMetrics {
         return 0;
     }
 
+    /**
+     * Number of connections being validated. These connections are not available to be acquired.
+     */
+    default long validatingCount() {
+        return 0;
+    }
+
+    /**
+     * Number of connections waiting to be destroyed, that were not active when flushed.
+     */
+    default long flushingCount() {
+        return 0;
+    }
+
     /**
      * Number of active connections that have been held over commit.
      */
@@ -142,9 +160,252 @@ public interface AgroalDataSourceMetrics {
 
     // --- //
 
+    /**
+     * Number of times a prepared statement was reused from the statement cache of a connection.
+     */
+    default long statementCacheHitCount() {
+        return 0;
+    }
+
+    /**
+     * Number of times a prepared statement was not found in the statement cache of a connection and had to be prepared.
+     */
+    default long statementCacheMissCount() {
+        return 0;
+    }
+
+    /**
+     * Number of prepared statements closed to make room in the statement cache of a connection.
+     */
+    default long statementCacheEvictionCount() {
+        return 0;
+    }
+
+    // --- //
+
+    /**
+     * Number of labeled acquisitions that got a connection already in the requested state.
+     * The hit rate is this value over the sum of {@link #labelHitCount()} and {@link #labelMissCount()}.
+     */
+    default long labelHitCount() {
+        return 0;
+    }
+
+    /**
+     * Number of labeled acquisitions that got a connection that had to be changed to the requested state.
+     */
+    default long labelMissCount() {
+        return 0;
+    }
+
+    // --- //
+
+    /**
+     * Number of result sets read into memory in full, and detached from the connection.
+     */
+    default long detachedResultSetCount() {
+        return 0;
+    }
+
+    /**
+     * Estimate of the memory, in bytes, used by result sets read into memory that are not closed yet.
+     */
+    default long detachedResultSetMemory() {
+        return 0;
+    }
+
+    // --- //
+
+    /**
+     * Number of events that were not delivered to the listeners because the buffer of asynchronous dispatch was full.
+     */
+    default long listenerEventDropCount() {
+        return 0;
+    }
+
+    // --- //
+
+    /**
+     * Number of acquire operations that completed through the given path. For {@link AcquisitionPath#TIMEOUT} it's the number of acquire operations that failed with a timeout.
+     */
+    default long acquireCount(AcquisitionPath path) {
+        return 0;
+    }
+
+    /**
+     * Average time an application waited to acquire a connection through the given path.
+     */
+    default Duration blockingTimeAverage(AcquisitionPath path) {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Maximum time an application waited to acquire a connection through the given path.
+     */
+    default Duration blockingTimeMax(AcquisitionPath path) {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Total time applications waited to acquire a connection through the given path.
+     */
+    default Duration blockingTimeTotal(AcquisitionPath path) {
+        return Duration.ZERO;
+    }
+
+    // --- //
+
+    /**
+     * Metrics for each second of the last minute, oldest first. Only available when metrics history is enabled.
+     */
+    default List<MetricsBucket> perSecondHistory() {
+        return emptyList();
+    }
+
+    /**
+     * Metrics for each minute of the configured metrics history, oldest first. Only available when metrics history is enabled.
+     */
+    default List<MetricsBucket> perMinuteHistory() {
+        return emptyList();
+    }
+
+    // --- //
+
+    /**
+     * Register a recorder that is notified of the duration of every acquire, creation and hold of a connection, as they happen.
+     * Has no effect when metrics are disabled.
+     */
+    default void addRecorder(MetricsRecorder recorder) {
+    }
+
+    /**
+     * Remove a recorder previously registered.
+     */
+    default void removeRecorder(MetricsRecorder recorder) {
+    }
+
+    // --- //
+
     /**
      * Reset the metrics.
      */
     default void reset() {
     }
+
+    // --- //
+
+    /**
+     * Metrics collected over a fixed period of time.
+     */
+    interface MetricsBucket {
+
+        /**
+         * Start of the period.
+         */
+        Instant start();
+
+        /**
+         * Length of the period.
+         */
+        Duration duration();
+
+        /**
+         * Number of times an acquire operation succeeded during the period.
+         */
+        long acquireCount();
+
+        /**
+         * Number of connections created during the period.
+         */
+        long creationCount();
+
+        /**
+         * Number of acquire operations that failed with a timeout during the period.
+         */
+        long timeoutCount();
+
+        /**
+         * Maximum number of active connections observed during the period.
+         */
+        long maxActiveCount();
+
+        /**
+         * Time an application waited to acquire a connection, at the given percentile (between 0 and 100). The value is an approximation with a precision of about 25%.
+         */
+        Duration blockingTimePercentile(double percentile);
+    }
+
+    // --- //
+
+    /**
+     * The ways an acquire operation can complete.
+     */
+    enum AcquisitionPath {
+
+        /**
+         * Reuse of the connection already associated with the current transaction.
+         */
+        TRANSACTION,
+
+        /**
+         * Connection previously used by the same thread.
+         */
+        LOCAL_CACHE,
+
+        /**
+         * Connection found idle on a scan of the pool.
+         */
+        SHARED_SCAN,
+
+        /**
+         * Connection handed over by another thread that returned it.
+         */
+        HANDOFF,
+
+        /**
+         * New connection created by the thread acquiring it.
+         */
+        INLINE_CREATION,
+
+        /**
+         * New connection created in the background while the thread acquiring it waited.
+         */
+        BACKGROUND_CREATION,
+
+        /**
+         * Connection obtained after a failed attempt to create one.
+         */
+        RETRY,
+
+        /**
+         * No connection was obtained within the acquisition timeout.
+         */
+        TIMEOUT
+    }
+
+    // --- //
+
+    /**
+     * Callback for the duration of pool operations. Invoked on the thread performing the operation, so implementations should not block.
+     */
+    interface MetricsRecorder {
+
+        /**
+         * Time an application waited to acquire a connection, in nanoseconds.
+         */
+        default void recordAcquisition(long nanos) {
+        }
+
+        /**
+         * Time it took for a connection to be created, in nanoseconds.
+         */
+        default void recordCreation(long nanos) {
+        }
+
+        /**
+         * Time a connection was held by an application, from acquire until return, in nanoseconds.
+         */
+        default void recordHold(long nanos) {
+        }
+    }
 }
@@ -0,0 +1,74 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.api;
+
+import java.time.Instant;
+
+/**
+ * An event recorded by the pool flight recorder. Events mirror the callbacks of {@link AgroalDataSourceListener}.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public interface AgroalPoolEvent {
+
+    /**
+     * Position of this event in the sequence of all events recorded by the pool. Gaps indicate events that were overwritten.
+     */
+    long sequence();
+
+    /**
+     * The kind of event.
+     */
+    Type type();
+
+    /**
+     * Approximate wall-clock time at which the event was recorded.
+     */
+    Instant timestamp();
+
+    /**
+     * Value of {@link System#nanoTime()} when the event was recorded. Allows precise measurement of the time between events.
+     */
+    long nanoTime();
+
+    /**
+     * Id of the thread that triggered the event. For {@link Type#CONNECTION_LEAK} it's the thread holding the connection.
+     */
+    long threadId();
+
+    /**
+     * Identity hash code of the connection the event refers to, or zero for events not related to a connection.
+     */
+    int connectionId();
+
+    // --- //
+
+    /**
+     * Types of events recorded.
+     */
+    enum Type {
+
+        BEFORE_CONNECTION_CREATION,
+        CONNECTION_CREATION,
+        CONNECTION_CREATION_FAILURE,
+        CONNECTION_POOLED,
+        BEFORE_CONNECTION_ACQUIRE,
+        CONNECTION_ACQUIRE,
+        POOL_BLOCK,
+        BEFORE_CONNECTION_RETURN,
+        CONNECTION_RETURN,
+        BEFORE_CONNECTION_LEAK,
+        CONNECTION_LEAK,
+        BEFORE_CONNECTION_VALIDATION,
+        CONNECTION_VALID,
+        CONNECTION_INVALID,
+        BEFORE_CONNECTION_FLUSH,
+        CONNECTION_FLUSH,
+        BEFORE_CONNECTION_REAP,
+        CONNECTION_REAP,
+        BEFORE_CONNECTION_DESTROY,
+        CONNECTION_DESTROY,
+        WARNING
+    }
+}
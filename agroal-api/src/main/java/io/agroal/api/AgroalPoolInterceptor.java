@@ -13,6 +13,8 @@ import java.util.Comparator;
  * They do not have access to the raw Connection
  * The invoke order is dependent on the operation (incoming / outgoing)
  * Consistent with the transaction.
+ * <p>
+ * The connection given to a callback must not be used once the callback returns.
  *
  * @author <a href="lbarreiro@redhat.com">Luis Barreiro</a>
  */
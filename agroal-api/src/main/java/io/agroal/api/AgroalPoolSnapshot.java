@@ -0,0 +1,225 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.api;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Immutable view of the state of the pool. All values are collected in a single pass over the connections of the pool, so aggregate counters are consistent with each other and with the list of connections.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public interface AgroalPoolSnapshot {
+
+    /**
+     * Snapshot with the aggregate counters of the metrics, for implementations that can't inspect their connections.
+     * Unlike a snapshot of the pool, the counters are read independently and the list of connections is empty.
+     */
+    static AgroalPoolSnapshot fromMetrics(AgroalDataSourceMetrics metrics) {
+        Instant timestamp = Instant.now();
+        int available = (int) metrics.availableCount();
+        int active = (int) metrics.activeCount();
+        int validating = (int) metrics.validatingCount();
+        int flushing = (int) metrics.flushingCount();
+        int held = (int) metrics.heldCount();
+        long awaiting = metrics.awaitingCount();
+        long maxUsed = metrics.maxUsedCount();
+
+        return new AgroalPoolSnapshot() {
+            @Override
+            public Instant timestamp() {
+                return timestamp;
+            }
+
+            @Override
+            public int connectionCount() {
+                return available + active + validating + flushing;
+            }
+
+            @Override
+            public int availableCount() {
+                return available;
+            }
+
+            @Override
+            public int activeCount() {
+                return active;
+            }
+
+            @Override
+            public int validatingCount() {
+                return validating;
+            }
+
+            @Override
+            public int flushingCount() {
+                return flushing;
+            }
+
+            @Override
+            public int enlistedCount() {
+                return 0;
+            }
+
+            @Override
+            public int heldCount() {
+                return held;
+            }
+
+            @Override
+            public long awaitingCount() {
+                return awaiting;
+            }
+
+            @Override
+            public long maxUsedCount() {
+                return maxUsed;
+            }
+
+            @Override
+            public List<ConnectionSnapshot> connections() {
+                return emptyList();
+            }
+        };
+    }
+
+    /**
+     * Time at which the snapshot was taken.
+     */
+    Instant timestamp();
+
+    /**
+     * Total number of connections in the pool.
+     */
+    int connectionCount();
+
+    /**
+     * Number of connections idle in the pool.
+     */
+    int availableCount();
+
+    /**
+     * Number of connections in use.
+     */
+    int activeCount();
+
+    /**
+     * Number of connections being validated.
+     */
+    int validatingCount();
+
+    /**
+     * Number of connections marked to be flushed.
+     */
+    int flushingCount();
+
+    /**
+     * Number of connections enlisted in a transaction.
+     */
+    int enlistedCount();
+
+    /**
+     * Number of connections held over commit.
+     */
+    int heldCount();
+
+    /**
+     * Approximate number of threads blocked waiting to acquire a connection.
+     */
+    long awaitingCount();
+
+    /**
+     * Maximum number of connections in the pool. Only tracked when metrics are enabled.
+     */
+    long maxUsedCount();
+
+    /**
+     * State of each connection in the pool.
+     */
+    List<ConnectionSnapshot> connections();
+
+    // --- //
+
+    /**
+     * Immutable view of a connection in the pool.
+     */
+    interface ConnectionSnapshot {
+
+        /**
+         * Identity hash code of the connection. Matches {@link AgroalPoolEvent#connectionId()}.
+         */
+        int connectionId();
+
+        /**
+         * State of the connection.
+         */
+        ConnectionState state();
+
+        /**
+         * Time since the connection was created.
+         */
+        Duration age();
+
+        /**
+         * Time since the connection was last acquired, returned or used in a transaction.
+         */
+        Duration idleTime();
+
+        /**
+         * Time until the connection gets over it's max lifetime, or null if that feature is disabled.
+         */
+        Duration lifetimeRemaining();
+
+        /**
+         * Name of the thread holding the connection, or null if not held.
+         * The holding thread is only tracked when leak detection or multiple acquisition detection are enabled.
+         */
+        String holdingThread();
+
+        /**
+         * If the connection is enlisted in a transaction.
+         */
+        boolean enlisted();
+    }
+
+    /**
+     * States of a connection in the pool.
+     */
+    enum ConnectionState {
+
+        /**
+         * Connection still being set up.
+         */
+        NEW,
+
+        /**
+         * Connection idle in the pool.
+         */
+        CHECKED_IN,
+
+        /**
+         * Connection in use.
+         */
+        CHECKED_OUT,
+
+        /**
+         * Connection being validated.
+         */
+        VALIDATION,
+
+        /**
+         * Connection marked to be removed from the pool.
+         */
+        FLUSH,
+
+        /**
+         * Connection closed.
+         */
+        DESTROYED
+    }
+}
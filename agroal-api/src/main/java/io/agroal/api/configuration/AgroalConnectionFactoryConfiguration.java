@@ -33,6 +33,26 @@ public interface AgroalConnectionFactoryConfiguration {
      */
     boolean trackJdbcResources();
 
+    /**
+     * Maximum number of {@link java.sql.PreparedStatement} and {@link java.sql.CallableStatement} kept open for reuse on each connection. When a statement is closed by the application it's returned to the cache, after it's parameters are cleared.
+     * Callable statements are only returned to the cache if no out parameters were registered, as the registration can't be cleared.
+     * A size of zero means that this feature is disabled.
+     */
+    int preparedStatementCacheSize();
+
+    /**
+     * Maximum number of rows of a {@link java.sql.ResultSet} that are read into memory when the query is executed. The result set returned to the application is detached from the connection if all its rows fit, allowing the connection to be closed before the rows are processed.
+     * Result sets that are not forward-only and read-only, or have columns of LOB, array or structured types, are not buffered. Rows beyond the limit are read from the database once the buffered rows are consumed.
+     * A value of zero means that this feature is disabled.
+     */
+    int detachedResultSetMaxRows();
+
+    /**
+     * Maximum amount of memory, in bytes, that buffered result sets (see {@link #detachedResultSetMaxRows()}) may take on the pool as a whole. The amount used by each row is an estimate.
+     * A value of zero means there is no limit.
+     */
+    long detachedResultSetMaxMemory();
+
     /**
      * Maximum time to wait while attempting to connect to a database. Resolution in seconds.
      */
@@ -53,6 +73,12 @@ public interface AgroalConnectionFactoryConfiguration {
      */
     String initialSql();
 
+    /**
+     * SQL statements prepared when a connection is created, to avoid the cost of preparing them on first use.
+     * If the statement cache is enabled (see {@link #preparedStatementCacheSize()}) the statements are kept in the cache of the new connection, otherwise they are closed right away.
+     */
+    Collection<String> initialPreparedStatements();
+
     /**
      * JDBC driver class to use as a supplier of connections. Must be an implementation of {@link java.sql.Driver}, {@link javax.sql.DataSource} or {@link javax.sql.XADataSource}.
      * Can be null, in which case the driver will be obtained from the URL (using the {@link java.sql.DriverManager#getDriver(String)} mechanism).
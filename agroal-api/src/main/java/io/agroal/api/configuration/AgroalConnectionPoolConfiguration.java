@@ -91,11 +91,66 @@ public interface AgroalConnectionPoolConfiguration {
      */
     boolean enhancedLeakReport();
 
+    /**
+     * Only one in this number of acquisitions is traced for the enhanced leak report. Zero or one means that every acquisition is traced.
+     */
+    int enhancedLeakReportSampling();
+
+    /**
+     * If connections that the application no longer references, without having closed them, are returned to the pool once the garbage collector finds them.
+     * They are reported as leaks and flushed from the pool, as the state they were left in is unknown. Connections enlisted in a transaction are not reclaimed.
+     * Requires {@link AgroalConnectionFactoryConfiguration#trackJdbcResources()}, as otherwise statements and result sets do not keep their connection reachable.
+     */
+    boolean reclaimUnreachable();
+
+    /**
+     * Number of recent pool events kept in memory for diagnostics (see {@link io.agroal.api.AgroalDataSource#dumpFlightRecorder()}).
+     * A size of zero means that this feature is disabled.
+     */
+    int flightRecorderSize();
+
+    /**
+     * Number of events that can be waiting to be delivered to the listeners. When greater than zero the listeners are notified by a dedicated thread, instead of the thread that performs the operation on the pool.
+     * In that case listeners must not use the connections they get notified about after an operation, as they may be in use by another thread or closed, and those events are dropped when the buffer is full.
+     * Events before an operation, connection creation and pooling, creation failures and leaks are always delivered synchronously.
+     * A size of zero means that this feature is disabled.
+     */
+    int asyncListenerBufferSize();
+
+    /**
+     * Period of time for which metrics are kept in memory, aggregated per minute. Metrics for the last minute are also aggregated per second.
+     * Requires metrics to be enabled. A duration of {@link Duration#ZERO} means that this feature is disabled.
+     */
+    Duration metricsHistory();
+
     /**
      * If connections should be flushed when returning to the pool.
      */
     boolean flushOnClose();
 
+    /**
+     * If restoring the attributes of a connection returning to the pool is deferred until the connection is used again.
+     * The attributes the next borrower sets before using the connection are compared with the values on the connection, and only the differences are applied.
+     */
+    boolean lazyReset();
+
+    /**
+     * If connections returning to the pool are reset and made available on a background thread, instead of on the thread closing the connection.
+     */
+    boolean asyncReturn();
+
+    /**
+     * If acquiring a connection from the pool is deferred until the application first uses the connection handed to it, for example to create a statement.
+     * Reduces the time connections are held by applications that get a connection and close it without using it.
+     */
+    boolean lazyAcquisition();
+
+    /**
+     * If connections in auto-commit mode and outside a transaction are returned to the pool as soon as all their statements are closed, and acquired again for the next statement.
+     * Allows many connections of the application to share few connections of the pool. Implies {@link #lazyAcquisition()} and requires JDBC resources to be tracked.
+     */
+    boolean statementRelease();
+
     /**
      * If connections from this pool should be used during recovery. For XA pools it is vital that recovery is enabled
      * on at least one connection pool to the same database and therefore the default is true.
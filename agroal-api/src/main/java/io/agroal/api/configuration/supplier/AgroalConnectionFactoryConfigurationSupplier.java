@@ -33,10 +33,14 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
     boolean autoCommit = true;
     boolean readOnly;
     boolean trackJdbcResources = true;
+    int preparedStatementCacheSize;
+    int detachedResultSetMaxRows;
+    long detachedResultSetMaxMemory;
     Duration loginTimeout = Duration.ZERO;
     Duration networkTimeout = Duration.ZERO;
     String jdbcUrl = "";
     String initialSql = "";
+    Collection<String> initialPreparedStatements = new ArrayList<>();
     Class<?> connectionProviderClass;
     IsolationLevel transactionIsolation = UNDEFINED;
     Collection<AgroalSecurityProvider> securityProviders = new ArrayList<>();
@@ -67,6 +71,7 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
         networkTimeout = existingConfiguration.networkTimeout();
         jdbcUrl = existingConfiguration.jdbcUrl();
         initialSql = existingConfiguration.initialSql();
+        initialPreparedStatements = new ArrayList<>( existingConfiguration.initialPreparedStatements() );
         connectionProviderClass = existingConfiguration.connectionProviderClass();
         transactionIsolation = existingConfiguration.jdbcTransactionIsolation();
         principal = existingConfiguration.principal();
@@ -78,6 +83,9 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
         xaProperties = existingConfiguration.xaProperties();
         securityProviders = existingConfiguration.securityProviders();
         trackJdbcResources = existingConfiguration.trackJdbcResources();
+        preparedStatementCacheSize = existingConfiguration.preparedStatementCacheSize();
+        detachedResultSetMaxRows = existingConfiguration.detachedResultSetMaxRows();
+        detachedResultSetMaxMemory = existingConfiguration.detachedResultSetMaxMemory();
     }
 
     private void checkLock() {
@@ -122,6 +130,33 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
         return this;
     }
 
+    /**
+     * Sets the maximum number of prepared and callable statements kept open for reuse on each connection. Default is 0, meaning that statements are not cached.
+     */
+    public AgroalConnectionFactoryConfigurationSupplier preparedStatementCacheSize(int size) {
+        checkLock();
+        preparedStatementCacheSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of rows of a result set read into memory, so that it can be used after the connection is closed. Default is 0, meaning that result sets are not buffered.
+     */
+    public AgroalConnectionFactoryConfigurationSupplier detachedResultSetMaxRows(int rows) {
+        checkLock();
+        detachedResultSetMaxRows = rows;
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of memory (in bytes) taken by buffered result sets on the pool. Default is 0, meaning there is no limit.
+     */
+    public AgroalConnectionFactoryConfigurationSupplier detachedResultSetMaxMemory(long bytes) {
+        checkLock();
+        detachedResultSetMaxMemory = bytes;
+        return this;
+    }
+
     /**
      * Sets the login timeout (in seconds). Default is 0 (waits indefinitely)
      */
@@ -158,6 +193,15 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
         return this;
     }
 
+    /**
+     * Adds a SQL statement to be prepared when a connection is created. Default is to not prepare any statement.
+     */
+    public AgroalConnectionFactoryConfigurationSupplier addInitialPreparedStatement(String sql) {
+        checkLock();
+        initialPreparedStatements.add( sql );
+        return this;
+    }
+
     /**
      * Sets a class from the JDBC driver to be used as a supplier of connections.
      * Default is null, meaning the driver will be obtained from the URL (using the {@link java.sql.DriverManager#getDriver(String)} mechanism).
@@ -286,6 +330,15 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
         if ( loginTimeout.isNegative() ) {
             throw new IllegalArgumentException( "Login timeout must not be negative" );
         }
+        if ( preparedStatementCacheSize < 0 ) {
+            throw new IllegalArgumentException( "Prepared statement cache size must not be negative" );
+        }
+        if ( detachedResultSetMaxRows < 0 ) {
+            throw new IllegalArgumentException( "Detached result set max rows must not be negative" );
+        }
+        if ( detachedResultSetMaxMemory < 0 ) {
+            throw new IllegalArgumentException( "Detached result set max memory must not be negative" );
+        }
         if ( jdbcProperties.containsKey( USER_PROPERTY_NAME ) ) {
             throw new IllegalArgumentException( "Invalid JDBC property '" + USER_PROPERTY_NAME + "': use principal instead." );
         }
@@ -317,6 +370,21 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
                 return trackJdbcResources;
             }
 
+            @Override
+            public int preparedStatementCacheSize() {
+                return preparedStatementCacheSize;
+            }
+
+            @Override
+            public int detachedResultSetMaxRows() {
+                return detachedResultSetMaxRows;
+            }
+
+            @Override
+            public long detachedResultSetMaxMemory() {
+                return detachedResultSetMaxMemory;
+            }
+
             @Override
             public Duration loginTimeout() {
                 return loginTimeout;
@@ -337,6 +405,11 @@ public class AgroalConnectionFactoryConfigurationSupplier implements Supplier<Ag
                 return initialSql;
             }
 
+            @Override
+            public Collection<String> initialPreparedStatements() {
+                return initialPreparedStatements;
+            }
+
             @Override
             public Class<?> connectionProviderClass() {
                 return connectionProviderClass;
@@ -33,6 +33,11 @@ import static java.time.Duration.ofSeconds;
 @SuppressWarnings( {"PackageVisibleField", "WeakerAccess"} )
 public class AgroalConnectionPoolConfigurationSupplier implements Supplier<AgroalConnectionPoolConfiguration> {
 
+    /**
+     * Largest size of the buffer of events waiting to be delivered to the listeners. The buffer is rounded up to a power of two.
+     */
+    public static final int MAX_ASYNC_LISTENER_BUFFER_SIZE = 1 << 30;
+
     AgroalConnectionFactoryConfiguration connectionFactoryConfiguration;
 
     ConnectionCache connectionCache = LocalConnectionCache.single();
@@ -40,7 +45,15 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
     TransactionRequirement transactionRequirement = TransactionRequirement.OFF;
     MultipleAcquisitionAction multipleAcquisitionAction = MultipleAcquisitionAction.LENIENT;
     boolean enhancedLeakReport;
+    int enhancedLeakReportSampling;
+    boolean reclaimUnreachable;
+    int flightRecorderSize;
+    int asyncListenerBufferSize;
     boolean flushOnClose;
+    boolean lazyReset;
+    boolean asyncReturn;
+    boolean lazyAcquisition;
+    boolean statementRelease;
     boolean recoveryEnable = true;
     int initialSize;
     volatile int minSize;
@@ -55,6 +68,7 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
     Duration validationTimeout = ZERO;
     Duration reapTimeout = ZERO;
     Duration maxLifetime = ZERO;
+    Duration metricsHistory = ZERO;
     volatile Duration acquisitionTimeout = ZERO;
     Collection<AgroalPoolInterceptor> interceptors = new ArrayList<>();
 
@@ -77,8 +91,16 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         transactionRequirement = existingConfiguration.transactionRequirement();
         multipleAcquisitionAction = existingConfiguration.multipleAcquisition();
         flushOnClose = existingConfiguration.flushOnClose();
+        lazyReset = existingConfiguration.lazyReset();
+        asyncReturn = existingConfiguration.asyncReturn();
+        lazyAcquisition = existingConfiguration.lazyAcquisition();
+        statementRelease = existingConfiguration.statementRelease();
         recoveryEnable = existingConfiguration.recoveryEnable();
         enhancedLeakReport = existingConfiguration.enhancedLeakReport();
+        enhancedLeakReportSampling = existingConfiguration.enhancedLeakReportSampling();
+        reclaimUnreachable = existingConfiguration.reclaimUnreachable();
+        flightRecorderSize = existingConfiguration.flightRecorderSize();
+        asyncListenerBufferSize = existingConfiguration.asyncListenerBufferSize();
         initialSize = existingConfiguration.initialSize();
         minSize = existingConfiguration.minSize();
         maxSize = existingConfiguration.maxSize();
@@ -92,6 +114,7 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         validationTimeout = existingConfiguration.validationTimeout();
         reapTimeout = existingConfiguration.reapTimeout();
         maxLifetime = existingConfiguration.maxLifetime();
+        metricsHistory = existingConfiguration.metricsHistory();
         acquisitionTimeout = existingConfiguration.acquisitionTimeout();
         interceptors = existingConfiguration.interceptors();
     }
@@ -187,6 +210,51 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         return this;
     }
 
+    /**
+     * Sets the sampling of acquisitions for enhanced leak report, tracing only one in this number of acquisitions. Default is 0 meaning that every acquisition is traced.
+     */
+    public AgroalConnectionPoolConfigurationSupplier enhancedLeakReportSampling(int sampling) {
+        checkLock();
+        enhancedLeakReportSampling = sampling;
+        return this;
+    }
+
+    /**
+     * Enables reclaim of connections that become unreachable without being closed.
+     */
+    public AgroalConnectionPoolConfigurationSupplier reclaimUnreachable() {
+        return reclaimUnreachable( true );
+    }
+
+    /**
+     * Enables or disables reclaim of connections that become unreachable without being closed. Default is false, meaning leaked connections are only detected after the leak timeout.
+     * Requires tracking of JDBC resources, so that statements and result sets keep their connection reachable.
+     */
+    public AgroalConnectionPoolConfigurationSupplier reclaimUnreachable(boolean reclaim) {
+        checkLock();
+        reclaimUnreachable = reclaim;
+        return this;
+    }
+
+    /**
+     * Sets the number of recent pool events kept for diagnostics. Default is 0 meaning that this feature is disabled.
+     */
+    public AgroalConnectionPoolConfigurationSupplier flightRecorderSize(int size) {
+        checkLock();
+        flightRecorderSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the number of events that can be waiting to be delivered to the listeners by a dedicated thread. Default is 0 meaning that listeners are notified synchronously.
+     * Must not be greater than {@link #MAX_ASYNC_LISTENER_BUFFER_SIZE}.
+     */
+    public AgroalConnectionPoolConfigurationSupplier asyncListenerBufferSize(int size) {
+        checkLock();
+        asyncListenerBufferSize = size;
+        return this;
+    }
+
     /**
      * Enables flushing of connections on close.
      */
@@ -203,6 +271,70 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         return this;
     }
 
+    /**
+     * Enables lazy reset of connections returning to the pool.
+     */
+    public AgroalConnectionPoolConfigurationSupplier lazyReset() {
+        return lazyReset( true );
+    }
+
+    /**
+     * Enables or disables lazy reset of connections returning to the pool. Default is false, meaning connections are reset as they return to the pool.
+     */
+    public AgroalConnectionPoolConfigurationSupplier lazyReset(boolean lazy) {
+        checkLock();
+        lazyReset = lazy;
+        return this;
+    }
+
+    /**
+     * Enables asynchronous return of connections to the pool.
+     */
+    public AgroalConnectionPoolConfigurationSupplier asyncReturn() {
+        return asyncReturn( true );
+    }
+
+    /**
+     * Enables or disables asynchronous return of connections to the pool. Default is false, meaning connections are reset and returned to the pool on the thread that closes them.
+     */
+    public AgroalConnectionPoolConfigurationSupplier asyncReturn(boolean async) {
+        checkLock();
+        asyncReturn = async;
+        return this;
+    }
+
+    /**
+     * Enables lazy acquisition of connections.
+     */
+    public AgroalConnectionPoolConfigurationSupplier lazyAcquisition() {
+        return lazyAcquisition( true );
+    }
+
+    /**
+     * Enables or disables lazy acquisition of connections. Default is false, meaning a connection is acquired from the pool when the application requests it.
+     */
+    public AgroalConnectionPoolConfigurationSupplier lazyAcquisition(boolean lazy) {
+        checkLock();
+        lazyAcquisition = lazy;
+        return this;
+    }
+
+    /**
+     * Enables release of connections after each statement in auto-commit mode.
+     */
+    public AgroalConnectionPoolConfigurationSupplier statementRelease() {
+        return statementRelease( true );
+    }
+
+    /**
+     * Enables or disables release of connections after each statement in auto-commit mode. Default is false, meaning connections are held until the application closes them.
+     */
+    public AgroalConnectionPoolConfigurationSupplier statementRelease(boolean release) {
+        checkLock();
+        statementRelease = release;
+        return this;
+    }
+
     public AgroalConnectionPoolConfigurationSupplier recoveryEnable() {
         return recoveryEnable( true );
     }
@@ -338,6 +470,15 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         return this;
     }
 
+    /**
+     * Sets the duration for which metrics are kept in memory. Default is {@link Duration#ZERO} meaning that this feature is disabled.
+     */
+    public AgroalConnectionPoolConfigurationSupplier metricsHistory(Duration history) {
+        checkLock();
+        metricsHistory = history;
+        return this;
+    }
+
     public AgroalConnectionPoolConfigurationSupplier addInterceptor(AgroalPoolInterceptor poolInterceptor) {
         checkLock();
         interceptors.add(poolInterceptor);
@@ -365,6 +506,18 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         if ( initialSize < 0 ) {
             throw new IllegalArgumentException( "Invalid value for initial size. Must not be negative, and ideally between min size and max size" );
         }
+        if ( enhancedLeakReportSampling < 0 ) {
+            throw new IllegalArgumentException( "Enhanced leak report sampling must not be negative" );
+        }
+        if ( flightRecorderSize < 0 ) {
+            throw new IllegalArgumentException( "Flight recorder size must not be negative" );
+        }
+        if ( asyncListenerBufferSize < 0 ) {
+            throw new IllegalArgumentException( "Async listener buffer size must not be negative" );
+        }
+        if ( asyncListenerBufferSize > MAX_ASYNC_LISTENER_BUFFER_SIZE ) {
+            throw new IllegalArgumentException( "Async listener buffer size must not be greater than " + MAX_ASYNC_LISTENER_BUFFER_SIZE );
+        }
         if ( establishmentRetryAttempts < 0 ) {
             throw new IllegalArgumentException( "Number of establishment retry attempts must not be negative" );
         }
@@ -389,10 +542,16 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
         if ( validationTimeout.isNegative() ) {
             throw new IllegalArgumentException( "Validation timeout must not be negative" );
         }
+        if ( metricsHistory.isNegative() ) {
+            throw new IllegalArgumentException( "Metrics history must not be negative" );
+        }
         if ( connectionFactoryConfigurationSupplier == null ) {
             throw new IllegalArgumentException( "Connection factory configuration not defined" );
         }
         connectionFactoryConfiguration = connectionFactoryConfigurationSupplier.get();
+        if ( reclaimUnreachable && !connectionFactoryConfiguration.trackJdbcResources() ) {
+            throw new IllegalArgumentException( "Reclaim of unreachable connections requires tracking of JDBC resources" );
+        }
     }
 
     @Override
@@ -428,11 +587,56 @@ public class AgroalConnectionPoolConfigurationSupplier implements Supplier<Agroa
                 return enhancedLeakReport;
             }
 
+            @Override
+            public int enhancedLeakReportSampling() {
+                return enhancedLeakReportSampling;
+            }
+
+            @Override
+            public boolean reclaimUnreachable() {
+                return reclaimUnreachable;
+            }
+
+            @Override
+            public int flightRecorderSize() {
+                return flightRecorderSize;
+            }
+
+            @Override
+            public int asyncListenerBufferSize() {
+                return asyncListenerBufferSize;
+            }
+
+            @Override
+            public Duration metricsHistory() {
+                return metricsHistory;
+            }
+
             @Override
             public boolean flushOnClose() {
                 return flushOnClose;
             }
 
+            @Override
+            public boolean lazyReset() {
+                return lazyReset;
+            }
+
+            @Override
+            public boolean asyncReturn() {
+                return asyncReturn;
+            }
+
+            @Override
+            public boolean lazyAcquisition() {
+                return lazyAcquisition;
+            }
+
+            @Override
+            public boolean statementRelease() {
+                return statementRelease;
+            }
+
             @Override
             public boolean recoveryEnable() {
                 return recoveryEnable;
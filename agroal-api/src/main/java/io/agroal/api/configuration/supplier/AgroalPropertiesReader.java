@@ -64,8 +64,16 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
     public static final String MAX_SIZE = "maxSize";
     public static final String INITIAL_SIZE = "initialSize";
     public static final String FLUSH_ON_CLOSE = "flushOnClose";
+    public static final String LAZY_RESET = "lazyReset";
+    public static final String ASYNC_RETURN = "asyncReturn";
+    public static final String LAZY_ACQUISITION = "lazyAcquisition";
+    public static final String STATEMENT_RELEASE = "statementRelease";
     public static final String CONNECTION_VALIDATOR = "connectionValidator";
     public static final String ENHANCED_LEAK_REPORT = "enhancedLeakReport";
+    public static final String ENHANCED_LEAK_REPORT_SAMPLING = "enhancedLeakReportSampling";
+    public static final String RECLAIM_UNREACHABLE = "reclaimUnreachable";
+    public static final String FLIGHT_RECORDER_SIZE = "flightRecorderSize";
+    public static final String ASYNC_LISTENER_BUFFER_SIZE = "asyncListenerBufferSize";
     public static final String EXCEPTION_SORTER = "exceptionSorter";
     public static final String MULTIPLE_ACQUISITION = "multipleAcquisition";
     public static final String TRANSACTION_REQUIREMENT = "transactionRequirement";
@@ -102,6 +110,11 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
     public static final String MAX_LIFETIME_S = "maxLifetime_s";
     public static final String MAX_LIFETIME_M = "maxLifetime_m";
 
+    public static final String METRICS_HISTORY = "metricsHistory";
+    public static final String METRICS_HISTORY_MS = "metricsHistory_ms";
+    public static final String METRICS_HISTORY_S = "metricsHistory_s";
+    public static final String METRICS_HISTORY_M = "metricsHistory_m";
+
     public static final String ESTABLISHMENT_RETRY_INTERVAL = "establishmentRetryInterval";
     public static final String ESTABLISHMENT_RETRY_INTERVAL_MS = "establishmentRetryInterval_ms";
     public static final String ESTABLISHMENT_RETRY_INTERVAL_S = "establishmentRetryInterval_s";
@@ -113,9 +126,13 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
     public static final String AUTO_COMMIT = "autoCommit";
     public static final String READ_ONLY = "readOnly";
     public static final String TRACK_JDBC_RESOURCES = "trackJdbcResources";
+    public static final String PREPARED_STATEMENT_CACHE_SIZE = "preparedStatementCacheSize";
+    public static final String DETACHED_RESULT_SET_MAX_ROWS = "detachedResultSetMaxRows";
+    public static final String DETACHED_RESULT_SET_MAX_MEMORY = "detachedResultSetMaxMemory";
     public static final String LOGIN_TIMEOUT = "loginTimeout";
     public static final String NETWORK_TIMEOUT = "networkTimeout";
     public static final String INITIAL_SQL = "initialSQL";
+    public static final String INITIAL_PREPARED_STATEMENTS = "initialPreparedStatements";
     public static final String PROVIDER_CLASS_NAME = "providerClassName";
     public static final String TRANSACTION_ISOLATION = "jdbcTransactionIsolation";
     public static final String PRINCIPAL = "principal";
@@ -188,10 +205,18 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
         apply( connectionPoolSupplier::minSize, Integer::parseInt, properties, MIN_SIZE );
         apply( connectionPoolSupplier::maxSize, Integer::parseInt, properties, MAX_SIZE );
         apply( connectionPoolSupplier::flushOnClose, Boolean::parseBoolean, properties, FLUSH_ON_CLOSE );
+        apply( connectionPoolSupplier::lazyReset, Boolean::parseBoolean, properties, LAZY_RESET );
+        apply( connectionPoolSupplier::asyncReturn, Boolean::parseBoolean, properties, ASYNC_RETURN );
+        apply( connectionPoolSupplier::lazyAcquisition, Boolean::parseBoolean, properties, LAZY_ACQUISITION );
+        apply( connectionPoolSupplier::statementRelease, Boolean::parseBoolean, properties, STATEMENT_RELEASE );
         apply( connectionPoolSupplier::initialSize, Integer::parseInt, properties, INITIAL_SIZE );
         apply( connectionPoolSupplier::connectionValidator, AgroalPropertiesReader::parseConnectionValidator, properties, CONNECTION_VALIDATOR );
         apply( connectionPoolSupplier::exceptionSorter, AgroalPropertiesReader::parseExceptionSorter, properties, EXCEPTION_SORTER );
         apply( connectionPoolSupplier::enhancedLeakReport, Boolean::parseBoolean, properties, ENHANCED_LEAK_REPORT );
+        apply( connectionPoolSupplier::enhancedLeakReportSampling, Integer::parseInt, properties, ENHANCED_LEAK_REPORT_SAMPLING );
+        apply( connectionPoolSupplier::reclaimUnreachable, Boolean::parseBoolean, properties, RECLAIM_UNREACHABLE );
+        apply( connectionPoolSupplier::flightRecorderSize, Integer::parseInt, properties, FLIGHT_RECORDER_SIZE );
+        apply( connectionPoolSupplier::asyncListenerBufferSize, Integer::parseInt, properties, ASYNC_LISTENER_BUFFER_SIZE );
         apply( connectionPoolSupplier::multipleAcquisition, MultipleAcquisitionAction::valueOf, properties, MULTIPLE_ACQUISITION );
         apply( connectionPoolSupplier::transactionRequirement, TransactionRequirement::valueOf, properties, TRANSACTION_REQUIREMENT );
         apply( connectionPoolSupplier::validateOnBorrow, Boolean::parseBoolean, properties, VALIDATE_ON_BORROW );
@@ -227,6 +252,11 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
         apply( connectionPoolSupplier::maxLifetime, AgroalPropertiesReader::parseDurationS, properties, MAX_LIFETIME_S );
         apply( connectionPoolSupplier::maxLifetime, AgroalPropertiesReader::parseDurationM, properties, MAX_LIFETIME_M );
 
+        apply( connectionPoolSupplier::metricsHistory, Duration::parse, properties, METRICS_HISTORY );
+        apply( connectionPoolSupplier::metricsHistory, AgroalPropertiesReader::parseDurationMs, properties, METRICS_HISTORY_MS );
+        apply( connectionPoolSupplier::metricsHistory, AgroalPropertiesReader::parseDurationS, properties, METRICS_HISTORY_S );
+        apply( connectionPoolSupplier::metricsHistory, AgroalPropertiesReader::parseDurationM, properties, METRICS_HISTORY_M );
+
         apply( connectionPoolSupplier::establishmentRetryInterval, Duration::parse, properties, ESTABLISHMENT_RETRY_INTERVAL );
         apply( connectionPoolSupplier::establishmentRetryInterval, AgroalPropertiesReader::parseDurationMs, properties, ESTABLISHMENT_RETRY_INTERVAL_MS );
         apply( connectionPoolSupplier::establishmentRetryInterval, AgroalPropertiesReader::parseDurationS, properties, ESTABLISHMENT_RETRY_INTERVAL_S );
@@ -236,9 +266,13 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
         apply( connectionFactorySupplier::autoCommit, Boolean::parseBoolean, properties, AUTO_COMMIT );
         apply( connectionFactorySupplier::readOnly, Boolean::parseBoolean, properties, READ_ONLY );
         apply( connectionFactorySupplier::trackJdbcResources, Boolean::parseBoolean, properties, TRACK_JDBC_RESOURCES );
+        apply( connectionFactorySupplier::preparedStatementCacheSize, Integer::parseInt, properties, PREPARED_STATEMENT_CACHE_SIZE );
+        apply( connectionFactorySupplier::detachedResultSetMaxRows, Integer::parseInt, properties, DETACHED_RESULT_SET_MAX_ROWS );
+        apply( connectionFactorySupplier::detachedResultSetMaxMemory, Long::parseLong, properties, DETACHED_RESULT_SET_MAX_MEMORY );
         apply( connectionFactorySupplier::loginTimeout, Duration::parse, properties, LOGIN_TIMEOUT );
         apply( connectionFactorySupplier::networkTimeout, Duration::parse, properties, NETWORK_TIMEOUT );
         apply( connectionFactorySupplier::initialSql, identity(), properties, INITIAL_SQL );
+        applyList( connectionFactorySupplier::addInitialPreparedStatement, properties, INITIAL_PREPARED_STATEMENTS );
         apply( connectionFactorySupplier::connectionProviderClassName, identity(), properties, PROVIDER_CLASS_NAME );
         apply( connectionFactorySupplier::jdbcTransactionIsolation, TransactionIsolation::valueOf, properties, TRANSACTION_ISOLATION );
         apply( connectionFactorySupplier::principal, NamePrincipal::new, properties, PRINCIPAL );
@@ -261,6 +295,18 @@ public class AgroalPropertiesReader implements Supplier<AgroalDataSourceConfigur
         }
     }
 
+    @SuppressWarnings( {"SameParameterValue", "StringConcatenation"} )
+    private void applyList(Consumer<? super String> consumer, Map<String, String> properties, String key) {
+        String valuesArray = properties.get( prefix + key );
+        if ( valuesArray != null && !valuesArray.isEmpty() ) {
+            for ( String value : valuesArray.split( ";" ) ) {
+                if ( !value.isBlank() ) {
+                    consumer.accept( value.trim() );
+                }
+            }
+        }
+    }
+
     @SuppressWarnings( {"SameParameterValue", "StringConcatenation"} )
     private void applyJdbcProperties(BiConsumer<? super String, ? super String> consumer, Map<String, String> properties, String key) {
         String propertiesArray = properties.get( prefix + key );
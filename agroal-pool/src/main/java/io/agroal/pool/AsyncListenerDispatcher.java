@@ -0,0 +1,340 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool;
+
+import io.agroal.api.AgroalDataSourceListener;
+import io.agroal.api.AgroalPoolInterceptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * Listener that delivers events to other listeners on a dedicated thread, so that slow listeners do not delay operations on the pool.
+ * Events are written to a ring buffer of preallocated slots, and are dropped if there is no free slot.
+ * <p>
+ * Events that happen after an operation are delivered asynchronously. By then the connection may be in use by another thread, or closed, so listeners must not use it other than for it's identity.
+ * Events that happen before an operation, connection creation and pooling, as well as creation failures, leaks and interceptors, are delivered synchronously on the thread that reports them, where the connection can be used.
+ * Exceptions thrown by listeners on the dispatcher thread are reported to it's uncaught exception handler, and delivery continues.
+ * A slot is tagged with the sequence of the event it holds, allowing the dispatcher thread to know when an event is completely written.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+final class AsyncListenerDispatcher implements AgroalDataSourceListener, Runnable {
+
+    private static final VarHandle SLOT_SEQUENCE = MethodHandles.arrayElementVarHandle( long[].class );
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final Event[] EVENTS = Event.values();
+    private static final long EMPTY = -1;
+
+    private final AgroalDataSourceListener[] listeners;
+    private final Pool pool;
+
+    private final int mask;
+    private final long[] slotSequence;
+    private final byte[] events;
+    private final Object[] subjects;
+
+    // sequence of the next event to be written, and of the next event to be delivered
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final Thread dispatcher;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    AsyncListenerDispatcher(int size, Pool pool, AgroalDataSourceListener... listeners) {
+        this.listeners = listeners;
+        this.pool = pool;
+
+        int capacity = Integer.highestOneBit( size ) == size ? size : Integer.highestOneBit( size ) << 1;
+        mask = capacity - 1;
+        slotSequence = new long[capacity];
+        events = new byte[capacity];
+        subjects = new Object[capacity];
+        for ( int i = 0; i < capacity; i++ ) {
+            slotSequence[i] = EMPTY;
+        }
+
+        dispatcher = new Thread( this, "agroal-listener-" + THREAD_COUNT.incrementAndGet() );
+        dispatcher.setDaemon( true );
+    }
+
+    /**
+     * Starts the dispatcher thread. Events published before are delivered once it starts.
+     */
+    void start() {
+        dispatcher.start();
+    }
+
+    static AgroalDataSourceListener[] withAsyncDispatch(AsyncListenerDispatcher dispatcher, AgroalDataSourceListener... listeners) {
+        return dispatcher == null ? listeners : new AgroalDataSourceListener[]{dispatcher};
+    }
+
+    /**
+     * Stops the dispatcher thread once the events already written are delivered.
+     */
+    void close() {
+        closed = true;
+        unpark( dispatcher );
+    }
+
+    private void publish(Event event, Object subject) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if ( sequence - head >= slotSequence.length ) {
+                MetricsRepository metrics = pool.getMetrics();
+                if ( metrics != null ) { // events can be published before metrics are configured
+                    metrics.afterListenerEventDrop();
+                }
+                return;
+            }
+        } while ( !tail.compareAndSet( sequence, sequence + 1 ) );
+
+        int slot = (int) sequence & mask;
+        events[slot] = (byte) event.ordinal();
+        subjects[slot] = subject;
+        SLOT_SEQUENCE.setVolatile( slotSequence, slot, sequence );
+
+        if ( waiting ) {
+            waiting = false;
+            unpark( dispatcher );
+        }
+    }
+
+    @Override
+    public void run() {
+        for ( long next = 0; ; ) {
+            int slot = (int) next & mask;
+            if ( (long) SLOT_SEQUENCE.getVolatile( slotSequence, slot ) == next ) {
+                Event event = EVENTS[events[slot]];
+                Object subject = subjects[slot];
+                subjects[slot] = null; // do not retain connections
+
+                head = ++next; // frees the slot
+                for ( AgroalDataSourceListener listener : listeners ) {
+                    try {
+                        deliver( listener, event, subject );
+                    } catch ( VirtualMachineError e ) {
+                        throw e;
+                    } catch ( Throwable t ) {
+                        // report without stopping delivery, as failing listeners can't be notified of their own failures
+                        dispatcher.getUncaughtExceptionHandler().uncaughtException( dispatcher, t );
+                    }
+                }
+            } else if ( closed ) {
+                return;
+            } else {
+                // a publisher that does not see the flag set has written the slot before the check, so the wake-up is never missed
+                waiting = true;
+                if ( (long) SLOT_SEQUENCE.getVolatile( slotSequence, slot ) != next && !closed ) {
+                    park( this );
+                }
+                waiting = false;
+            }
+        }
+    }
+
+    @SuppressWarnings( "OverlyComplexMethod" )
+    private static void deliver(AgroalDataSourceListener listener, Event event, Object subject) {
+        switch ( event ) {
+            case CONNECTION_ACQUIRE:
+                listener.onConnectionAcquire( (Connection) subject );
+                break;
+            case CONNECTION_RETURN:
+                listener.onConnectionReturn( (Connection) subject );
+                break;
+            case CONNECTION_VALID:
+                listener.onConnectionValid( (Connection) subject );
+                break;
+            case CONNECTION_INVALID:
+                listener.onConnectionInvalid( (Connection) subject );
+                break;
+            case CONNECTION_FLUSH:
+                listener.onConnectionFlush( (Connection) subject );
+                break;
+            case CONNECTION_REAP:
+                listener.onConnectionReap( (Connection) subject );
+                break;
+            case CONNECTION_DESTROY:
+                listener.onConnectionDestroy( (Connection) subject );
+                break;
+            case WARNING_MESSAGE:
+                listener.onWarning( (String) subject );
+                break;
+            case WARNING_THROWABLE:
+                listener.onWarning( (Throwable) subject );
+                break;
+            case INFO:
+                listener.onInfo( (String) subject );
+                break;
+            default:
+        }
+    }
+
+    // --- delivered asynchronously //
+
+    @Override
+    public void onConnectionAcquire(Connection connection) {
+        publish( Event.CONNECTION_ACQUIRE, connection );
+    }
+
+    @Override
+    public void onConnectionReturn(Connection connection) {
+        publish( Event.CONNECTION_RETURN, connection );
+    }
+
+    @Override
+    public void onConnectionValid(Connection connection) {
+        publish( Event.CONNECTION_VALID, connection );
+    }
+
+    @Override
+    public void onConnectionInvalid(Connection connection) {
+        publish( Event.CONNECTION_INVALID, connection );
+    }
+
+    @Override
+    public void onConnectionFlush(Connection connection) {
+        publish( Event.CONNECTION_FLUSH, connection );
+    }
+
+    @Override
+    public void onConnectionReap(Connection connection) {
+        publish( Event.CONNECTION_REAP, connection );
+    }
+
+    @Override
+    public void onConnectionDestroy(Connection connection) {
+        publish( Event.CONNECTION_DESTROY, connection );
+    }
+
+    @Override
+    public void onWarning(String message) {
+        publish( Event.WARNING_MESSAGE, message );
+    }
+
+    @Override
+    public void onWarning(Throwable throwable) {
+        publish( Event.WARNING_THROWABLE, throwable );
+    }
+
+    @Override
+    public void onInfo(String message) {
+        publish( Event.INFO, message );
+    }
+
+    // --- delivered synchronously //
+
+    @Override
+    public void beforeConnectionCreation() {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionCreation();
+        }
+    }
+
+    @Override
+    public void onConnectionCreation(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.onConnectionCreation( connection );
+        }
+    }
+
+    @Override
+    public void onConnectionPooled(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.onConnectionPooled( connection );
+        }
+    }
+
+    @Override
+    public void beforeConnectionAcquire() {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionAcquire();
+        }
+    }
+
+    @Override
+    public void beforeConnectionReturn(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionReturn( connection );
+        }
+    }
+
+    @Override
+    public void beforeConnectionValidation(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionValidation( connection );
+        }
+    }
+
+    @Override
+    public void beforeConnectionFlush(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionFlush( connection );
+        }
+    }
+
+    @Override
+    public void beforeConnectionReap(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionReap( connection );
+        }
+    }
+
+    @Override
+    public void beforeConnectionDestroy(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionDestroy( connection );
+        }
+    }
+
+    @Override
+    public void beforePoolBlock(long timeout) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforePoolBlock( timeout );
+        }
+    }
+
+    @Override
+    public void onConnectionCreationFailure(SQLException sqlException) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.onConnectionCreationFailure( sqlException );
+        }
+    }
+
+    @Override
+    public void beforeConnectionLeak(Connection connection) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.beforeConnectionLeak( connection );
+        }
+    }
+
+    @Override
+    public void onConnectionLeak(Connection connection, Thread thread) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.onConnectionLeak( connection, thread );
+        }
+    }
+
+    @Override
+    public void onPoolInterceptor(AgroalPoolInterceptor interceptor) {
+        for ( AgroalDataSourceListener listener : listeners ) {
+            listener.onPoolInterceptor( interceptor );
+        }
+    }
+
+    // --- //
+
+    private enum Event {
+        CONNECTION_ACQUIRE, CONNECTION_RETURN, CONNECTION_VALID, CONNECTION_INVALID, CONNECTION_FLUSH, CONNECTION_REAP, CONNECTION_DESTROY, WARNING_MESSAGE, WARNING_THROWABLE, INFO
+    }
+}
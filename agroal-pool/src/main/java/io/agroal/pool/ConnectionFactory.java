@@ -257,6 +257,15 @@ public final class ConnectionFactory implements ResourceRecoveryFactory {
                 statement.execute( configuration.initialSql() );
             }
         }
+        if ( configuration.preparedStatementCacheSize() == 0 ) { // otherwise prepared on the statement cache of the connection handler
+            for ( String sql : configuration.initialPreparedStatements() ) {
+                try {
+                    connection.prepareStatement( sql ).close(); // closed right away, only warms up the database side
+                } catch ( SQLException e ) {
+                    fireOnWarning( listeners, "Failed to prepare initial statement: " + e.getMessage() );
+                }
+            }
+        }
         return connection;
     }
 
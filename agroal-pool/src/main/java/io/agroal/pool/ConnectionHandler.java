@@ -3,11 +3,14 @@
 
 package io.agroal.pool;
 
+import io.agroal.api.AgroalConnectionLabels;
+import io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath;
+import io.agroal.api.AgroalPoolSnapshot;
 import io.agroal.api.cache.Acquirable;
+import io.agroal.api.configuration.AgroalConnectionFactoryConfiguration;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration;
 import io.agroal.api.transaction.TransactionAware;
 import io.agroal.pool.util.AutoCloseableElement;
-import io.agroal.pool.util.UncheckedArrayList;
 import io.agroal.pool.wrapper.ConnectionWrapper;
 import io.agroal.pool.wrapper.XAConnectionWrapper;
 
@@ -17,23 +20,34 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.lang.StackWalker.StackFrame;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static io.agroal.pool.ConnectionHandler.DirtyAttribute.AUTOCOMMIT;
+import static io.agroal.pool.ConnectionHandler.DirtyAttribute.CATALOG;
 import static io.agroal.pool.ConnectionHandler.DirtyAttribute.HOLDABILITY;
 import static io.agroal.pool.ConnectionHandler.DirtyAttribute.NETWORK_TIMEOUT;
 import static io.agroal.pool.ConnectionHandler.DirtyAttribute.READ_ONLY;
+import static io.agroal.pool.ConnectionHandler.DirtyAttribute.SCHEMA;
 import static io.agroal.pool.ConnectionHandler.DirtyAttribute.TRANSACTION_ISOLATION;
 import static io.agroal.pool.util.ListenerHelper.fireOnInfo;
 import static io.agroal.pool.util.ListenerHelper.fireOnWarning;
+import static java.lang.System.identityHashCode;
 import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
-import static java.util.Arrays.copyOfRange;
 import static java.util.EnumSet.noneOf;
+import static java.util.stream.Collectors.toList;
 import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
 
 /**
@@ -42,9 +56,16 @@ import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater
 public final class ConnectionHandler implements TransactionAware, Acquirable {
 
     private static final AtomicReferenceFieldUpdater<ConnectionHandler, State> stateUpdater = newUpdater( ConnectionHandler.class, State.class, "state" );
+    private static final AtomicReferenceFieldUpdater<ConnectionHandler, AtomicInteger> holdingThreadConnectionsUpdater = newUpdater( ConnectionHandler.class, AtomicInteger.class, "holdingThreadConnections" );
 
     private static final SQLCallable<Boolean> NO_ACTIVE_TRANSACTION = () -> false;
 
+    // the frames are only turned into stack trace elements when a leak is reported
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    // number of recent operations kept for enhanced leak report
+    private static final int TRACED_OPERATIONS = 32;
+
     // --- //
 
     private final XAConnection xaConnection;
@@ -60,25 +81,54 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
     // attributes that need to be reset when the connection is returned
     private final Set<DirtyAttribute> dirtyAttributes = noneOf( DirtyAttribute.class );
 
+    // known values of session attributes of the connection, to avoid round trips to the database on getters and redundant setters
+    private final Map<DirtyAttribute, Object> sessionAttributes = new EnumMap<>( DirtyAttribute.class );
+
+    // values to set on the connection before it's used, either restored on reset or set by the application while reset is deferred
+    private final Map<DirtyAttribute, Object> pendingAttributes = new EnumMap<>( DirtyAttribute.class );
+
+    // custom labels applied to the connection, mapping names to the SQL executed. read by other threads looking for a connection with the same labels
+    private final Map<String, String> sessionLabels = new ConcurrentHashMap<>();
+
     // collection of wrappers created while enlisted in the current transaction
     private final AutoCloseableElement<ConnectionWrapper> enlistedOpenWrappers = AutoCloseableElement.newHead();
 
+    // detached wrapper for the interceptors, created on first use. the callbacks for one connection never run concurrently
+    private ConnectionWrapper interceptorWrapper;
+
+    // cache of prepared statements, null if disabled
+    private final StatementCache statementCache;
+
     // Can use annotation to get (in theory) a little better performance
     // @Contended
     private volatile State state = State.NEW;
 
+    // number of connections of the pool on each state
+    private final ConnectionStateCounters stateCounters;
+
     // for leak detection (only valid for CHECKED_OUT connections)
     private Thread holdingThread;
 
+    // number of connections held by the holding thread, for detection of multiple acquisition (only valid for CHECKED_OUT connections)
+    private volatile AtomicInteger holdingThreadConnections;
+
     // Enhanced leak report
-    @SuppressWarnings( "VolatileArrayField" )
-    private volatile StackTraceElement[] acquisitionStackTrace;
-    private StackTraceElement[] lastOperationStackTrace;
-    private List<String> connectionOperations;
+    private volatile List<StackFrame> acquisitionStackTrace;
+    private volatile StackFrame acquisitionSite;
+    private List<StackFrame> lastOperationStackTrace;
+    private String[] connectionOperations;
+    private long connectionOperationCount;
 
     // for expiration (CHECKED_IN connections) and leak detection (CHECKED_OUT connections)
     private long lastAccess;
 
+    // for reporting the age of the connection
+    private final long creationTime = nanoTime();
+
+    // for reporting the time the connection is held and how it was acquired (only valid for CHECKED_OUT connections)
+    private long acquisitionTime;
+    private AcquisitionPath acquisitionPath;
+
     // flag to indicate that this the connection is enlisted to a transaction
     private boolean enlisted;
 
@@ -105,6 +155,10 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         connectionPool = pool;
         defaultIsolationLevel = isolationLevel;
         defaultHoldability = holdability;
+        int statementCacheSize = pool == null ? 0 : pool.getConfiguration().connectionFactoryConfiguration().preparedStatementCacheSize(); // no pool for TRANSFER_POISON
+        statementCache = statementCacheSize > 0 ? new StatementCache( statementCacheSize, pool ) : null;
+        stateCounters = pool == null ? new ConnectionStateCounters() : pool.getStateCounters(); // no pool for TRANSFER_POISON
+        stateCounters.afterCreation( State.NEW );
         touch();
     }
 
@@ -115,7 +169,111 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
 
     public ConnectionWrapper connectionWrapper() {
         boolean trackResources = connectionPool.getConfiguration().connectionFactoryConfiguration().trackJdbcResources();
-        return new ConnectionWrapper( this, trackResources, enlisted ? enlistedOpenWrappers : null, defaultHoldability == ResultSet.HOLD_CURSORS_OVER_COMMIT );
+        ConnectionWrapper wrapper = new ConnectionWrapper( this, trackResources, enlisted ? enlistedOpenWrappers : null, defaultHoldability == ResultSet.HOLD_CURSORS_OVER_COMMIT );
+        if ( !enlisted && trackResources && connectionPool.getUnreachableReaper() != null ) {
+            wrapper.onUnreachable( connectionPool.getUnreachableReaper(), this::reclaim );
+        }
+        return wrapper;
+    }
+
+    /**
+     * Called on the reaper thread when the wrapper became unreachable without being closed. The connection is flushed, as it may have been left in any state.
+     */
+    private void reclaim() {
+        if ( !enlisted && tryFlushFromActive() ) {
+            connectionPool.reclaimConnectionHandler( this );
+        }
+    }
+
+    /**
+     * Returns a connection reclaimed by the pool, once the leak is reported.
+     */
+    public void returnReclaimed() {
+        try {
+            setHeldOverCommit( false );
+            transactionEnd();
+        } catch ( SQLException e ) {
+            fireOnWarning( connectionPool.getListeners(), e );
+        }
+    }
+
+    /**
+     * Puts the connection in the state described by the labels. Values are set on the connection itself, skipping the ones it's known to have already.
+     * Called by the pool before the connection is handed to the application, so it's not subject to the restrictions on an enlisted connection.
+     */
+    @SuppressWarnings( "MagicConstant" )
+    public void applyLabels(AgroalConnectionLabels labels) throws SQLException {
+        if ( labelCost( labels ) == 0 ) {
+            connectionPool.getMetrics().afterLabelHit();
+        } else {
+            connectionPool.getMetrics().afterLabelMiss();
+        }
+        try {
+            if ( labels.getTransactionIsolation() != null && changeLabel( TRANSACTION_ISOLATION, labels.getTransactionIsolation() ) ) {
+                connection.setTransactionIsolation( labels.getTransactionIsolation() );
+                setSessionAttribute( TRANSACTION_ISOLATION, labels.getTransactionIsolation() );
+            }
+            if ( labels.getReadOnly() != null && changeLabel( READ_ONLY, labels.getReadOnly() ) ) {
+                connection.setReadOnly( labels.getReadOnly() );
+                setSessionAttribute( READ_ONLY, labels.getReadOnly() );
+            }
+            if ( labels.getSchema() != null && changeLabel( SCHEMA, labels.getSchema() ) ) {
+                connection.setSchema( labels.getSchema() );
+                setSessionAttribute( SCHEMA, labels.getSchema() );
+            }
+            if ( labels.getCatalog() != null && changeLabel( CATALOG, labels.getCatalog() ) ) {
+                connection.setCatalog( labels.getCatalog() );
+                setSessionAttribute( CATALOG, labels.getCatalog() );
+            }
+            for ( Map.Entry<String, String> label : labels.getLabels().entrySet() ) {
+                if ( !label.getValue().equals( sessionLabels.get( label.getKey() ) ) ) {
+                    sessionLabels.remove( label.getKey() ); // unknown if the statement fails
+                    try ( Statement statement = connection.createStatement() ) {
+                        statement.execute( label.getValue() );
+                    }
+                    sessionLabels.put( label.getKey(), label.getValue() );
+                }
+            }
+        } catch ( SQLException se ) {
+            setFlushOnly( se );
+            throw se;
+        }
+    }
+
+    /**
+     * Marks an attribute as changed by a label, overriding a value not applied yet. Returns false if the connection is known to have the value already.
+     */
+    private boolean changeLabel(DirtyAttribute attribute, Object value) {
+        dirtyAttributes.add( attribute );
+        pendingAttributes.remove( attribute );
+        if ( sessionAttributes.containsKey( attribute ) && Objects.equals( sessionAttributes.get( attribute ), value ) ) {
+            return false;
+        }
+        sessionAttributes.remove( attribute ); // about to change, unknown until recorded
+        return true;
+    }
+
+    /**
+     * Number of session attributes and custom labels that need to change for the connection to be in the state described by the labels.
+     * Attributes with unknown values are assumed to need a change.
+     */
+    public int labelCost(AgroalConnectionLabels labels) {
+        int cost = 0;
+        cost += labelCost( TRANSACTION_ISOLATION, labels.getTransactionIsolation() );
+        cost += labelCost( READ_ONLY, labels.getReadOnly() );
+        cost += labelCost( SCHEMA, labels.getSchema() );
+        cost += labelCost( CATALOG, labels.getCatalog() );
+        for ( Map.Entry<String, String> label : labels.getLabels().entrySet() ) {
+            if ( !label.getValue().equals( sessionLabels.get( label.getKey() ) ) ) {
+                cost++;
+            }
+        }
+        return cost;
+    }
+
+    private int labelCost(DirtyAttribute attribute, Object value) {
+        // values pending from a lazy reset are overridden by the labels, so only what is on the connection matters
+        return value == null || Objects.equals( sessionAttributes.get( attribute ), value ) ? 0 : 1;
     }
 
     public ConnectionWrapper detachedWrapper() {
@@ -123,13 +281,25 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         return new ConnectionWrapper( this, trackResources, true, defaultHoldability == ResultSet.HOLD_CURSORS_OVER_COMMIT );
     }
 
+    /**
+     * Detached wrapper for the interceptors, that is reused for every callback. It must be closed after each callback.
+     */
+    public ConnectionWrapper interceptorWrapper() {
+        if ( interceptorWrapper == null ) {
+            interceptorWrapper = detachedWrapper();
+        } else {
+            interceptorWrapper.reopen( defaultHoldability == ResultSet.HOLD_CURSORS_OVER_COMMIT );
+        }
+        return interceptorWrapper;
+    }
+
     @SuppressWarnings( "StringConcatenation" )
     public void onConnectionWrapperClose(ConnectionWrapper wrapper) throws SQLException {
         if ( wrapper.getLeakedStatements() > 0 || wrapper.getLeakedResultSets() > 0 ) {
             fireOnWarning( connectionPool.getListeners(), "JDBC resources leaked: " + wrapper.getLeakedStatements() + " Statements(s) and " + wrapper.getLeakedResultSets() + " ResultSet(s)" );
         }
         if ( !enlisted && !wrapper.isDetached() ) {
-            isHeldOverCommit = false;
+            setHeldOverCommit( false );
             transactionEnd();
         }
     }
@@ -138,36 +308,62 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         return connection;
     }
 
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    public Pool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Prepares the initial statements of the configuration on the statement cache, if there is one.
+     */
+    @SuppressWarnings( "StringConcatenation" )
+    public void prepareInitialStatements() {
+        if ( statementCache != null ) {
+            for ( String sql : connectionPool.getConfiguration().connectionFactoryConfiguration().initialPreparedStatements() ) {
+                try {
+                    statementCache.prime( sql, connection, defaultHoldability == ResultSet.HOLD_CURSORS_OVER_COMMIT );
+                } catch ( SQLException e ) {
+                    fireOnWarning( connectionPool.getListeners(), "Failed to prepare initial statement: " + e.getMessage() );
+                }
+            }
+        }
+    }
+
     public XAResource getXaResource() {
         return xaResource;
     }
 
-    @SuppressWarnings( "MagicConstant" )
     public void resetConnection() throws SQLException {
         transactionActiveCheck = NO_ACTIVE_TRANSACTION;
         if ( !dirtyAttributes.isEmpty() ) {
-            try {
-                if ( dirtyAttributes.contains( AUTOCOMMIT ) ) {
-                    connection.setAutoCommit( connectionPool.getConfiguration().connectionFactoryConfiguration().autoCommit() );
+            AgroalConnectionFactoryConfiguration factoryConfiguration = connectionPool.getConfiguration().connectionFactoryConfiguration();
+            for ( DirtyAttribute attribute : dirtyAttributes ) {
+                switch ( attribute ) {
+                    case AUTOCOMMIT:
+                        pendingAttributes.put( AUTOCOMMIT, factoryConfiguration.autoCommit() );
+                        break;
+                    case TRANSACTION_ISOLATION:
+                        pendingAttributes.put( TRANSACTION_ISOLATION, defaultIsolationLevel );
+                        break;
+                    case READ_ONLY:
+                        pendingAttributes.put( READ_ONLY, factoryConfiguration.readOnly() );
+                        break;
+                    case HOLDABILITY:
+                        pendingAttributes.put( HOLDABILITY, defaultHoldability );
+                        break;
+                    case NETWORK_TIMEOUT:
+                        pendingAttributes.put( NETWORK_TIMEOUT, (int) factoryConfiguration.networkTimeout().toMillis() );
+                        break;
+                    default:
+                        // other attributes do not have default values in connectionFactoryConfiguration
                 }
-                if ( dirtyAttributes.contains( TRANSACTION_ISOLATION ) ) {
-                    connection.setTransactionIsolation( defaultIsolationLevel );
-                }
-                if ( dirtyAttributes.contains( READ_ONLY ) ) {
-                    connection.setReadOnly( connectionPool.getConfiguration().connectionFactoryConfiguration().readOnly() );
-                }
-                if ( dirtyAttributes.contains( HOLDABILITY ) ) {
-                    connection.setHoldability( defaultHoldability );
-                }
-                if ( dirtyAttributes.contains( NETWORK_TIMEOUT ) ) {
-                    connection.setNetworkTimeout( ConnectionFactory.DUMMY_EXECUTOR, (int) connectionPool.getConfiguration().connectionFactoryConfiguration().networkTimeout().toMillis() );
-                }
-                // other attributes do not have default values in connectionFactoryConfiguration
-            } catch ( SQLException se ) {
-                setFlushOnly( se );
-                throw se;
-            } finally {
-                dirtyAttributes.clear();
+            }
+            dirtyAttributes.clear();
+            if ( !connectionPool.getConfiguration().lazyReset() ) {
+                applyPendingAttributes();
             }
         }
 
@@ -177,7 +373,7 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
                 AgroalConnectionPoolConfiguration.ExceptionSorter exceptionSorter = connectionPool.getConfiguration().exceptionSorter();
                 while ( warning != null ) {
                     if ( exceptionSorter != null && exceptionSorter.isFatal( warning ) ) {
-                        stateUpdater.set( this, State.FLUSH );
+                        setState( State.FLUSH );
                     }
                     warning = warning.getNextWarning();
                 }
@@ -197,14 +393,18 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         maxLifetimeTask = null;
         try {
             State observedState = stateUpdater.get( this );
-            if ( observedState != State.FLUSH ) {
+            if ( !observedState.isFlush() ) {
                 throw new SQLException( "Closing connection in incorrect state " + observedState );
             }
         } finally {
             try {
+                if ( statementCache != null ) {
+                    statementCache.close();
+                }
                 xaConnection.close();
             } finally {
-                stateUpdater.lazySet( this, State.DESTROYED );
+                clearHoldingThreadConnections();
+                afterStateChange( stateUpdater.getAndSet( this, State.DESTROYED ), State.DESTROYED );
             }
         }
     }
@@ -212,7 +412,7 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
     // --- //
 
     public void markAvailable() {
-        stateUpdater.lazySet( this, State.CHECKED_IN );
+        setState( State.CHECKED_IN );
     }
 
     public boolean release() {
@@ -223,14 +423,18 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         return changeState( State.CHECKED_IN, State.CHECKED_OUT );
     }
 
+    public boolean isIdle() {
+        return stateUpdater.get( this ) == State.CHECKED_IN;
+    }
+
     public boolean isAcquirable() {
         State observedState = stateUpdater.get( this );
-        return observedState != State.FLUSH && observedState != State.DESTROYED;
+        return !observedState.isFlush() && observedState != State.DESTROYED;
     }
 
     private boolean isActive() {
         State observedState = stateUpdater.get( this );
-        return observedState == State.CHECKED_OUT || observedState == State.FLUSH;
+        return observedState == State.CHECKED_OUT || observedState.isFlush();
     }
 
     public boolean tryFlushFromIdle() {
@@ -238,7 +442,7 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
     }
 
     public boolean tryFlushFromActive() {
-        return changeState( State.CHECKED_OUT, State.FLUSH );
+        return changeState( State.CHECKED_OUT, State.FLUSH_ACTIVE );
     }
 
     public boolean tryValidationFromIdle() {
@@ -273,13 +477,32 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
             case CHECKED_OUT:
             case VALIDATION:
             case FLUSH:
+            case FLUSH_ACTIVE:
             case DESTROYED:
-                return stateUpdater.compareAndSet( this, expected, newState );
+                if ( stateUpdater.compareAndSet( this, expected, newState ) ) {
+                    afterStateChange( expected, newState );
+                    return true;
+                }
+                return false;
             default:
                 throw new IllegalArgumentException( "Trying to set invalid state " + newState );
         }
     }
 
+    private void setState(State newState) {
+        for ( State observedState = stateUpdater.get( this ); ; observedState = stateUpdater.get( this ) ) {
+            State state = newState == State.FLUSH && observedState.counted() == State.CHECKED_OUT ? State.FLUSH_ACTIVE : newState;
+            if ( stateUpdater.compareAndSet( this, observedState, state ) ) {
+                afterStateChange( observedState, state );
+                return;
+            }
+        }
+    }
+
+    private void afterStateChange(State previousState, State newState) {
+        stateCounters.afterTransition( previousState.counted(), newState.counted() );
+    }
+
     // --- //
 
     public void touch() {
@@ -294,6 +517,50 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         return nanoTime() - lastAccess > timeout.toNanos();
     }
 
+    /**
+     * Immutable view of the state of this connection. Fields are read independently and may be updated concurrently.
+     */
+    public AgroalPoolSnapshot.ConnectionSnapshot snapshot(long now, Duration maxLifetime) {
+        Thread holder = holdingThread;
+        Duration age = Duration.ofNanos( now - creationTime );
+        Duration lifetimeRemaining = maxLifetime.isZero() ? null : maxLifetime.minus( age );
+        return new PoolSnapshot.HandlerSnapshot( identityHashCode( connection ), snapshotState( stateUpdater.get( this ) ), age, Duration.ofNanos( Math.max( 0, now - lastAccess ) ), lifetimeRemaining, holder == null ? null : holder.getName(), enlisted );
+    }
+
+    private static AgroalPoolSnapshot.ConnectionState snapshotState(State state) {
+        switch ( state ) {
+            case CHECKED_IN:
+                return AgroalPoolSnapshot.ConnectionState.CHECKED_IN;
+            case CHECKED_OUT:
+                return AgroalPoolSnapshot.ConnectionState.CHECKED_OUT;
+            case VALIDATION:
+                return AgroalPoolSnapshot.ConnectionState.VALIDATION;
+            case FLUSH:
+            case FLUSH_ACTIVE:
+                return AgroalPoolSnapshot.ConnectionState.FLUSH;
+            case DESTROYED:
+                return AgroalPoolSnapshot.ConnectionState.DESTROYED;
+            default:
+                return AgroalPoolSnapshot.ConnectionState.NEW;
+        }
+    }
+
+    public long getAcquisitionTime() {
+        return acquisitionTime;
+    }
+
+    public void setAcquisitionTime(long acquisitionTime) {
+        this.acquisitionTime = acquisitionTime;
+    }
+
+    public AcquisitionPath getAcquisitionPath() {
+        return acquisitionPath;
+    }
+
+    public void setAcquisitionPath(AcquisitionPath acquisitionPath) {
+        this.acquisitionPath = acquisitionPath;
+    }
+
     public void setMaxLifetimeTask(Future<?> maxLifetimeTask) {
         this.maxLifetimeTask = maxLifetimeTask;
     }
@@ -311,6 +578,13 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         return isHeldOverCommit;
     }
 
+    private void setHeldOverCommit(boolean held) {
+        if ( isHeldOverCommit != held ) {
+            isHeldOverCommit = held;
+            stateCounters.afterHeldOverCommit( held );
+        }
+    }
+
     public void verifyReadOnly(boolean readOnly) throws SQLException {
         if ( enlisted ) {
             throw new SQLException( "Attempted to modify read-only state while enlisted in transaction" );
@@ -330,54 +604,213 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         this.holdingThread = holdingThread;
     }
 
+    // --- Multiple acquisition //
+
+    /**
+     * Counts this connection on the number of connections held by a thread, removing it from the count of the previous holder, if any.
+     */
+    public void setHoldingThreadConnections(AtomicInteger connections) {
+        AtomicInteger previous = holdingThreadConnectionsUpdater.getAndSet( this, connections );
+        if ( previous != connections ) {
+            connections.incrementAndGet();
+            if ( previous != null ) {
+                previous.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes this connection from the number of connections held by a thread. Subsequent calls have no effect.
+     */
+    public void clearHoldingThreadConnections() {
+        AtomicInteger previous = holdingThreadConnectionsUpdater.getAndSet( this, null );
+        if ( previous != null ) {
+            previous.decrementAndGet();
+        }
+    }
+
     // --- Enhanced leak report //     
 
     /**
-     * Abbreviated list of all operation on the connection, for enhanced leak report
+     * If operations on the connection are being traced, for enhanced leak report
+     */
+    public boolean isTracingOperations() {
+        return acquisitionStackTrace != null;
+    }
+
+    /**
+     * Abbreviated list of all operation on the connection, for enhanced leak report. Only the most recent operations are kept.
      */
     @SuppressWarnings( "VariableNotUsedInsideIf" )
     public void traceConnectionOperation(String operation) {
         if ( acquisitionStackTrace != null ) {
-            connectionOperations.add( operation );
-            lastOperationStackTrace = currentThread().getStackTrace();
+            connectionOperations[(int) ( connectionOperationCount++ % TRACED_OPERATIONS )] = operation;
+            lastOperationStackTrace = captureStackTrace();
         }
     }
 
     /**
-     * Abbreviated list of all operation on the connection, for enhanced leak report
+     * Abbreviated list of the most recent operations on the connection, oldest first, for enhanced leak report
      */
     public List<String> getConnectionOperations() {
-        return connectionOperations;
+        if ( connectionOperations == null ) {
+            return null;
+        }
+        int size = (int) Math.min( connectionOperationCount, TRACED_OPERATIONS );
+        List<String> operations = new ArrayList<>( size );
+        for ( long i = connectionOperationCount - size; i < connectionOperationCount; i++ ) {
+            operations.add( connectionOperations[(int) ( i % TRACED_OPERATIONS )] );
+        }
+        return operations;
     }
 
     /**
      * Stack trace of the first acquisition for this connection
      */
     public StackTraceElement[] getAcquisitionStackTrace() {
-        return acquisitionStackTrace == null ? null : copyOfRange( acquisitionStackTrace, 4, acquisitionStackTrace.length );
+        return toStackTrace( acquisitionStackTrace );
     }
 
     /**
-     * Stores a stack trace for leak report. Setting a value != null also enables tracing of operations on the connection
+     * Enables or disables tracing of operations on the connection. Enabling it also stores the stack trace of the acquisition for leak report
      */
-    public void setAcquisitionStackTrace(StackTraceElement[] stackTrace) {
+    public void setTracingOperations(boolean tracing) {
         lastOperationStackTrace = null;
-        if ( connectionOperations == null ) {
-            connectionOperations = new UncheckedArrayList<>( String.class );
+        connectionOperationCount = 0;
+        if ( tracing && connectionOperations == null ) {
+            connectionOperations = new String[TRACED_OPERATIONS];
         }
-        connectionOperations.clear();
-        acquisitionStackTrace = stackTrace;
+        acquisitionStackTrace = tracing ? captureStackTrace() : null;
+    }
+
+    /**
+     * Records the frame of the application that acquired the connection, for the report of unreachable connections. Cheaper than the stack trace of the enhanced leak report.
+     */
+    public void setAcquisitionSite(boolean capture) {
+        acquisitionSite = capture ? STACK_WALKER.walk( frames -> frames.dropWhile( frame -> frame.getClassName().startsWith( "io.agroal.pool." ) ).findFirst().orElse( null ) ) : null;
+    }
+
+    /**
+     * Frame of the application that acquired the connection, if recorded
+     */
+    public StackTraceElement getAcquisitionSite() {
+        StackFrame site = acquisitionSite;
+        return site == null ? null : site.toStackTraceElement();
     }
 
     /**
      * Stack trace for the last operation on this connection
      */
     public StackTraceElement[] getLastOperationStackTrace() {
-        return lastOperationStackTrace == null ? null : copyOfRange( lastOperationStackTrace, 3, lastOperationStackTrace.length );
+        return toStackTrace( lastOperationStackTrace );
+    }
+
+    // the frames of the pool itself are of no interest on a leak report
+    private static List<StackFrame> captureStackTrace() {
+        return STACK_WALKER.walk( frames -> frames.dropWhile( frame -> frame.getClassName().startsWith( "io.agroal.pool." ) ).collect( toList() ) );
+    }
+
+    private static StackTraceElement[] toStackTrace(List<StackFrame> frames) {
+        return frames == null ? null : frames.stream().map( StackFrame::toStackTraceElement ).toArray( StackTraceElement[]::new );
     }
 
     public void setDirtyAttribute(DirtyAttribute attribute) {
         dirtyAttributes.add( attribute );
+        sessionAttributes.remove( attribute ); // about to change, unknown until recorded
+        pendingAttributes.remove( attribute ); // overridden
+    }
+
+    /**
+     * Value of a session attribute of the connection, taking into account values not applied yet. The getter is only called if the value is not known.
+     */
+    @SuppressWarnings( "unchecked" )
+    public <T> T getSessionAttribute(DirtyAttribute attribute, SQLCallable<T> getter) throws SQLException {
+        if ( pendingAttributes.containsKey( attribute ) ) {
+            return (T) pendingAttributes.get( attribute );
+        }
+        if ( sessionAttributes.containsKey( attribute ) ) {
+            return (T) sessionAttributes.get( attribute );
+        }
+        T value = getter.call();
+        sessionAttributes.put( attribute, value );
+        return value;
+    }
+
+    /**
+     * If a session attribute of the connection is known to have the given value, in which case setting it again is redundant.
+     */
+    public boolean hasSessionAttribute(DirtyAttribute attribute, Object value) {
+        if ( pendingAttributes.containsKey( attribute ) ) {
+            return Objects.equals( pendingAttributes.get( attribute ), value );
+        }
+        return sessionAttributes.containsKey( attribute ) && Objects.equals( sessionAttributes.get( attribute ), value );
+    }
+
+    /**
+     * Defers setting a session attribute if there are values not applied yet, in which case it's applied along with them before the connection is used.
+     */
+    public boolean deferSessionAttribute(DirtyAttribute attribute, Object value) {
+        if ( pendingAttributes.isEmpty() ) {
+            return false;
+        }
+        dirtyAttributes.add( attribute );
+        pendingAttributes.put( attribute, value );
+        return true;
+    }
+
+    /**
+     * Sets on the connection the values not applied yet, skipping the ones the connection is known to have already.
+     */
+    @SuppressWarnings( "MagicConstant" )
+    public void applyPendingAttributes() throws SQLException {
+        if ( pendingAttributes.isEmpty() ) {
+            return;
+        }
+        try {
+            for ( Map.Entry<DirtyAttribute, Object> pending : pendingAttributes.entrySet() ) {
+                DirtyAttribute attribute = pending.getKey();
+                if ( sessionAttributes.containsKey( attribute ) && Objects.equals( sessionAttributes.get( attribute ), pending.getValue() ) ) {
+                    continue;
+                }
+                switch ( attribute ) {
+                    case AUTOCOMMIT:
+                        connection.setAutoCommit( (Boolean) pending.getValue() );
+                        break;
+                    case TRANSACTION_ISOLATION:
+                        connection.setTransactionIsolation( (Integer) pending.getValue() );
+                        break;
+                    case READ_ONLY:
+                        connection.setReadOnly( (Boolean) pending.getValue() );
+                        break;
+                    case SCHEMA:
+                        connection.setSchema( (String) pending.getValue() );
+                        break;
+                    case CATALOG:
+                        connection.setCatalog( (String) pending.getValue() );
+                        break;
+                    case HOLDABILITY:
+                        connection.setHoldability( (Integer) pending.getValue() );
+                        break;
+                    case NETWORK_TIMEOUT:
+                        connection.setNetworkTimeout( ConnectionFactory.DUMMY_EXECUTOR, (Integer) pending.getValue() );
+                        break;
+                    default:
+                }
+                sessionAttributes.put( attribute, pending.getValue() );
+            }
+        } catch ( SQLException se ) {
+            setFlushOnly( se );
+            throw se;
+        } finally {
+            pendingAttributes.clear();
+        }
+    }
+
+    /**
+     * Records the value a session attribute of the connection was set to.
+     */
+    public void setSessionAttribute(DirtyAttribute attribute, Object value) {
+        sessionAttributes.put( attribute, value );
     }
 
     public boolean isEnlisted() {
@@ -394,9 +827,11 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
     @Override
     public void transactionStart() throws SQLException {
         try {
-            if ( !enlisted && connection.getAutoCommit() ) {
+            applyPendingAttributes();
+            if ( !enlisted && getSessionAttribute( AUTOCOMMIT, connection::getAutoCommit ) ) {
                 connection.setAutoCommit( false );
                 setDirtyAttribute( AUTOCOMMIT );
+                setSessionAttribute( AUTOCOMMIT, false );
             }
             enlisted = true;
         } catch ( SQLException se ) {
@@ -411,13 +846,13 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
         int closedResources;
         if ( successful ) {
             closedResources = enlistedOpenWrappers.closeNotHeldAutocloseableElements();
-            isHeldOverCommit = !enlistedOpenWrappers.isElementListEmpty();
+            setHeldOverCommit( !enlistedOpenWrappers.isElementListEmpty() );
             if ( isHeldOverCommit && !connectionPool.getConfiguration().connectionFactoryConfiguration().trackJdbcResources() ) {
                 fireOnInfo( connectionPool.getListeners(), "Holding cursors over commit without tracking JDBC resources!" );
             }
         } else {
             closedResources = enlistedOpenWrappers.closeAllAutocloseableElements();
-            isHeldOverCommit = false;
+            setHeldOverCommit( false );
         }
         if ( successful && closedResources > 0 ) {
             fireOnWarning( connectionPool.getListeners(), "Closing " + closedResources + " open connection(s) prior to commit" );
@@ -481,7 +916,7 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
                 if ( isHeldOverCommit ) {
                     // AG-279 Hack: if was held over commit re-attach to a new tx
                     connectionPool.getConfiguration().transactionIntegration().associate( this, xaResource );
-                    isHeldOverCommit = false;
+                    setHeldOverCommit( false );
                     touch();
                 } else {
                     throw new SQLException( "Deferred enlistment not supported" );
@@ -503,23 +938,34 @@ public final class ConnectionHandler implements TransactionAware, Acquirable {
     @Override
     public void setFlushOnly() {
         // Assumed currentState == State.CHECKED_OUT (or eventually in FLUSH already)
-        stateUpdater.set( this, State.FLUSH );
-        isHeldOverCommit = false;
+        setState( State.FLUSH );
+        setHeldOverCommit( false );
     }
 
     public void setFlushOnly(SQLException se) {
         // Assumed currentState == State.CHECKED_OUT (or eventually in FLUSH already)
         AgroalConnectionPoolConfiguration.ExceptionSorter exceptionSorter = connectionPool.getConfiguration().exceptionSorter();
         if ( exceptionSorter != null && exceptionSorter.isFatal( se ) ) {
-            stateUpdater.set( this, State.FLUSH );
-            isHeldOverCommit = false;
+            setState( State.FLUSH );
+            setHeldOverCommit( false );
         }
     }
 
     // --- //
 
-    private enum State {
-        NEW, CHECKED_IN, CHECKED_OUT, VALIDATION, FLUSH, DESTROYED
+    enum State {
+        NEW, CHECKED_IN, CHECKED_OUT, VALIDATION, FLUSH, DESTROYED,
+
+        // flushed while checked out. counted as active until destroyed, as the application may still be holding it
+        FLUSH_ACTIVE;
+
+        State counted() {
+            return this == FLUSH_ACTIVE ? CHECKED_OUT : this;
+        }
+
+        boolean isFlush() {
+            return this == FLUSH || this == FLUSH_ACTIVE;
+        }
     }
 
     public enum DirtyAttribute {
@@ -3,15 +3,22 @@
 
 package io.agroal.pool;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSource;
 import io.agroal.api.AgroalDataSourceListener;
+import io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath;
+import io.agroal.api.AgroalPoolEvent;
 import io.agroal.api.AgroalPoolInterceptor;
+import io.agroal.api.AgroalPoolSnapshot;
 import io.agroal.api.cache.ConnectionCache;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration;
 import io.agroal.api.transaction.TransactionIntegration;
 import io.agroal.pool.MetricsRepository.EmptyMetricsRepository;
+import io.agroal.pool.util.InterceptorChain;
+import io.agroal.pool.util.MemoryBudget;
 import io.agroal.pool.util.PriorityScheduledExecutor;
 import io.agroal.pool.util.StampedCopyOnWriteArrayList;
+import io.agroal.pool.util.UnreachableReaper;
 import io.agroal.pool.util.VirtualThreadUtil;
 import io.agroal.pool.util.XAConnectionAdaptor;
 
@@ -21,19 +28,29 @@ import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.TransferQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAccumulator;
-import java.util.concurrent.atomic.LongAdder;
 
 import static io.agroal.api.AgroalDataSource.FlushMode.GRACEFUL;
 import static io.agroal.api.AgroalDataSource.FlushMode.LEAK;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.BACKGROUND_CREATION;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.HANDOFF;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.INLINE_CREATION;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.LOCAL_CACHE;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.RETRY;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.SHARED_SCAN;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.TRANSACTION;
 import static io.agroal.api.configuration.AgroalConnectionPoolConfiguration.MultipleAcquisitionAction.LENIENT;
+import static io.agroal.pool.AsyncListenerDispatcher.withAsyncDispatch;
+import static io.agroal.pool.FlightRecorder.withFlightRecorder;
 import static io.agroal.pool.util.InterceptorHelper.fireOnConnectionAcquiredInterceptor;
 import static io.agroal.pool.util.InterceptorHelper.fireOnConnectionCreateInterceptor;
 import static io.agroal.pool.util.InterceptorHelper.fireOnConnectionDestroyInterceptor;
@@ -64,10 +81,10 @@ import static io.agroal.pool.util.ListenerHelper.fireOnWarning;
 import static java.lang.Long.MAX_VALUE;
 import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
-import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static java.util.stream.Collectors.toList;
 
 /**
  * @author <a href="lbarreiro@redhat.com">Luis Barreiro</a>
@@ -88,6 +105,9 @@ public final class ConnectionPool implements Pool {
 
     private final AgroalConnectionPoolConfiguration configuration;
     private final AgroalDataSourceListener[] listeners;
+    private final AgroalDataSourceListener[] eventListeners; // listeners plus the flight recorder
+    private final FlightRecorder flightRecorder;
+    private final AsyncListenerDispatcher listenerDispatcher;
 
     private final StampedCopyOnWriteArrayList<ConnectionHandler> allConnections;
     private final AtomicLong createConnectionPermits = new AtomicLong(); // track allConnections.size() in the high bits and permits on low bits
@@ -95,6 +115,8 @@ public final class ConnectionPool implements Pool {
 
     private final ConnectionFactory connectionFactory;
     private final PriorityScheduledExecutor housekeepingExecutor;
+    private final ThreadPoolExecutor returnExecutor;
+    private final UnreachableReaper unreachableReaper;
     private final TransactionIntegration transactionIntegration;
 
     private final boolean borrowValidationEnabled;
@@ -104,25 +126,40 @@ public final class ConnectionPool implements Pool {
     private final boolean reapEnabled;
     private final boolean recoveryEnabled;
 
+    // number of connections held by each thread, for detection of multiple acquisition
+    private final ThreadLocal<AtomicInteger> heldConnections = ThreadLocal.withInitial( AtomicInteger::new );
+
     private final LongAccumulator maxUsed = new LongAccumulator( Math::max, Long.MIN_VALUE );
-    private final LongAdder activeCount = new LongAdder();
+
+    // number of connections on each state, maintained by the connection handlers
+    private final ConnectionStateCounters stateCounters = new ConnectionStateCounters();
+
+    // memory used by detached result sets of connections from this pool
+    private final MemoryBudget resultSetMemory;
 
     private volatile boolean stalePoolDetected;
 
     private MetricsRepository metricsRepository;
     private ConnectionCache localCache;
-    private List<AgroalPoolInterceptor> interceptors;
+    private InterceptorChain interceptors = InterceptorChain.EMPTY;
 
     public ConnectionPool(AgroalConnectionPoolConfiguration configuration, AgroalDataSourceListener... listeners) {
         this.configuration = configuration;
-        this.listeners = listeners;
+        flightRecorder = configuration.flightRecorderSize() > 0 ? new FlightRecorder( configuration.flightRecorderSize() ) : null;
+        listenerDispatcher = configuration.asyncListenerBufferSize() > 0 && listeners.length > 0 ? new AsyncListenerDispatcher( configuration.asyncListenerBufferSize(), this, listeners ) : null;
+        this.listeners = withAsyncDispatch( listenerDispatcher, listeners );
+        eventListeners = withFlightRecorder( flightRecorder, this.listeners );
 
         allConnections = new StampedCopyOnWriteArrayList<>( ConnectionHandler.class );
         localCache = configuration.connectionCache();
 
-        connectionFactory = new ConnectionFactory( configuration.connectionFactoryConfiguration(), listeners );
-        housekeepingExecutor = new PriorityScheduledExecutor( 1, "agroal-" + HOUSEKEEP_COUNT.incrementAndGet(), listeners );
+        connectionFactory = new ConnectionFactory( configuration.connectionFactoryConfiguration(), eventListeners );
+        int poolNumber = HOUSEKEEP_COUNT.incrementAndGet();
+        housekeepingExecutor = new PriorityScheduledExecutor( 1, "agroal-" + poolNumber, eventListeners );
+        returnExecutor = configuration.asyncReturn() ? newReturnExecutor( configuration.maxSize(), "agroal-" + poolNumber + "-return-" ) : null;
+        unreachableReaper = configuration.reclaimUnreachable() ? new UnreachableReaper( "agroal-" + poolNumber + "-reclaim" ) : null;
         transactionIntegration = configuration.transactionIntegration();
+        resultSetMemory = new MemoryBudget( configuration.connectionFactoryConfiguration().detachedResultSetMaxMemory() );
 
         borrowValidationEnabled = configuration.validateOnBorrow();
         idleValidationEnabled = !configuration.validateOnBorrow() && !configuration.idleValidationTimeout().isZero();
@@ -139,8 +176,14 @@ public final class ConnectionPool implements Pool {
     }
 
     public void init() {
+        if ( listenerDispatcher != null ) {
+            listenerDispatcher.start();
+        }
+        if ( unreachableReaper != null ) {
+            unreachableReaper.start();
+        }
         if ( configuration.acquisitionTimeout().compareTo( configuration.connectionFactoryConfiguration().loginTimeout() ) < 0 ) {
-            fireOnWarning( listeners, "Login timeout should be smaller than acquisition timeout" );
+            fireOnWarning( eventListeners, "Login timeout should be smaller than acquisition timeout" );
         }
 
         if ( leakEnabled ) {
@@ -177,24 +220,32 @@ public final class ConnectionPool implements Pool {
         return listeners;
     }
 
+    public AgroalPoolSnapshot getSnapshot() {
+        return new PoolSnapshot( allConnections, configuration.maxLifetime(), awaitingCount(), maxUsedCount() );
+    }
+
+    public List<AgroalPoolEvent> dumpFlightRecorder() {
+        return flightRecorder == null ? Collections.emptyList() : flightRecorder.dump();
+    }
+
     public List<AgroalPoolInterceptor> getPoolInterceptors() {
-        return unmodifiableList( interceptors );
+        return interceptors.interceptors();
     }
 
     public void setPoolInterceptors(Collection<? extends AgroalPoolInterceptor> list) {
         if ( list.stream().anyMatch( i -> i.getPriority() < 0 ) ) {
             throw new IllegalArgumentException( "Negative priority values on AgroalPoolInterceptor are reserved." );
         }
-        if ( list.isEmpty() && ( interceptors == null || interceptors.isEmpty() ) ) {
+        if ( list.isEmpty() && interceptors.isEmpty() ) {
             return;
         }
-        interceptors = list.stream().sorted( AgroalPoolInterceptor.DEFAULT_COMPARATOR ).collect( toList() );
-        interceptors.forEach( interceptor -> fireOnPoolInterceptor( listeners, interceptor ) );
+        interceptors = new InterceptorChain( list );
+        interceptors.interceptors().forEach( interceptor -> fireOnPoolInterceptor( listeners, interceptor ) );
     }
 
     public void flushPool(AgroalDataSource.FlushMode mode) {
         if ( mode == LEAK && !leakEnabled ) {
-            fireOnWarning( listeners, "Flushing leak connections with no specified leak timeout." );
+            fireOnWarning( eventListeners, "Flushing leak connections with no specified leak timeout." );
             return;
         }
         housekeepingExecutor.execute( new FlushTask( mode ) );
@@ -211,15 +262,24 @@ public final class ConnectionPool implements Pool {
                 task.run();
             }
         }
+        if ( returnExecutor != null ) {
+            returnExecutor.shutdownNow(); // connections still to be returned are destroyed below
+        }
+        if ( unreachableReaper != null ) {
+            unreachableReaper.close();
+        }
 
         for ( ConnectionHandler handler : allConnections ) {
             handler.setFlushOnly();
             new DestroyConnectionTask( handler ).run();
         }
         allConnections.clear();
-        activeCount.reset();
 
         while ( handlerTransferQueue.tryTransfer( TRANSFER_POISON ) ) ; // Unblock waiting threads with CancellationException
+
+        if ( listenerDispatcher != null ) {
+            listenerDispatcher.close();
+        }
     }
 
     // --- //
@@ -239,14 +299,13 @@ public final class ConnectionPool implements Pool {
             do {
                 checkedOutHandler = (ConnectionHandler) localCache.get();
                 if ( checkedOutHandler == null ) {
-                    checkedOutHandler = handlerFromSharedCache();
+                    checkedOutHandler = handlerFromSharedCache( stamp );
+                } else {
+                    checkedOutHandler.setAcquisitionPath( LOCAL_CACHE );
                 }
             } while ( ( borrowValidationEnabled && !borrowValidation( checkedOutHandler ) )
                     || ( idleValidationEnabled && !idleValidation( checkedOutHandler ) ) );
 
-            if ( metricsRepository.collectPoolMetrics() ) {
-                activeCount.increment();
-            }
             fireOnConnectionAcquiredInterceptor( interceptors, checkedOutHandler );
             afterAcquire( stamp, checkedOutHandler, false );
             return checkedOutHandler.xaConnectionWrapper();
@@ -261,7 +320,7 @@ public final class ConnectionPool implements Pool {
     // --- //
 
     private long beforeAcquire() throws SQLException {
-        fireBeforeConnectionAcquire( listeners );
+        fireBeforeConnectionAcquire( eventListeners );
         if ( housekeepingExecutor.isShutdown() ) {
             throw new SQLException( "This pool is closed and does not handle any more connections!" );
         }
@@ -269,67 +328,80 @@ public final class ConnectionPool implements Pool {
     }
 
     private void checkMultipleAcquisition() throws SQLException {
-        if ( configuration.multipleAcquisition() != LENIENT ) {
-            for ( ConnectionHandler handler : allConnections ) {
-                if ( handler.getHoldingThread() == currentThread() ) {
-                    switch ( configuration.multipleAcquisition() ) {
-                        case STRICT:
-                            throw new SQLException( "Acquisition of multiple connections by the same Thread." );
-                        case WARN:
-                            fireOnWarning( listeners, "Acquisition of multiple connections by the same Thread. This can lead to pool exhaustion and eventually a deadlock!" );
-                        case LENIENT:
-                        default:
-                            // no action
-                    }
-                    break;
-                }
+        if ( configuration.multipleAcquisition() != LENIENT && heldConnections.get().get() > 0 ) {
+            switch ( configuration.multipleAcquisition() ) {
+                case STRICT:
+                    throw new SQLException( "Acquisition of multiple connections by the same Thread." );
+                case WARN:
+                    fireOnWarning( eventListeners, "Acquisition of multiple connections by the same Thread. This can lead to pool exhaustion and eventually a deadlock!" );
+                case LENIENT:
+                default:
+                    // no action
             }
         }
     }
 
     @Override
     public Connection getConnection() throws SQLException {
-        return internalGetConnection( false );
+        return internalGetConnection( false, null );
     }
 
     @Override
     public Connection getReadOnlyConnection() throws SQLException {
-        return internalGetConnection( true );
+        return internalGetConnection( true, null );
+    }
+
+    @Override
+    public Connection getConnection(AgroalConnectionLabels labels) throws SQLException {
+        return internalGetConnection( false, labels );
     }
 
-    private Connection internalGetConnection(boolean readOnly) throws SQLException {
+    private Connection internalGetConnection(boolean readOnly, AgroalConnectionLabels labels) throws SQLException {
         long stamp = beforeAcquire();
 
         ConnectionHandler checkedOutHandler = handlerFromTransaction();
         if ( checkedOutHandler != null ) {
             // AG-140 - If associate throws here is fine, it's assumed the synchronization that returns the connection has been registered
             transactionIntegration.associate( checkedOutHandler, checkedOutHandler.getXaResource() );
+            checkedOutHandler.setAcquisitionPath( TRANSACTION );
             afterAcquire( stamp, checkedOutHandler, true );
             if ( readOnly && !checkedOutHandler.rawConnection().isReadOnly() ) {
                 throw new SQLException( "Attempted to modify read-only state while enlisted in transaction" );
             }
+            if ( labels != null ) {
+                if ( labels.getReadOnly() != null && labels.getReadOnly() != checkedOutHandler.rawConnection().isReadOnly() ) {
+                    throw new SQLException( "Attempted to modify read-only state while enlisted in transaction" );
+                }
+                checkedOutHandler.applyLabels( labels );
+            }
             return checkedOutHandler.connectionWrapper();
         }
         checkMultipleAcquisition();
 
         try {
             do {
-                checkedOutHandler = (ConnectionHandler) localCache.get();
+                checkedOutHandler = labels == null ? null : handlerFromLabels( labels );
                 if ( checkedOutHandler == null ) {
-                    checkedOutHandler = handlerFromSharedCache();
+                    checkedOutHandler = (ConnectionHandler) localCache.get();
+                    if ( checkedOutHandler == null ) {
+                        checkedOutHandler = handlerFromSharedCache( stamp );
+                    } else {
+                        checkedOutHandler.setAcquisitionPath( LOCAL_CACHE );
+                    }
                 }
             } while ( ( borrowValidationEnabled && !borrowValidation( checkedOutHandler ) )
                     || ( idleValidationEnabled && !idleValidation( checkedOutHandler ) ) );
+            if ( labels != null ) {
+                checkedOutHandler.applyLabels( labels );
+            }
             transactionIntegration.associate( checkedOutHandler, checkedOutHandler.getXaResource() );
 
-            if ( metricsRepository.collectPoolMetrics() ) {
-                activeCount.increment();
-            }
             fireOnConnectionAcquiredInterceptor( interceptors, checkedOutHandler );
             afterAcquire( stamp, checkedOutHandler, true );
             if ( readOnly ) {
                 checkedOutHandler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.READ_ONLY );
                 checkedOutHandler.rawConnection().setReadOnly( true );
+                checkedOutHandler.setSessionAttribute( ConnectionHandler.DirtyAttribute.READ_ONLY, true );
             }
             return checkedOutHandler.connectionWrapper();
         } catch ( Throwable t ) {
@@ -341,15 +413,48 @@ public final class ConnectionPool implements Pool {
         }
     }
 
+    /**
+     * Scans the pool for the idle connection that requires the fewest changes to be in the state described by the labels. Returns null if there is no idle connection.
+     */
+    private ConnectionHandler handlerFromLabels(AgroalConnectionLabels labels) {
+        ConnectionHandler cheapest = null;
+        int cheapestCost = Integer.MAX_VALUE;
+        for ( ConnectionHandler handler : allConnections ) {
+            if ( handler.isIdle() ) {
+                int cost = handler.labelCost( labels );
+                if ( cost == 0 && handler.acquire() ) {
+                    return acquiredThrough( handler, SHARED_SCAN, false );
+                } else if ( cost < cheapestCost ) {
+                    cheapest = handler;
+                    cheapestCost = cost;
+                }
+            }
+        }
+        return cheapest != null && cheapest.acquire() ? acquiredThrough( cheapest, SHARED_SCAN, false ) : null;
+    }
+
     private ConnectionHandler handlerFromTransaction() throws SQLException {
         return (ConnectionHandler) transactionIntegration.getTransactionAware();
     }
 
-    private ConnectionHandler handlerFromSharedCache() throws SQLException {
+    private ConnectionHandler handlerFromSharedCache(long metricsStamp) throws SQLException {
+        ConnectionHandler handler = handlerFromSharedCacheOrNull();
+        if ( handler == null ) {
+            metricsRepository.afterAcquisitionTimeout( metricsStamp );
+            throw new SQLException( "Sorry, acquisition timeout!" );
+        }
+        return handler;
+    }
+
+    /**
+     * Same as {@link #handlerFromSharedCache(long)} but returns null on acquisition timeout, without recording it on the metrics.
+     */
+    private ConnectionHandler handlerFromSharedCacheOrNull() throws SQLException {
         long acquisitionTimeout = configuration.acquisitionTimeout().isZero() ? MAX_VALUE : configuration.acquisitionTimeout().toNanos();
         long deadline = acquisitionTimeout == MAX_VALUE ? MAX_VALUE : nanoTime() + acquisitionTimeout;
         boolean collaborate = !VirtualThreadUtil.isVirtualThread();
         int retries = configuration.establishmentRetryAttempts();
+        boolean retry = false;
         try {
             for ( int i = 0; ; i++ ) {
                 if ( i == 0 && handlerTransferQueue.hasWaitingConsumer() ) { // On the first iteration, block right away if there are other threads already blocked
@@ -357,7 +462,7 @@ public final class ConnectionPool implements Pool {
                     // Because of that do not block for the whole remaining duration. Do it for at most a second and then move on to perform a scan
                     ConnectionHandler handler = waitAvailableHandler( Long.min( ONE_SECOND, acquisitionTimeout * 9 / 10 ), false );
                     if ( handler != null && handler.acquire() ) {
-                        return handler;
+                        return acquiredThrough( handler, HANDOFF, retry );
                     }
                 }
                 for ( ConnectionHandler handler : allConnections ) { // Try to find an available connection in the pool
@@ -365,13 +470,13 @@ public final class ConnectionPool implements Pool {
                         if ( allConnections.size() < configuration.minSize() && acquireCreateConnectionPermit( configuration.minSize() ) ) {
                             housekeepingExecutor.executeNow( () -> createAndPoolConnection() ); // Got a connection but create one (a single one) in the backgroud
                         }
-                        return handler;
+                        return acquiredThrough( handler, SHARED_SCAN, retry );
                     }
                 }
                 if ( allConnections.size() < configuration.maxSize() ) { // If no connection is available and there is room, create one
                     try {
                         long timeout = deadline - nanoTime();
-                        fireBeforePoolBlock( listeners, timeout );
+                        fireBeforePoolBlock( eventListeners, timeout );
                         if ( acquireCreateConnectionPermit( configuration.maxSize() ) ) {
                             ConnectionHandler handler = null;
                             if ( collaborate ) {
@@ -381,7 +486,7 @@ public final class ConnectionPool implements Pool {
                                 handler = housekeepingExecutor.executeNow( () -> createAndPoolConnection() ).get( deadline - nanoTime(), NANOSECONDS );
                             }
                             if ( handler != null && handler.acquire() ) {
-                                return handler;
+                                return acquiredThrough( handler, collaborate ? INLINE_CREATION : BACKGROUND_CREATION, retry );
                             }
                         }
                     } catch ( RuntimeException | TimeoutException | Error e ) {
@@ -393,18 +498,19 @@ public final class ConnectionPool implements Pool {
                         } else {
                             // AG-274: connection failed but the acquisitionTimeout has not expired. fire message and retry
                             fireOnInfo( listeners, "Retrying establishment of connection after " + e.getClass().getName() );
+                            retry = true;
 
                             // if is not possible to wait the full retry interval, give 100 ms for connection establishment
                             ConnectionHandler handler = waitAvailableHandler( Long.min( configuration.establishmentRetryInterval().toNanos(), timeout - ONE_SECOND / 10 ), false );
                             if ( handler != null && handler.acquire() ) {
-                                return handler;
+                                return acquiredThrough( handler, HANDOFF, retry );
                             }
                         }
                     }
                 } else { // Wait until a connection is released
                     ConnectionHandler handler = waitAvailableHandler( deadline - nanoTime(), true );
                     if ( handler.acquire() ) {
-                        return handler;
+                        return acquiredThrough( handler, HANDOFF, retry );
                     }
                 }
             }
@@ -417,15 +523,20 @@ public final class ConnectionPool implements Pool {
             // AG-201: Last effort. Connections may have returned to the pool while waiting.
             for ( ConnectionHandler handler : allConnections ) {
                 if ( handler.acquire() ) {
-                    return handler;
+                    return acquiredThrough( handler, SHARED_SCAN, retry );
                 }
             }
-            throw new SQLException( "Sorry, acquisition timeout!" );
+            return null;
         }
     }
 
+    private static ConnectionHandler acquiredThrough(ConnectionHandler handler, AcquisitionPath path, boolean retry) {
+        handler.setAcquisitionPath( retry ? RETRY : path );
+        return handler;
+    }
+
     private ConnectionHandler waitAvailableHandler(long timeout, boolean strict) throws InterruptedException, TimeoutException {
-        fireBeforePoolBlock( listeners, timeout );
+        fireBeforePoolBlock( eventListeners, timeout );
         ConnectionHandler handler = handlerTransferQueue.poll( timeout, NANOSECONDS );
         if ( strict && handler == null ) {
             throw new TimeoutException( "Acquisition timeout while waiting for connection" );
@@ -446,7 +557,7 @@ public final class ConnectionPool implements Pool {
         if ( stalePoolDetected ) {
             removeFromPool( handler );
             metricsRepository.afterConnectionInvalid();
-            fireOnConnectionInvalid( listeners, handler );
+            fireOnConnectionInvalid( eventListeners, handler );
             return false;
         }
         if ( handler.tryValidationFromActive() ) {
@@ -457,9 +568,9 @@ public final class ConnectionPool implements Pool {
 
     // handler must be in VALIDATION state
     private boolean performValidation(ConnectionHandler handler, boolean idle) {
-        fireBeforeConnectionValidation( listeners, handler );
+        fireBeforeConnectionValidation( eventListeners, handler );
         if ( handler.isValid() && ( idle ? handler.passValidationToIdle() : handler.passValidationToActive() ) ) {
-            fireOnConnectionValid( listeners, handler );
+            fireOnConnectionValid( eventListeners, handler );
             if ( idle ) {
                 handlerTransferQueue.tryTransfer( handler );
             }
@@ -467,14 +578,15 @@ public final class ConnectionPool implements Pool {
         } else {
             removeFromPool( handler );
             metricsRepository.afterConnectionInvalid();
-            fireOnConnectionInvalid( listeners, handler );
+            fireOnConnectionInvalid( eventListeners, handler );
             return false;
         }
     }
 
     private void afterAcquire(long metricsStamp, ConnectionHandler checkedOutHandler, boolean verifyEnlistment) throws SQLException {
-        metricsRepository.afterConnectionAcquire( metricsStamp );
-        fireOnConnectionAcquired( listeners, checkedOutHandler );
+        metricsRepository.afterConnectionAcquire( metricsStamp, checkedOutHandler.getAcquisitionPath() );
+        checkedOutHandler.setAcquisitionTime( metricsRepository.beforeConnectionHold() );
+        fireOnConnectionAcquired( eventListeners, checkedOutHandler );
 
         if ( verifyEnlistment && !checkedOutHandler.isEnlisted() ) {
             switch ( configuration.transactionRequirement() ) {
@@ -482,7 +594,7 @@ public final class ConnectionPool implements Pool {
                     returnConnectionHandler( checkedOutHandler );
                     throw new SQLException( "Connection acquired without transaction." );
                 case WARN:
-                    fireOnWarning( listeners, new SQLException( "Connection acquired without transaction." ) );
+                    fireOnWarning( eventListeners, new SQLException( "Connection acquired without transaction." ) );
                 case OFF: // do nothing
                 default:
             }
@@ -490,15 +602,21 @@ public final class ConnectionPool implements Pool {
         if ( leakEnabled || reapEnabled ) {
             checkedOutHandler.touch();
         }
-        if ( leakEnabled || configuration.multipleAcquisition() != LENIENT ) {
+        if ( leakEnabled || configuration.reclaimUnreachable() || configuration.multipleAcquisition() != LENIENT ) {
             if ( checkedOutHandler.getHoldingThread() != null && checkedOutHandler.getHoldingThread() != currentThread() ) {
                 Throwable warn = new Throwable( "Shared connection between threads '" + checkedOutHandler.getHoldingThread().getName() + "' and '" + currentThread().getName() + "'" );
                 warn.setStackTrace( checkedOutHandler.getHoldingThread().getStackTrace() );
-                fireOnWarning( listeners, warn );
+                fireOnWarning( eventListeners, warn );
             }
             checkedOutHandler.setHoldingThread( currentThread() );
+            if ( configuration.multipleAcquisition() != LENIENT ) {
+                checkedOutHandler.setHoldingThreadConnections( heldConnections.get() );
+            }
             if ( configuration.enhancedLeakReport() ) {
-                checkedOutHandler.setAcquisitionStackTrace( currentThread().getStackTrace() );
+                checkedOutHandler.setTracingOperations( configuration.enhancedLeakReportSampling() <= 1 || current().nextInt( configuration.enhancedLeakReportSampling() ) == 0 );
+            }
+            if ( configuration.reclaimUnreachable() ) {
+                checkedOutHandler.setAcquisitionSite( true );
             }
         }
     }
@@ -506,11 +624,15 @@ public final class ConnectionPool implements Pool {
     // --- //
 
     public void returnConnectionHandler(ConnectionHandler handler) throws SQLException {
-        fireBeforeConnectionReturn( listeners, handler );
-        if ( leakEnabled ) {
+        fireBeforeConnectionReturn( eventListeners, handler );
+        if ( leakEnabled || configuration.reclaimUnreachable() || configuration.multipleAcquisition() != LENIENT ) {
             handler.setHoldingThread( null );
+            handler.clearHoldingThreadConnections();
             if ( configuration.enhancedLeakReport() ) {
-                handler.setAcquisitionStackTrace( null );
+                handler.setTracingOperations( false );
+            }
+            if ( configuration.reclaimUnreachable() ) {
+                handler.setAcquisitionSite( false );
             }
         }
         if ( idleValidationEnabled || reapEnabled ) {
@@ -522,39 +644,52 @@ public final class ConnectionPool implements Pool {
             }
         } catch ( Throwable ignored ) {
         }
+        metricsRepository.afterConnectionHold( handler.getAcquisitionTime() );
 
-        if ( metricsRepository.collectPoolMetrics() ) {
-            activeCount.decrement();
+        if ( returnExecutor != null ) {
+            // put in the local cache on the thread returning the connection, the one that is likely to acquire it again
+            localCache.put( handler );
+            try {
+                returnExecutor.execute( new ReturnConnectionTask( handler ) );
+                return;
+            } catch ( RejectedExecutionException e ) {
+                // pool is closing or too many connections waiting to be reset, return on this thread
+            }
         }
+        releaseConnectionHandler( handler );
+    }
 
+    private void releaseConnectionHandler(ConnectionHandler handler) throws SQLException {
         // resize on change of max-size, or flush on close
         int currentSize = allConnections.size();
         if ( ( currentSize > configuration.maxSize() && currentSize > configuration.minSize() ) || configuration.flushOnClose() ) {
             handler.setFlushOnly();
             removeFromPool( handler );
             metricsRepository.afterConnectionReap();
-            fireOnConnectionReap( listeners, handler );
+            fireOnConnectionReap( eventListeners, handler );
             return;
         }
 
         try {
             handler.resetConnection();
         } catch ( SQLException sqlException ) {
-            fireOnWarning( listeners, sqlException );
+            fireOnWarning( eventListeners, sqlException );
+        }
+        if ( returnExecutor == null ) {
+            localCache.put( handler );
         }
-        localCache.put( handler );
         fireOnConnectionReturnInterceptor( interceptors, handler );
 
         if ( handler.release() ) {
             // here the handler is already up for grabs
             handlerTransferQueue.tryTransfer( handler );
             metricsRepository.afterConnectionReturn();
-            fireOnConnectionReturn( listeners, handler );
+            fireOnConnectionReturn( eventListeners, handler );
         } else {
             // handler failed to release implies that it is on FLUSH state
             removeFromPool( handler );
             metricsRepository.afterConnectionFlush();
-            fireOnConnectionFlush( listeners, handler );
+            fireOnConnectionFlush( eventListeners, handler );
         }
     }
 
@@ -581,22 +716,39 @@ public final class ConnectionPool implements Pool {
         return metricsRepository;
     }
 
+    @Override
+    public MemoryBudget getResultSetMemory() {
+        return resultSetMemory;
+    }
+
+    @Override
+    public ConnectionStateCounters getStateCounters() {
+        return stateCounters;
+    }
+
+    @Override
+    public UnreachableReaper getUnreachableReaper() {
+        return unreachableReaper;
+    }
+
     public long activeCount() {
-        return activeCount.sum();
+        return stateCounters.activeCount();
     }
 
     public long heldCount() {
-        int held = 0;
-        for ( ConnectionHandler handler : allConnections ) {
-            if ( handler.isHeldOverCommit() ) {
-                held++;
-            }
-        }
-        return held;
+        return stateCounters.heldCount();
+    }
+
+    public long validatingCount() {
+        return stateCounters.validatingCount();
+    }
+
+    public long flushingCount() {
+        return stateCounters.flushingCount();
     }
 
     public long availableCount() {
-        return allConnections.size() - activeCount.sum();
+        return stateCounters.idleCount();
     }
 
     public long maxUsedCount() {
@@ -623,7 +775,11 @@ public final class ConnectionPool implements Pool {
                 }
             } while ( healthHandler != null && !healthHandler.tryValidationFromIdle() );
         } else {
-            healthHandler = handlerFromSharedCache();
+            // the health check is not an acquisition, do not record it on the metrics
+            healthHandler = handlerFromSharedCacheOrNull();
+            if ( healthHandler == null ) {
+                throw new SQLException( "Sorry, acquisition timeout!" );
+            }
             healthHandler.tryValidationFromActive();
         }
         return performValidation( healthHandler, true );
@@ -657,18 +813,19 @@ public final class ConnectionPool implements Pool {
             if ( housekeepingExecutor.isShutdown() ) { // Avoid create connection if pool is closing
                 throw new SQLException( "This pool is closing!" );
             }
-            fireBeforeConnectionCreation( listeners );
+            fireBeforeConnectionCreation( eventListeners );
             long metricsStamp = metricsRepository.beforeConnectionCreation();
 
             XAConnection xaConnection = connectionFactory.createConnection();
             ConnectionHandler handler = new ConnectionHandler( xaConnection, this, connectionFactory.defaultJdbcIsolationLevel(), connectionFactory.defaultHoldability() );
             metricsRepository.afterConnectionCreation( metricsStamp );
+            handler.prepareInitialStatements();
 
             if ( !configuration.maxLifetime().isZero() ) {
                 handler.setMaxLifetimeTask( housekeepingExecutor.schedule( new FlushTask( GRACEFUL, handler ), configuration.maxLifetime().toNanos(), NANOSECONDS ) );
             }
 
-            fireOnConnectionCreation( listeners, handler );
+            fireOnConnectionCreation( eventListeners, handler );
             fireOnConnectionCreateInterceptor( interceptors, handler );
 
             handler.markAvailable();
@@ -680,15 +837,15 @@ public final class ConnectionPool implements Pool {
             if ( metricsRepository.collectPoolMetrics() ) {
                 maxUsed.accumulate( allConnections.size() );
             }
-            fireOnConnectionPooled( listeners, handler );
+            fireOnConnectionPooled( eventListeners, handler );
 
             handlerTransferQueue.tryTransfer( handler );
             return handler;
         } catch ( SQLException e ) {
-            fireOnConnectionCreationFailure( listeners, e );
+            fireOnConnectionCreationFailure( eventListeners, e );
             throw e;
         } catch ( Throwable t ) {
-            fireOnConnectionCreationFailure( listeners, new SQLException( "Failed to create connection due to " + t.getClass().getSimpleName(), t ) );
+            fireOnConnectionCreationFailure( eventListeners, new SQLException( "Failed to create connection due to " + t.getClass().getSimpleName(), t ) );
             throw t;
         } finally {
             if ( decrementPermits ) {
@@ -703,7 +860,7 @@ public final class ConnectionPool implements Pool {
                 try {
                     createAndPoolConnection();
                 } catch ( SQLException e ) {
-                    fireOnWarning( listeners, "Failed to create fill connection: " + e.getMessage() );
+                    fireOnWarning( eventListeners, "Failed to create fill connection: " + e.getMessage() );
                 }
             } );
         } catch ( Throwable t ) { // usualy RejectedExecutionException because pool is shutting down
@@ -749,7 +906,7 @@ public final class ConnectionPool implements Pool {
         @Override
         public void run() {
             for ( ConnectionHandler ch : handler != null ? Collections.singleton( handler ) : allConnections ) {
-                fireBeforeConnectionFlush( listeners, ch );
+                fireBeforeConnectionFlush( eventListeners, ch );
                 flush( mode, ch );
             }
             afterFlush( mode );
@@ -780,13 +937,13 @@ public final class ConnectionPool implements Pool {
                     }
                     break;
                 case INVALID:
-                    fireBeforeConnectionValidation( listeners, handler );
+                    fireBeforeConnectionValidation( eventListeners, handler );
                     if ( handler.tryValidationFromIdle() ) {
                         if ( handler.isValid() && handler.passValidationToIdle() ) {
-                            fireOnConnectionValid( listeners, handler );
+                            fireOnConnectionValid( eventListeners, handler );
                         } else {
                             handler.failValidation();
-                            fireOnConnectionInvalid( listeners, handler );
+                            fireOnConnectionInvalid( eventListeners, handler );
                             flushHandler( handler );
                         }
                     }
@@ -799,7 +956,7 @@ public final class ConnectionPool implements Pool {
             allConnections.remove( handler );
             createConnectionPermits.addAndGet( -( 1L << Integer.SIZE ) ); // removes 1 from the high bits
             metricsRepository.afterConnectionFlush();
-            fireOnConnectionFlush( listeners, handler );
+            fireOnConnectionFlush( eventListeners, handler );
             housekeepingExecutor.execute( new DestroyConnectionTask( handler ) );
         }
 
@@ -815,7 +972,7 @@ public final class ConnectionPool implements Pool {
                 case IDLE:
                     break;
                 default:
-                    fireOnWarning( listeners, "Unsupported Flush mode " + mode );
+                    fireOnWarning( eventListeners, "Unsupported Flush mode " + mode );
             }
         }
     }
@@ -843,15 +1000,44 @@ public final class ConnectionPool implements Pool {
 
             @Override
             public void run() {
-                fireBeforeConnectionLeak( listeners, handler );
+                fireBeforeConnectionLeak( eventListeners, handler );
                 if ( handler.isLeak( configuration.leakTimeout() ) ) {
                     metricsRepository.afterLeakDetection();
                     fireOnConnectionLeak( listeners, handler );
+                    if ( flightRecorder != null ) {
+                        flightRecorder.onConnectionLeak( handler.rawConnection(), handler.getHoldingThread() );
+                    }
                 }
             }
         }
     }
 
+    // --- reclaim //
+
+    @Override
+    public void reclaimConnectionHandler(ConnectionHandler handler) {
+        housekeepingExecutor.execute( new ReclaimConnectionTask( handler ) );
+    }
+
+    private final class ReclaimConnectionTask implements Runnable {
+
+        private final ConnectionHandler handler;
+
+        ReclaimConnectionTask(ConnectionHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            metricsRepository.afterLeakDetection();
+            fireOnConnectionLeak( listeners, handler );
+            if ( flightRecorder != null ) {
+                flightRecorder.onConnectionLeak( handler.rawConnection(), handler.getHoldingThread() );
+            }
+            handler.returnReclaimed();
+        }
+    }
+
     // --- validation //
 
     private final class ValidationTask implements Runnable {
@@ -915,21 +1101,56 @@ public final class ConnectionPool implements Pool {
 
             @Override
             public void run() {
-                fireBeforeConnectionReap( listeners, handler );
+                fireBeforeConnectionReap( eventListeners, handler );
                 if ( allConnections.size() > configuration.minSize() && handler.tryFlushFromIdle() ) {
                     if ( handler.isIdle( configuration.reapTimeout() ) ) {
                         removeFromPool( handler );
                         metricsRepository.afterConnectionReap();
-                        fireOnConnectionReap( listeners, handler );
+                        fireOnConnectionReap( eventListeners, handler );
                     } else {
                         handler.markAvailable();
-                        // for debug, something like: fireOnWarning( listeners,  "Connection " + handler.getConnection() + " used recently. Do not reap!" );
+                        // for debug, something like: fireOnWarning( eventListeners,  "Connection " + handler.getConnection() + " used recently. Do not reap!" );
                     }
                 }
             }
         }
     }
 
+    // --- return //
+
+    /**
+     * Executor for the reset of connections returning to the pool, with at most one thread per processor. The queue is bounded by the size of the pool.
+     */
+    private static ThreadPoolExecutor newReturnExecutor(int maxSize, String threadPrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max( 1, Math.min( maxSize, Runtime.getRuntime().availableProcessors() ) );
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 1, MINUTES, new ArrayBlockingQueue<>( Math.max( 1, maxSize ) ), runnable -> {
+            Thread thread = new Thread( runnable, threadPrefix + threadCount.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
+    private final class ReturnConnectionTask implements Runnable {
+
+        private final ConnectionHandler handler;
+
+        ReturnConnectionTask(ConnectionHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            try {
+                releaseConnectionHandler( handler );
+            } catch ( SQLException | RuntimeException e ) {
+                fireOnWarning( eventListeners, e );
+            }
+        }
+    }
+
     // --- destroy //
 
     private final class DestroyConnectionTask implements Runnable {
@@ -942,15 +1163,15 @@ public final class ConnectionPool implements Pool {
 
         @Override
         public void run() {
-            fireBeforeConnectionDestroy( listeners, handler );
+            fireBeforeConnectionDestroy( eventListeners, handler );
             try {
                 fireOnConnectionDestroyInterceptor( interceptors, handler );
                 handler.closeConnection();
             } catch ( SQLException e ) {
-                fireOnWarning( listeners, e );
+                fireOnWarning( eventListeners, e );
             }
             metricsRepository.afterConnectionDestroy();
-            fireOnConnectionDestroy( listeners, handler );
+            fireOnConnectionDestroy( eventListeners, handler );
         }
     }
 }
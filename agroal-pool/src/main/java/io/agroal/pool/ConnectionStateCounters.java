@@ -0,0 +1,81 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of connections of a pool on each state, maintained by the connections on every state transition so that it can be read without iterating the pool.
+ * The counters are striped, to avoid contention between threads acquiring and returning connections.
+ * Reading is not atomic across counters, and a connection in transition may be briefly counted on both states, or on none.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class ConnectionStateCounters {
+
+    private final LongAdder[] stateCount = new LongAdder[ConnectionHandler.State.values().length];
+    private final LongAdder heldCount = new LongAdder();
+
+    public ConnectionStateCounters() {
+        for ( int i = 0; i < stateCount.length; i++ ) {
+            stateCount[i] = new LongAdder();
+        }
+    }
+
+    void afterCreation(ConnectionHandler.State state) {
+        stateCount[state.ordinal()].increment();
+    }
+
+    void afterTransition(ConnectionHandler.State from, ConnectionHandler.State to) {
+        if ( from != to ) {
+            stateCount[from.ordinal()].decrement();
+            stateCount[to.ordinal()].increment();
+        }
+    }
+
+    void afterHeldOverCommit(boolean held) {
+        if ( held ) {
+            heldCount.increment();
+        } else {
+            heldCount.decrement();
+        }
+    }
+
+    // --- //
+
+    /**
+     * Connections available in the pool.
+     */
+    public long idleCount() {
+        return stateCount[ConnectionHandler.State.CHECKED_IN.ordinal()].sum();
+    }
+
+    /**
+     * Connections acquired from the pool, including the ones flushed before being returned.
+     */
+    public long activeCount() {
+        return stateCount[ConnectionHandler.State.CHECKED_OUT.ordinal()].sum();
+    }
+
+    /**
+     * Connections being validated.
+     */
+    public long validatingCount() {
+        return stateCount[ConnectionHandler.State.VALIDATION.ordinal()].sum();
+    }
+
+    /**
+     * Connections waiting to be destroyed, not including the ones flushed before being returned.
+     */
+    public long flushingCount() {
+        return stateCount[ConnectionHandler.State.FLUSH.ordinal()].sum();
+    }
+
+    /**
+     * Connections held open by the application after the transaction they were enlisted with completed.
+     */
+    public long heldCount() {
+        return heldCount.sum();
+    }
+}
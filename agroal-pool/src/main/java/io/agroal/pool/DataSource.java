@@ -3,11 +3,15 @@
 
 package io.agroal.pool;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSource;
 import io.agroal.api.AgroalDataSourceListener;
 import io.agroal.api.AgroalDataSourceMetrics;
+import io.agroal.api.AgroalPoolEvent;
 import io.agroal.api.AgroalPoolInterceptor;
+import io.agroal.api.AgroalPoolSnapshot;
 import io.agroal.api.configuration.AgroalDataSourceConfiguration;
+import io.agroal.pool.wrapper.LogicalConnectionWrapper;
 
 import java.io.PrintWriter;
 import java.sql.Connection;
@@ -74,6 +78,16 @@ public final class DataSource implements AgroalDataSource {
         return connectionPool.isHealthy( newConnection );
     }
 
+    @Override
+    public AgroalPoolSnapshot getSnapshot() {
+        return connectionPool.getSnapshot();
+    }
+
+    @Override
+    public List<AgroalPoolEvent> dumpFlightRecorder() {
+        return connectionPool.dumpFlightRecorder();
+    }
+
     @Override
     public void close() {
         connectionPool.close();
@@ -83,6 +97,9 @@ public final class DataSource implements AgroalDataSource {
 
     @Override
     public Connection getConnection() throws SQLException {
+        if ( connectionPool.getConfiguration().lazyAcquisition() || connectionPool.getConfiguration().statementRelease() ) {
+            return new LogicalConnectionWrapper( connectionPool, connectionPool.getConfiguration().statementRelease() );
+        }
         return connectionPool.getConnection();
     }
 
@@ -96,6 +113,11 @@ public final class DataSource implements AgroalDataSource {
         return connectionPool.getReadOnlyConnection();
     }
 
+    @Override
+    public Connection getConnection(AgroalConnectionLabels labels) throws SQLException {
+        return connectionPool.getConnection( labels );
+    }
+
     // --- Wrapper methods //
 
     @Override
@@ -2,6 +2,7 @@ package io.agroal.pool;
 
 import java.text.MessageFormat;
 import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.LongAdder;
@@ -9,6 +10,9 @@ import java.util.concurrent.atomic.LongAdder;
 import static java.lang.System.nanoTime;
 import static java.time.Duration.ZERO;
 import static java.time.Duration.ofNanos;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
@@ -21,6 +25,14 @@ public final class DefaultMetricsRepository implements MetricsRepository {
     private static final String FORMAT_3 = "Created duration: {0,number,000.000}ms average | {1}ms max | {2}ms total";
     private static final String FORMAT_4 = "Acquire duration: {0,number,000.000}ms average | {1}ms max | {2}ms total";
     private static final String FORMAT_5 = "Threads awaiting: {0}";
+    private static final String FORMAT_6 = "Acquire path {0}: {1} acquired | {2,number,000.000}ms average | {3}ms max";
+    private static final String FORMAT_7 = "Statement cache: {0} hits | {1} misses | {2} evictions";
+    private static final String FORMAT_8 = "Connection labels: {0} hits | {1} misses";
+    private static final String FORMAT_9 = "Detached result sets: {0} detached | {1} bytes in use";
+    private static final String FORMAT_10 = "Listener events: {0} dropped";
+    private static final String FORMAT_11 = "Maintenance: {0} validating | {1} flushing";
+
+    private static final AcquisitionPath[] ACQUISITION_PATHS = AcquisitionPath.values();
 
     private final Pool connectionPool;
     private final LongAdder creationCount = new LongAdder();
@@ -33,11 +45,32 @@ public final class DefaultMetricsRepository implements MetricsRepository {
     private final LongAdder flushCount = new LongAdder();
     private final LongAdder reapCount = new LongAdder();
     private final LongAdder destroyCount = new LongAdder();
+    private final LongAdder statementCacheHitCount = new LongAdder();
+    private final LongAdder statementCacheMissCount = new LongAdder();
+    private final LongAdder statementCacheEvictionCount = new LongAdder();
+    private final LongAdder labelHitCount = new LongAdder();
+    private final LongAdder labelMissCount = new LongAdder();
+    private final LongAdder detachedResultSetCount = new LongAdder();
+    private final LongAdder listenerEventDropCount = new LongAdder();
     private final LongAccumulator maxCreatedDuration = new LongAccumulator( Long::max, 0 );
     private final LongAccumulator maxAcquireDuration = new LongAccumulator( Long::max, 0 );
+    private final LongAdder[] pathCount = new LongAdder[ACQUISITION_PATHS.length];
+    private final LongAdder[] pathTotalTime = new LongAdder[ACQUISITION_PATHS.length];
+    private final LongAccumulator[] pathMaxDuration = new LongAccumulator[ACQUISITION_PATHS.length];
+    private final MetricsHistory history;
+
+    @SuppressWarnings( "VolatileArrayField" )
+    private volatile MetricsRecorder[] recorders = new MetricsRecorder[0];
 
+    @SuppressWarnings( "ObjectAllocationInLoop" )
     public DefaultMetricsRepository(Pool pool) {
         connectionPool = pool;
+        for ( int i = 0; i < ACQUISITION_PATHS.length; i++ ) {
+            pathCount[i] = new LongAdder();
+            pathTotalTime[i] = new LongAdder();
+            pathMaxDuration[i] = new LongAccumulator( Long::max, 0 );
+        }
+        history = pool.getConfiguration().metricsHistory().isZero() ? null : new MetricsHistory( pool.getConfiguration().metricsHistory() );
     }
 
     @Override
@@ -47,10 +80,17 @@ public final class DefaultMetricsRepository implements MetricsRepository {
 
     @Override
     public void afterConnectionCreation(long timestamp) {
-        long duration = nanoTime() - timestamp;
+        long now = nanoTime();
+        long duration = now - timestamp;
         creationCount.increment();
         creationTotalTime.add( duration );
         maxCreatedDuration.accumulate( duration );
+        if ( history != null ) {
+            history.recordCreation( now );
+        }
+        for ( MetricsRecorder recorder : recorders ) {
+            recorder.recordCreation( duration );
+        }
     }
 
     @Override
@@ -60,10 +100,42 @@ public final class DefaultMetricsRepository implements MetricsRepository {
 
     @Override
     public void afterConnectionAcquire(long timestamp) {
-        long duration = nanoTime() - timestamp;
+        long now = nanoTime();
+        recordAcquire( now, now - timestamp );
+    }
+
+    @Override
+    public void afterConnectionAcquire(long timestamp, AcquisitionPath path) {
+        long now = nanoTime();
+        recordAcquire( now, now - timestamp );
+        recordAcquisitionPath( path, now - timestamp );
+    }
+
+    private void recordAcquire(long now, long duration) {
         acquireCount.increment();
         acquireTotalTime.add( duration );
         maxAcquireDuration.accumulate( duration );
+        if ( history != null ) {
+            history.recordAcquire( now, duration, connectionPool.activeCount() );
+        }
+        for ( MetricsRecorder recorder : recorders ) {
+            recorder.recordAcquisition( duration );
+        }
+    }
+
+    @Override
+    public long beforeConnectionHold() {
+        return recorders.length == 0 ? 0 : nanoTime();
+    }
+
+    @Override
+    public void afterConnectionHold(long timestamp) {
+        if ( timestamp != 0 ) {
+            long duration = nanoTime() - timestamp;
+            for ( MetricsRecorder recorder : recorders ) {
+                recorder.recordHold( duration );
+            }
+        }
     }
 
     @Override
@@ -71,6 +143,21 @@ public final class DefaultMetricsRepository implements MetricsRepository {
         returnCount.increment();
     }
 
+    private void recordAcquisitionPath(AcquisitionPath path, long duration) {
+        pathCount[path.ordinal()].increment();
+        pathTotalTime[path.ordinal()].add( duration );
+        pathMaxDuration[path.ordinal()].accumulate( duration );
+    }
+
+    @Override
+    public void afterAcquisitionTimeout(long timestamp) {
+        long now = nanoTime();
+        recordAcquisitionPath( AcquisitionPath.TIMEOUT, now - timestamp );
+        if ( history != null ) {
+            history.recordTimeout( now );
+        }
+    }
+
     @Override
     public void afterLeakDetection() {
         leakDetectionCount.increment();
@@ -96,6 +183,41 @@ public final class DefaultMetricsRepository implements MetricsRepository {
         destroyCount.increment();
     }
 
+    @Override
+    public void afterStatementCacheHit() {
+        statementCacheHitCount.increment();
+    }
+
+    @Override
+    public void afterStatementCacheMiss() {
+        statementCacheMissCount.increment();
+    }
+
+    @Override
+    public void afterStatementCacheEviction() {
+        statementCacheEvictionCount.increment();
+    }
+
+    @Override
+    public void afterLabelHit() {
+        labelHitCount.increment();
+    }
+
+    @Override
+    public void afterLabelMiss() {
+        labelMissCount.increment();
+    }
+
+    @Override
+    public void afterResultSetDetached() {
+        detachedResultSetCount.increment();
+    }
+
+    @Override
+    public void afterListenerEventDrop() {
+        listenerEventDropCount.increment();
+    }
+
     // --- //
 
     @Override
@@ -161,6 +283,16 @@ public final class DefaultMetricsRepository implements MetricsRepository {
         return connectionPool.heldCount();
     }
 
+    @Override
+    public long validatingCount() {
+        return connectionPool.validatingCount();
+    }
+
+    @Override
+    public long flushingCount() {
+        return connectionPool.flushingCount();
+    }
+
     @Override
     public long maxUsedCount() {
         return connectionPool.maxUsedCount();
@@ -194,6 +326,94 @@ public final class DefaultMetricsRepository implements MetricsRepository {
         return connectionPool.awaitingCount();
     }
 
+    @Override
+    public long statementCacheHitCount() {
+        return statementCacheHitCount.longValue();
+    }
+
+    @Override
+    public long statementCacheMissCount() {
+        return statementCacheMissCount.longValue();
+    }
+
+    @Override
+    public long statementCacheEvictionCount() {
+        return statementCacheEvictionCount.longValue();
+    }
+
+    @Override
+    public long labelHitCount() {
+        return labelHitCount.longValue();
+    }
+
+    @Override
+    public long labelMissCount() {
+        return labelMissCount.longValue();
+    }
+
+    @Override
+    public long detachedResultSetCount() {
+        return detachedResultSetCount.longValue();
+    }
+
+    @Override
+    public long detachedResultSetMemory() {
+        return connectionPool.getResultSetMemory().used();
+    }
+
+    @Override
+    public long listenerEventDropCount() {
+        return listenerEventDropCount.longValue();
+    }
+
+    @Override
+    public long acquireCount(AcquisitionPath path) {
+        return pathCount[path.ordinal()].longValue();
+    }
+
+    @Override
+    public Duration blockingTimeAverage(AcquisitionPath path) {
+        long count = pathCount[path.ordinal()].longValue();
+        if ( count == 0 ) {
+            return ZERO;
+        }
+        return ofNanos( pathTotalTime[path.ordinal()].longValue() / count );
+    }
+
+    @Override
+    public Duration blockingTimeMax(AcquisitionPath path) {
+        return ofNanos( pathMaxDuration[path.ordinal()].get() );
+    }
+
+    @Override
+    public Duration blockingTimeTotal(AcquisitionPath path) {
+        return ofNanos( pathTotalTime[path.ordinal()].longValue() );
+    }
+
+    @Override
+    public List<MetricsBucket> perSecondHistory() {
+        return history == null ? emptyList() : history.perSecond();
+    }
+
+    @Override
+    public List<MetricsBucket> perMinuteHistory() {
+        return history == null ? emptyList() : history.perMinute();
+    }
+
+    // --- //
+
+    @Override
+    public synchronized void addRecorder(MetricsRecorder recorder) {
+        MetricsRecorder[] newRecorders = copyOf( recorders, recorders.length + 1 );
+        newRecorders[recorders.length] = recorder;
+        recorders = newRecorders;
+    }
+
+    @Override
+    public synchronized void removeRecorder(MetricsRecorder recorder) {
+        recorders = stream( recorders ).filter( r -> r != recorder ).toArray( MetricsRecorder[]::new );
+    }
+
     // --- //
 
     @Override
@@ -204,9 +424,21 @@ public final class DefaultMetricsRepository implements MetricsRepository {
         acquireTotalTime.reset();
         leakDetectionCount.reset();
         invalidCount.reset();
+        statementCacheHitCount.reset();
+        statementCacheMissCount.reset();
+        statementCacheEvictionCount.reset();
+        labelHitCount.reset();
+        labelMissCount.reset();
+        detachedResultSetCount.reset();
+        listenerEventDropCount.reset();
 
         maxCreatedDuration.reset();
         maxAcquireDuration.reset();
+        for ( int i = 0; i < ACQUISITION_PATHS.length; i++ ) {
+            pathCount[i].reset();
+            pathTotalTime[i].reset();
+            pathMaxDuration[i].reset();
+        }
         connectionPool.resetMaxUsedCount();
     }
 
@@ -226,6 +458,27 @@ public final class DefaultMetricsRepository implements MetricsRepository {
         new MessageFormat( FORMAT_3, Locale.ROOT ).format( new Object[]{avgCreationMs, creationTimeMax().toMillis(), creationTimeTotal().toMillis()}, buffer, null ).append( nl );
         new MessageFormat( FORMAT_4, Locale.ROOT ).format( new Object[]{avgBlockingMs, blockingTimeMax().toMillis(), blockingTimeTotal().toMillis()}, buffer, null ).append( nl );
         new MessageFormat( FORMAT_5, Locale.ROOT ).format( new Object[]{awaitingCount()}, buffer, null ).append( nl );
+        if ( validatingCount() > 0 || flushingCount() > 0 ) {
+            new MessageFormat( FORMAT_11, Locale.ROOT ).format( new Object[]{validatingCount(), flushingCount()}, buffer, null ).append( nl );
+        }
+        for ( AcquisitionPath path : ACQUISITION_PATHS ) {
+            if ( acquireCount( path ) > 0 ) {
+                double avgPathMs = (double) blockingTimeAverage( path ).toNanos() / MILLISECONDS.toNanos( 1 );
+                new MessageFormat( FORMAT_6, Locale.ROOT ).format( new Object[]{path, acquireCount( path ), avgPathMs, blockingTimeMax( path ).toMillis()}, buffer, null ).append( nl );
+            }
+        }
+        if ( statementCacheMissCount.longValue() > 0 ) {
+            new MessageFormat( FORMAT_7, Locale.ROOT ).format( new Object[]{statementCacheHitCount, statementCacheMissCount, statementCacheEvictionCount}, buffer, null ).append( nl );
+        }
+        if ( labelHitCount.longValue() > 0 || labelMissCount.longValue() > 0 ) {
+            new MessageFormat( FORMAT_8, Locale.ROOT ).format( new Object[]{labelHitCount, labelMissCount}, buffer, null ).append( nl );
+        }
+        if ( detachedResultSetCount.longValue() > 0 ) {
+            new MessageFormat( FORMAT_9, Locale.ROOT ).format( new Object[]{detachedResultSetCount, detachedResultSetMemory()}, buffer, null ).append( nl );
+        }
+        if ( listenerEventDropCount.longValue() > 0 ) {
+            new MessageFormat( FORMAT_10, Locale.ROOT ).format( new Object[]{listenerEventDropCount}, buffer, null ).append( nl );
+        }
         return buffer.append( "===" ).toString();
     }
 }
@@ -0,0 +1,309 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool;
+
+import io.agroal.api.AgroalDataSourceListener;
+import io.agroal.api.AgroalPoolEvent;
+import io.agroal.api.AgroalPoolEvent.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_ACQUIRE;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_CREATION;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_DESTROY;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_FLUSH;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_LEAK;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_REAP;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_RETURN;
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_VALIDATION;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_ACQUIRE;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_CREATION;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_CREATION_FAILURE;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_DESTROY;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_FLUSH;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_INVALID;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_LEAK;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_POOLED;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_REAP;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_RETURN;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_VALID;
+import static io.agroal.api.AgroalPoolEvent.Type.POOL_BLOCK;
+import static io.agroal.api.AgroalPoolEvent.Type.WARNING;
+import static java.lang.System.arraycopy;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.identityHashCode;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Fixed size ring buffer of the most recent pool events. It's notified along with the listeners, but is not one of the listeners of the data source.
+ * Each event is stored as primitive values on preallocated arrays, therefore recording does not allocate and does not lock.
+ * A slot is tagged with the sequence of the event it holds, allowing a reader to discard slots that are overwritten while being read.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+final class FlightRecorder implements AgroalDataSourceListener {
+
+    private static final VarHandle SLOT_SEQUENCE = MethodHandles.arrayElementVarHandle( long[].class );
+    private static final Type[] TYPES = Type.values();
+    private static final long EMPTY = -1;
+
+    private final int mask;
+    private final long[] slotSequence;
+    private final byte[] types;
+    private final long[] nanoTimes;
+    private final long[] threadIds;
+    private final int[] connectionIds;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // reference point to convert nanoTime into wall-clock time
+    private final long originMillis = currentTimeMillis();
+    private final long originNanos = nanoTime();
+
+    FlightRecorder(int size) {
+        int capacity = Integer.highestOneBit( size ) == size ? size : Integer.highestOneBit( size ) << 1;
+        mask = capacity - 1;
+        slotSequence = new long[capacity];
+        types = new byte[capacity];
+        nanoTimes = new long[capacity];
+        threadIds = new long[capacity];
+        connectionIds = new int[capacity];
+        for ( int i = 0; i < capacity; i++ ) {
+            slotSequence[i] = EMPTY;
+        }
+    }
+
+    static AgroalDataSourceListener[] withFlightRecorder(FlightRecorder recorder, AgroalDataSourceListener... listeners) {
+        if ( recorder == null ) {
+            return listeners;
+        }
+        AgroalDataSourceListener[] all = new AgroalDataSourceListener[listeners.length + 1];
+        arraycopy( listeners, 0, all, 0, listeners.length );
+        all[listeners.length] = recorder;
+        return all;
+    }
+
+    @SuppressWarnings( "deprecation" )
+    private void record(Type type, Object connection) {
+        record( type, connection, currentThread().getId() );
+    }
+
+    private void record(Type type, Object connection, long threadId) {
+        long eventSequence = sequence.getAndIncrement();
+        int slot = (int) eventSequence & mask;
+
+        // invalidate the slot before overwriting it, so that readers do not see a mix of old and new values
+        SLOT_SEQUENCE.setOpaque( slotSequence, slot, EMPTY );
+        VarHandle.storeStoreFence();
+
+        types[slot] = (byte) type.ordinal();
+        nanoTimes[slot] = nanoTime();
+        threadIds[slot] = threadId;
+        connectionIds[slot] = connection == null ? 0 : identityHashCode( connection );
+
+        SLOT_SEQUENCE.setRelease( slotSequence, slot, eventSequence );
+    }
+
+    /**
+     * Copies the events currently on the buffer, oldest first. Does not block the threads recording events.
+     */
+    List<AgroalPoolEvent> dump() {
+        long last = sequence.get();
+        long first = Math.max( 0, last - slotSequence.length );
+
+        List<AgroalPoolEvent> events = new ArrayList<>( (int) ( last - first ) );
+        for ( long s = first; s < last; s++ ) {
+            int slot = (int) s & mask;
+            if ( (long) SLOT_SEQUENCE.getAcquire( slotSequence, slot ) != s ) {
+                continue; // not yet written or already overwritten
+            }
+            Type type = TYPES[types[slot]];
+            long eventNanoTime = nanoTimes[slot];
+            long threadId = threadIds[slot];
+            int connectionId = connectionIds[slot];
+
+            VarHandle.loadLoadFence();
+            if ( (long) SLOT_SEQUENCE.getVolatile( slotSequence, slot ) == s ) {
+                events.add( new Event( s, type, eventNanoTime, threadId, connectionId ) );
+            }
+        }
+        return events;
+    }
+
+    // --- AgroalDataSourceListener methods //
+
+    @Override
+    public void beforeConnectionCreation() {
+        record( BEFORE_CONNECTION_CREATION, null );
+    }
+
+    @Override
+    public void onConnectionCreation(Connection connection) {
+        record( CONNECTION_CREATION, connection );
+    }
+
+    @Override
+    public void onConnectionCreationFailure(SQLException sqlException) {
+        record( CONNECTION_CREATION_FAILURE, null );
+    }
+
+    @Override
+    public void onConnectionPooled(Connection connection) {
+        record( CONNECTION_POOLED, connection );
+    }
+
+    @Override
+    public void beforeConnectionAcquire() {
+        record( BEFORE_CONNECTION_ACQUIRE, null );
+    }
+
+    @Override
+    public void onConnectionAcquire(Connection connection) {
+        record( CONNECTION_ACQUIRE, connection );
+    }
+
+    @Override
+    public void beforeConnectionReturn(Connection connection) {
+        record( BEFORE_CONNECTION_RETURN, connection );
+    }
+
+    @Override
+    public void onConnectionReturn(Connection connection) {
+        record( CONNECTION_RETURN, connection );
+    }
+
+    @Override
+    public void beforeConnectionLeak(Connection connection) {
+        record( BEFORE_CONNECTION_LEAK, connection );
+    }
+
+    @Override
+    @SuppressWarnings( "deprecation" )
+    public void onConnectionLeak(Connection connection, Thread thread) {
+        record( CONNECTION_LEAK, connection, thread == null ? 0 : thread.getId() );
+    }
+
+    @Override
+    public void beforeConnectionValidation(Connection connection) {
+        record( BEFORE_CONNECTION_VALIDATION, connection );
+    }
+
+    @Override
+    public void onConnectionValid(Connection connection) {
+        record( CONNECTION_VALID, connection );
+    }
+
+    @Override
+    public void onConnectionInvalid(Connection connection) {
+        record( CONNECTION_INVALID, connection );
+    }
+
+    @Override
+    public void beforeConnectionFlush(Connection connection) {
+        record( BEFORE_CONNECTION_FLUSH, connection );
+    }
+
+    @Override
+    public void onConnectionFlush(Connection connection) {
+        record( CONNECTION_FLUSH, connection );
+    }
+
+    @Override
+    public void beforeConnectionReap(Connection connection) {
+        record( BEFORE_CONNECTION_REAP, connection );
+    }
+
+    @Override
+    public void onConnectionReap(Connection connection) {
+        record( CONNECTION_REAP, connection );
+    }
+
+    @Override
+    public void beforeConnectionDestroy(Connection connection) {
+        record( BEFORE_CONNECTION_DESTROY, connection );
+    }
+
+    @Override
+    public void onConnectionDestroy(Connection connection) {
+        record( CONNECTION_DESTROY, connection );
+    }
+
+    @Override
+    public void beforePoolBlock(long timeout) {
+        record( POOL_BLOCK, null );
+    }
+
+    @Override
+    public void onWarning(String message) {
+        record( WARNING, null );
+    }
+
+    @Override
+    public void onWarning(Throwable throwable) {
+        record( WARNING, null );
+    }
+
+    // --- //
+
+    private final class Event implements AgroalPoolEvent {
+
+        private final long sequence;
+        private final Type type;
+        private final long nanoTime;
+        private final long threadId;
+        private final int connectionId;
+
+        Event(long sequence, Type type, long nanoTime, long threadId, int connectionId) {
+            this.sequence = sequence;
+            this.type = type;
+            this.nanoTime = nanoTime;
+            this.threadId = threadId;
+            this.connectionId = connectionId;
+        }
+
+        @Override
+        public long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public Type type() {
+            return type;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return Instant.ofEpochMilli( originMillis + NANOSECONDS.toMillis( nanoTime - originNanos ) );
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanoTime;
+        }
+
+        @Override
+        public long threadId() {
+            return threadId;
+        }
+
+        @Override
+        public int connectionId() {
+            return connectionId;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + sequence + " " + timestamp() + " " + type + " [thread " + threadId + ( connectionId == 0 ? "]" : ", connection " + Integer.toHexString( connectionId ) + "]" );
+        }
+    }
+}
@@ -0,0 +1,265 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool;
+
+import io.agroal.api.AgroalDataSourceMetrics.MetricsBucket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Per-second and per-minute metrics over a fixed period of time, kept in preallocated circular arrays.
+ * Each slot is stamped with the period it holds. The first thread to record on a slot that holds an old period resets it.
+ * Updates that race with a reset may be lost, which is acceptable for the purpose of observing rates and trends.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+final class MetricsHistory {
+
+    // blocking time histogram: 4 bins for each power of two of microseconds, up to more than 2 hours
+    private static final int BINS = 128;
+
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    // reference point to convert nanoTime into wall-clock time
+    private final long originMillis = currentTimeMillis();
+    private final long originNanos = nanoTime();
+
+    private final Ring perSecond;
+    private final Ring perMinute;
+
+    MetricsHistory(Duration history) {
+        perSecond = new Ring( SECONDS_PER_MINUTE, SECONDS.toNanos( 1 ) );
+        perMinute = new Ring( (int) Math.max( 1, ( history.toSeconds() + SECONDS_PER_MINUTE - 1 ) / SECONDS_PER_MINUTE ), MINUTES.toNanos( 1 ) );
+    }
+
+    void recordAcquire(long now, long duration, long activeCount) {
+        int bin = bin( NANOSECONDS.toMicros( duration ) );
+        perSecond.recordAcquire( now - originNanos, bin, activeCount );
+        perMinute.recordAcquire( now - originNanos, bin, activeCount );
+    }
+
+    void recordCreation(long now) {
+        perSecond.recordCreation( now - originNanos );
+        perMinute.recordCreation( now - originNanos );
+    }
+
+    void recordTimeout(long now) {
+        perSecond.recordTimeout( now - originNanos );
+        perMinute.recordTimeout( now - originNanos );
+    }
+
+    List<MetricsBucket> perSecond() {
+        return perSecond.buckets( nanoTime() - originNanos );
+    }
+
+    List<MetricsBucket> perMinute() {
+        return perMinute.buckets( nanoTime() - originNanos );
+    }
+
+    // --- //
+
+    @SuppressWarnings( "MagicNumber" )
+    private static int bin(long micros) {
+        if ( micros < 4 ) {
+            return (int) Math.max( 0, micros );
+        }
+        int exponent = 63 - numberOfLeadingZeros( micros );
+        return Math.min( BINS - 1, 4 * ( exponent - 1 ) + (int) ( ( micros >>> ( exponent - 2 ) ) & 3 ) );
+    }
+
+    @SuppressWarnings( "MagicNumber" )
+    private static long binUpperBound(int bin) {
+        if ( bin < 4 ) {
+            return bin;
+        }
+        int exponent = bin / 4 + 1;
+        return ( ( 4L + bin % 4 + 1 ) << ( exponent - 2 ) ) - 1;
+    }
+
+    // --- //
+
+    private final class Ring {
+
+        private final int size;
+        private final long periodNanos;
+
+        private final AtomicLongArray stamps;
+        private final AtomicLongArray acquireCount;
+        private final AtomicLongArray creationCount;
+        private final AtomicLongArray timeoutCount;
+        private final AtomicLongArray maxActiveCount;
+        private final AtomicLongArray histogram;
+
+        Ring(int size, long periodNanos) {
+            this.size = size;
+            this.periodNanos = periodNanos;
+            stamps = new AtomicLongArray( size );
+            acquireCount = new AtomicLongArray( size );
+            creationCount = new AtomicLongArray( size );
+            timeoutCount = new AtomicLongArray( size );
+            maxActiveCount = new AtomicLongArray( size );
+            histogram = new AtomicLongArray( size * BINS );
+            for ( int i = 0; i < size; i++ ) {
+                stamps.set( i, -1 );
+            }
+        }
+
+        /**
+         * Returns the slot for the period of the elapsed time, or -1 if that period is no longer retained.
+         */
+        private int slot(long elapsed) {
+            long period = elapsed / periodNanos;
+            int slot = (int) ( period % size );
+            long stamp = stamps.get( slot );
+            if ( stamp == period ) {
+                return slot;
+            }
+            if ( stamp < period && stamps.compareAndSet( slot, stamp, period ) ) {
+                acquireCount.set( slot, 0 );
+                creationCount.set( slot, 0 );
+                timeoutCount.set( slot, 0 );
+                maxActiveCount.set( slot, 0 );
+                for ( int i = slot * BINS; i < ( slot + 1 ) * BINS; i++ ) {
+                    histogram.set( i, 0 );
+                }
+                return slot;
+            }
+            return stamps.get( slot ) == period ? slot : -1;
+        }
+
+        void recordAcquire(long elapsed, int bin, long activeCount) {
+            int slot = slot( elapsed );
+            if ( slot >= 0 ) {
+                acquireCount.incrementAndGet( slot );
+                histogram.incrementAndGet( slot * BINS + bin );
+                maxActiveCount.accumulateAndGet( slot, activeCount, Math::max );
+            }
+        }
+
+        void recordCreation(long elapsed) {
+            int slot = slot( elapsed );
+            if ( slot >= 0 ) {
+                creationCount.incrementAndGet( slot );
+            }
+        }
+
+        void recordTimeout(long elapsed) {
+            int slot = slot( elapsed );
+            if ( slot >= 0 ) {
+                timeoutCount.incrementAndGet( slot );
+            }
+        }
+
+        @SuppressWarnings( "ObjectAllocationInLoop" )
+        List<MetricsBucket> buckets(long elapsed) {
+            long current = elapsed / periodNanos;
+            List<MetricsBucket> buckets = new ArrayList<>( size );
+            for ( long period = Math.max( 0, current - size + 1 ); period <= current; period++ ) {
+                int slot = (int) ( period % size );
+                long[] bins = new long[BINS];
+                Bucket bucket;
+                if ( stamps.get( slot ) == period ) {
+                    for ( int i = 0; i < BINS; i++ ) {
+                        bins[i] = histogram.get( slot * BINS + i );
+                    }
+                    bucket = new Bucket( period * periodNanos, periodNanos, acquireCount.get( slot ), creationCount.get( slot ), timeoutCount.get( slot ), maxActiveCount.get( slot ), bins );
+                } else {
+                    bucket = new Bucket( period * periodNanos, periodNanos, 0, 0, 0, 0, bins ); // no activity during the period
+                }
+                buckets.add( bucket );
+            }
+            return buckets;
+        }
+    }
+
+    private final class Bucket implements MetricsBucket {
+
+        private final long start;
+        private final long duration;
+        private final long acquireCount;
+        private final long creationCount;
+        private final long timeoutCount;
+        private final long maxActiveCount;
+        private final long[] bins;
+
+        @SuppressWarnings( "ConstructorWithTooManyParameters" )
+        Bucket(long start, long duration, long acquireCount, long creationCount, long timeoutCount, long maxActiveCount, long[] bins) {
+            this.start = start;
+            this.duration = duration;
+            this.acquireCount = acquireCount;
+            this.creationCount = creationCount;
+            this.timeoutCount = timeoutCount;
+            this.maxActiveCount = maxActiveCount;
+            this.bins = bins;
+        }
+
+        @Override
+        public Instant start() {
+            return Instant.ofEpochMilli( originMillis + NANOSECONDS.toMillis( start ) );
+        }
+
+        @Override
+        public Duration duration() {
+            return Duration.ofNanos( duration );
+        }
+
+        @Override
+        public long acquireCount() {
+            return acquireCount;
+        }
+
+        @Override
+        public long creationCount() {
+            return creationCount;
+        }
+
+        @Override
+        public long timeoutCount() {
+            return timeoutCount;
+        }
+
+        @Override
+        public long maxActiveCount() {
+            return maxActiveCount;
+        }
+
+        @Override
+        public Duration blockingTimePercentile(double percentile) {
+            if ( percentile < 0 || percentile > 100 ) {
+                throw new IllegalArgumentException( "Percentile must be between 0 and 100" );
+            }
+            long total = 0;
+            for ( long count : bins ) {
+                total += count;
+            }
+            long target = (long) Math.ceil( total * percentile / 100 );
+            long cumulative = 0;
+            for ( int i = 0; i < BINS; i++ ) {
+                cumulative += bins[i];
+                if ( cumulative > 0 && cumulative >= target ) {
+                    return Duration.ofNanos( MICROSECONDS.toNanos( binUpperBound( i ) ) );
+                }
+            }
+            return Duration.ZERO;
+        }
+
+        @Override
+        public String toString() {
+            return start() + " (" + duration() + "): " + acquireCount + " acquired | " + creationCount + " created | " + timeoutCount + " timeouts | " + maxActiveCount + " max active | "
+                    + blockingTimePercentile( 50 ).toMillis() + "ms p50 | " + blockingTimePercentile( 99 ).toMillis() + "ms p99";
+        }
+    }
+}
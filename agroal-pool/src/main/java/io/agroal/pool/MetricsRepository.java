@@ -24,9 +24,23 @@ public interface MetricsRepository extends AgroalDataSourceMetrics {
     default void afterConnectionAcquire(long timestamp) {
     }
 
+    default void afterConnectionAcquire(long timestamp, AcquisitionPath path) {
+        afterConnectionAcquire( timestamp );
+    }
+
+    default long beforeConnectionHold() {
+        return 0;
+    }
+
+    default void afterConnectionHold(long timestamp) {
+    }
+
     default void afterConnectionReturn() {
     }
 
+    default void afterAcquisitionTimeout(long timestamp) {
+    }
+
     default void afterLeakDetection() {
     }
 
@@ -42,6 +56,27 @@ public interface MetricsRepository extends AgroalDataSourceMetrics {
     default void afterConnectionDestroy() {
     }
 
+    default void afterStatementCacheHit() {
+    }
+
+    default void afterStatementCacheMiss() {
+    }
+
+    default void afterStatementCacheEviction() {
+    }
+
+    default void afterLabelHit() {
+    }
+
+    default void afterLabelMiss() {
+    }
+
+    default void afterResultSetDetached() {
+    }
+
+    default void afterListenerEventDrop() {
+    }
+
     /**
      * Hint to the pool that it doesn't need to collect statistics
      */
@@ -3,13 +3,17 @@
 
 package io.agroal.pool;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSource.FlushMode;
 import io.agroal.api.AgroalDataSourceListener;
-import io.agroal.api.AgroalDataSourceMetrics;
+import io.agroal.api.AgroalPoolEvent;
 import io.agroal.api.AgroalPoolInterceptor;
+import io.agroal.api.AgroalPoolSnapshot;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration;
 import io.agroal.api.configuration.AgroalDataSourceConfiguration.MetricsEnabledListener;
 import io.agroal.api.transaction.TransactionIntegration.ResourceRecoveryFactory;
+import io.agroal.pool.util.MemoryBudget;
+import io.agroal.pool.util.UnreachableReaper;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -27,18 +31,32 @@ public interface Pool extends MetricsEnabledListener, AutoCloseable, ResourceRec
 
     Connection getReadOnlyConnection() throws SQLException;
 
+    Connection getConnection(AgroalConnectionLabels labels) throws SQLException;
+
     AgroalConnectionPoolConfiguration getConfiguration();
 
-    AgroalDataSourceMetrics getMetrics();
+    MetricsRepository getMetrics();
+
+    MemoryBudget getResultSetMemory();
+
+    ConnectionStateCounters getStateCounters();
+
+    UnreachableReaper getUnreachableReaper();
 
     AgroalDataSourceListener[] getListeners();
 
+    AgroalPoolSnapshot getSnapshot();
+
+    List<AgroalPoolEvent> dumpFlightRecorder();
+
     List<AgroalPoolInterceptor> getPoolInterceptors();
 
     void setPoolInterceptors(Collection<? extends AgroalPoolInterceptor> list);
 
     void returnConnectionHandler(ConnectionHandler handler) throws SQLException;
 
+    void reclaimConnectionHandler(ConnectionHandler handler);
+
     void flushPool(FlushMode mode);
 
     boolean isHealthy(boolean newConnection) throws SQLException;
@@ -52,6 +70,10 @@ public interface Pool extends MetricsEnabledListener, AutoCloseable, ResourceRec
 
     long heldCount();
 
+    long validatingCount();
+
+    long flushingCount();
+
     long maxUsedCount();
 
     long availableCount();
@@ -0,0 +1,195 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool;
+
+import io.agroal.api.AgroalPoolSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.System.nanoTime;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Snapshot of the pool, built from a single iteration over the connections.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+final class PoolSnapshot implements AgroalPoolSnapshot {
+
+    private final Instant timestamp = Instant.now();
+    private final List<ConnectionSnapshot> connections;
+    private final long awaitingCount;
+    private final long maxUsedCount;
+
+    private int availableCount;
+    private int activeCount;
+    private int validatingCount;
+    private int flushingCount;
+    private int enlistedCount;
+    private int heldCount;
+
+    @SuppressWarnings( "ObjectAllocationInLoop" )
+    PoolSnapshot(Iterable<ConnectionHandler> handlers, Duration maxLifetime, long awaitingCount, long maxUsedCount) {
+        this.awaitingCount = awaitingCount;
+        this.maxUsedCount = Math.max( 0, maxUsedCount );
+
+        long now = nanoTime();
+        List<ConnectionSnapshot> list = new ArrayList<>();
+        for ( ConnectionHandler handler : handlers ) {
+            ConnectionSnapshot snapshot = handler.snapshot( now, maxLifetime );
+            switch ( snapshot.state() ) {
+                case CHECKED_IN:
+                    availableCount++;
+                    break;
+                case CHECKED_OUT:
+                    activeCount++;
+                    break;
+                case VALIDATION:
+                    validatingCount++;
+                    break;
+                case FLUSH:
+                    flushingCount++;
+                    break;
+                default:
+            }
+            if ( snapshot.enlisted() ) {
+                enlistedCount++;
+            }
+            if ( handler.isHeldOverCommit() ) {
+                heldCount++;
+            }
+            list.add( snapshot );
+        }
+        connections = unmodifiableList( list );
+    }
+
+    @Override
+    public Instant timestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public int availableCount() {
+        return availableCount;
+    }
+
+    @Override
+    public int activeCount() {
+        return activeCount;
+    }
+
+    @Override
+    public int validatingCount() {
+        return validatingCount;
+    }
+
+    @Override
+    public int flushingCount() {
+        return flushingCount;
+    }
+
+    @Override
+    public int enlistedCount() {
+        return enlistedCount;
+    }
+
+    @Override
+    public int heldCount() {
+        return heldCount;
+    }
+
+    @Override
+    public long awaitingCount() {
+        return awaitingCount;
+    }
+
+    @Override
+    public long maxUsedCount() {
+        return maxUsedCount;
+    }
+
+    @Override
+    public List<ConnectionSnapshot> connections() {
+        return connections;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolSnapshot{" + timestamp + ": " + connectionCount() + " connections, " + availableCount + " available, " + activeCount + " active, "
+                + validatingCount + " validating, " + flushingCount + " flushing, " + enlistedCount + " enlisted, " + heldCount + " held, " + awaitingCount + " awaiting}";
+    }
+
+    // --- //
+
+    static final class HandlerSnapshot implements ConnectionSnapshot {
+
+        private final int connectionId;
+        private final ConnectionState state;
+        private final Duration age;
+        private final Duration idleTime;
+        private final Duration lifetimeRemaining;
+        private final String holdingThread;
+        private final boolean enlisted;
+
+        @SuppressWarnings( "ConstructorWithTooManyParameters" )
+        HandlerSnapshot(int connectionId, ConnectionState state, Duration age, Duration idleTime, Duration lifetimeRemaining, String holdingThread, boolean enlisted) {
+            this.connectionId = connectionId;
+            this.state = state;
+            this.age = age;
+            this.idleTime = idleTime;
+            this.lifetimeRemaining = lifetimeRemaining;
+            this.holdingThread = holdingThread;
+            this.enlisted = enlisted;
+        }
+
+        @Override
+        public int connectionId() {
+            return connectionId;
+        }
+
+        @Override
+        public ConnectionState state() {
+            return state;
+        }
+
+        @Override
+        public Duration age() {
+            return age;
+        }
+
+        @Override
+        public Duration idleTime() {
+            return idleTime;
+        }
+
+        @Override
+        public Duration lifetimeRemaining() {
+            return lifetimeRemaining;
+        }
+
+        @Override
+        public String holdingThread() {
+            return holdingThread;
+        }
+
+        @Override
+        public boolean enlisted() {
+            return enlisted;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toHexString( connectionId ) + " " + state + " [age " + age + ", idle " + idleTime + ( lifetimeRemaining == null ? "" : ", lifetime remaining " + lifetimeRemaining )
+                    + ( holdingThread == null ? "" : ", held by " + holdingThread ) + ( enlisted ? ", enlisted]" : "]" );
+        }
+    }
+}
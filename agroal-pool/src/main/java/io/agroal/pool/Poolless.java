@@ -3,13 +3,19 @@
 
 package io.agroal.pool;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSource;
 import io.agroal.api.AgroalDataSourceListener;
+import io.agroal.api.AgroalPoolEvent;
 import io.agroal.api.AgroalPoolInterceptor;
+import io.agroal.api.AgroalPoolSnapshot;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration;
 import io.agroal.api.transaction.TransactionIntegration;
 import io.agroal.pool.MetricsRepository.EmptyMetricsRepository;
+import io.agroal.pool.util.InterceptorChain;
+import io.agroal.pool.util.MemoryBudget;
 import io.agroal.pool.util.StampedCopyOnWriteArrayList;
+import io.agroal.pool.util.UnreachableReaper;
 import io.agroal.pool.util.XAConnectionAdaptor;
 
 import javax.sql.XAConnection;
@@ -26,7 +32,12 @@ import java.util.concurrent.atomic.LongAccumulator;
 
 import static io.agroal.api.AgroalDataSource.FlushMode.ALL;
 import static io.agroal.api.AgroalDataSource.FlushMode.LEAK;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.INLINE_CREATION;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.RETRY;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.TRANSACTION;
 import static io.agroal.api.configuration.AgroalConnectionPoolConfiguration.MultipleAcquisitionAction.LENIENT;
+import static io.agroal.pool.AsyncListenerDispatcher.withAsyncDispatch;
+import static io.agroal.pool.FlightRecorder.withFlightRecorder;
 import static io.agroal.pool.util.InterceptorHelper.fireOnConnectionAcquiredInterceptor;
 import static io.agroal.pool.util.InterceptorHelper.fireOnConnectionCreateInterceptor;
 import static io.agroal.pool.util.InterceptorHelper.fireOnConnectionDestroyInterceptor;
@@ -44,6 +55,7 @@ import static io.agroal.pool.util.ListenerHelper.fireOnConnectionCreationFailure
 import static io.agroal.pool.util.ListenerHelper.fireOnConnectionDestroy;
 import static io.agroal.pool.util.ListenerHelper.fireOnConnectionFlush;
 import static io.agroal.pool.util.ListenerHelper.fireOnConnectionInvalid;
+import static io.agroal.pool.util.ListenerHelper.fireOnConnectionLeak;
 import static io.agroal.pool.util.ListenerHelper.fireOnConnectionPooled;
 import static io.agroal.pool.util.ListenerHelper.fireOnConnectionValid;
 import static io.agroal.pool.util.ListenerHelper.fireOnInfo;
@@ -51,10 +63,9 @@ import static io.agroal.pool.util.ListenerHelper.fireOnPoolInterceptor;
 import static io.agroal.pool.util.ListenerHelper.fireOnWarning;
 import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
-import static java.util.Arrays.copyOfRange;
-import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.ThreadLocalRandom.current;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Alternative implementation of ConnectionPool for the special case of flush-on-close (and min-size == 0)
@@ -74,9 +85,14 @@ public final class Poolless implements Pool {
 
     private static final ConnectionHandler TRANSFER_POISON; // Dummy object to unblock waiting threads, for example on close()
     private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos( 1 );
+    private static final AtomicInteger REAPER_COUNT = new AtomicInteger();
 
     private final AgroalConnectionPoolConfiguration configuration;
     private final AgroalDataSourceListener[] listeners;
+    private final AgroalDataSourceListener[] eventListeners; // listeners plus the flight recorder
+    private final FlightRecorder flightRecorder;
+    private final AsyncListenerDispatcher listenerDispatcher;
+    private final UnreachableReaper unreachableReaper;
 
     private final StampedCopyOnWriteArrayList<ConnectionHandler> allConnections;
     private final TransferQueue<ConnectionHandler> handlerTransferQueue = new LinkedTransferQueue<>();
@@ -84,20 +100,34 @@ public final class Poolless implements Pool {
     private final ConnectionFactory connectionFactory;
     private final TransactionIntegration transactionIntegration;
 
+    // number of connections held by each thread, for detection of multiple acquisition
+    private final ThreadLocal<AtomicInteger> heldConnections = ThreadLocal.withInitial( AtomicInteger::new );
+
     private final LongAccumulator maxUsed = new LongAccumulator( Math::max, Long.MIN_VALUE );
     private final AtomicInteger activeCount = new AtomicInteger();
 
-    private List<AgroalPoolInterceptor> interceptors;
+    // number of connections on each state, maintained by the connection handlers
+    private final ConnectionStateCounters stateCounters = new ConnectionStateCounters();
+
+    // memory used by detached result sets of connections from this pool
+    private final MemoryBudget resultSetMemory;
+
+    private InterceptorChain interceptors = InterceptorChain.EMPTY;
     private MetricsRepository metricsRepository;
     private volatile boolean shutdown;
 
     public Poolless(AgroalConnectionPoolConfiguration configuration, AgroalDataSourceListener... listeners) {
         this.configuration = configuration;
-        this.listeners = listeners;
+        flightRecorder = configuration.flightRecorderSize() > 0 ? new FlightRecorder( configuration.flightRecorderSize() ) : null;
+        listenerDispatcher = configuration.asyncListenerBufferSize() > 0 && listeners.length > 0 ? new AsyncListenerDispatcher( configuration.asyncListenerBufferSize(), this, listeners ) : null;
+        this.listeners = withAsyncDispatch( listenerDispatcher, listeners );
+        eventListeners = withFlightRecorder( flightRecorder, this.listeners );
 
         allConnections = new StampedCopyOnWriteArrayList<>( ConnectionHandler.class );
-        connectionFactory = new ConnectionFactory( configuration.connectionFactoryConfiguration(), listeners );
+        connectionFactory = new ConnectionFactory( configuration.connectionFactoryConfiguration(), eventListeners );
         transactionIntegration = configuration.transactionIntegration();
+        resultSetMemory = new MemoryBudget( configuration.connectionFactoryConfiguration().detachedResultSetMaxMemory() );
+        unreachableReaper = configuration.reclaimUnreachable() ? new UnreachableReaper( "agroal-poolless-reclaim-" + REAPER_COUNT.incrementAndGet() ) : null;
 
         setPoolInterceptors(configuration.interceptors());
     }
@@ -107,6 +137,12 @@ public final class Poolless implements Pool {
     }
 
     public void init() {
+        if ( listenerDispatcher != null ) {
+            listenerDispatcher.start();
+        }
+        if ( unreachableReaper != null ) {
+            unreachableReaper.start();
+        }
         if ( !configuration.maxLifetime().isZero() ) {
             fireOnInfo( listeners, "Max lifetime not supported in pool-less mode" );
         }
@@ -145,19 +181,27 @@ public final class Poolless implements Pool {
         return listeners;
     }
 
+    public AgroalPoolSnapshot getSnapshot() {
+        return new PoolSnapshot( allConnections, configuration.maxLifetime(), awaitingCount(), maxUsedCount() );
+    }
+
+    public List<AgroalPoolEvent> dumpFlightRecorder() {
+        return flightRecorder == null ? emptyList() : flightRecorder.dump();
+    }
+
     public List<AgroalPoolInterceptor> getPoolInterceptors() {
-        return unmodifiableList( interceptors );
+        return interceptors.interceptors();
     }
 
     public void setPoolInterceptors(Collection<? extends AgroalPoolInterceptor> list) {
         if ( list.stream().anyMatch( i -> i.getPriority() < 0 ) ) {
             throw new IllegalArgumentException( "Negative priority values on AgroalPoolInterceptor are reserved." );
         }
-        if ( list.isEmpty() && ( interceptors == null || interceptors.isEmpty() ) ) {
+        if ( list.isEmpty() && interceptors.isEmpty() ) {
             return;
         }
-        interceptors = list.stream().sorted( AgroalPoolInterceptor.DEFAULT_COMPARATOR ).collect( toList() );
-        interceptors.forEach( interceptor -> fireOnPoolInterceptor( listeners, interceptor ) );
+        interceptors = new InterceptorChain( list );
+        interceptors.interceptors().forEach( interceptor -> fireOnPoolInterceptor( listeners, interceptor ) );
     }
 
     // --- //
@@ -172,7 +216,7 @@ public final class Poolless implements Pool {
         long stamp = beforeAcquire();
         checkMultipleAcquisition();
 
-        ConnectionHandler checkedOutHandler = handlerFromSharedCache();
+        ConnectionHandler checkedOutHandler = handlerFromSharedCache( stamp );
         fireOnConnectionAcquiredInterceptor( interceptors, checkedOutHandler );
         afterAcquire( stamp, checkedOutHandler, false );
         return checkedOutHandler.xaConnectionWrapper();
@@ -186,6 +230,9 @@ public final class Poolless implements Pool {
             transactionIntegration.removeResourceRecoveryFactory( getResourceRecoveryFactory() );
         }
         shutdown = true;
+        if ( unreachableReaper != null ) {
+            unreachableReaper.close();
+        }
 
         for ( ConnectionHandler handler : allConnections ) {
             handler.setFlushOnly();
@@ -193,12 +240,16 @@ public final class Poolless implements Pool {
         }
         allConnections.clear();
         while ( handlerTransferQueue.tryTransfer( TRANSFER_POISON ) ) ; // Unblock waiting threads with CancellationException
+
+        if ( listenerDispatcher != null ) {
+            listenerDispatcher.close();
+        }
     }
 
     // --- //
 
     private long beforeAcquire() throws SQLException {
-        fireBeforeConnectionAcquire( listeners );
+        fireBeforeConnectionAcquire( eventListeners );
         if ( shutdown ) {
             throw new SQLException( "This pool is closed and does not handle any more connections!" );
         }
@@ -206,57 +257,68 @@ public final class Poolless implements Pool {
     }
 
     private void checkMultipleAcquisition() throws SQLException {
-        if ( configuration.multipleAcquisition() != LENIENT ) {
-            for ( ConnectionHandler handler : allConnections ) {
-                if ( handler.getHoldingThread() == currentThread() ) {
-                    switch ( configuration.multipleAcquisition() ) {
-                        case STRICT:
-                            throw new SQLException( "Acquisition of multiple connections by the same Thread." );
-                        case WARN:
-                            fireOnWarning( listeners, "Acquisition of multiple connections by the same Thread. This can lead to pool exhaustion and eventually a deadlock!" );
-                        case LENIENT:
-                        default:
-                            // no action
-                    }
-                    break;
-                }
+        if ( configuration.multipleAcquisition() != LENIENT && heldConnections.get().get() > 0 ) {
+            switch ( configuration.multipleAcquisition() ) {
+                case STRICT:
+                    throw new SQLException( "Acquisition of multiple connections by the same Thread." );
+                case WARN:
+                    fireOnWarning( eventListeners, "Acquisition of multiple connections by the same Thread. This can lead to pool exhaustion and eventually a deadlock!" );
+                case LENIENT:
+                default:
+                    // no action
             }
         }
     }
 
     @Override
     public Connection getConnection() throws SQLException {
-        return internalGetConnection( false );
+        return internalGetConnection( false, null );
     }
 
     @Override
     public Connection getReadOnlyConnection() throws SQLException {
-        return internalGetConnection( true );
+        return internalGetConnection( true, null );
     }
 
-    private Connection internalGetConnection(boolean readOnly) throws SQLException {
+    @Override
+    public Connection getConnection(AgroalConnectionLabels labels) throws SQLException {
+        return internalGetConnection( false, labels );
+    }
+
+    private Connection internalGetConnection(boolean readOnly, AgroalConnectionLabels labels) throws SQLException {
         long stamp = beforeAcquire();
 
         ConnectionHandler checkedOutHandler = handlerFromTransaction();
         if ( checkedOutHandler != null ) {
             // AG-140 - If associate throws here is fine, it's assumed the synchronization that returns the connection has been registered
             transactionIntegration.associate( checkedOutHandler, checkedOutHandler.getXaResource() );
+            checkedOutHandler.setAcquisitionPath( TRANSACTION );
             afterAcquire( stamp, checkedOutHandler, false );
             if ( readOnly && !checkedOutHandler.rawConnection().isReadOnly() ) {
                 throw new SQLException( "Attempted to modify read-only state while enlisted in transaction" );
             }
+            if ( labels != null ) {
+                if ( labels.getReadOnly() != null && labels.getReadOnly() != checkedOutHandler.rawConnection().isReadOnly() ) {
+                    throw new SQLException( "Attempted to modify read-only state while enlisted in transaction" );
+                }
+                checkedOutHandler.applyLabels( labels );
+            }
             return checkedOutHandler.connectionWrapper();
         }
         checkMultipleAcquisition();
 
         try {
-            checkedOutHandler = handlerFromSharedCache();
+            checkedOutHandler = handlerFromSharedCache( stamp );
+            if ( labels != null ) {
+                checkedOutHandler.applyLabels( labels );
+            }
             transactionIntegration.associate( checkedOutHandler, checkedOutHandler.getXaResource() );
             fireOnConnectionAcquiredInterceptor( interceptors, checkedOutHandler );
             afterAcquire( stamp, checkedOutHandler, true );
             if ( readOnly ) {
                 checkedOutHandler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.READ_ONLY );
                 checkedOutHandler.rawConnection().setReadOnly( true );
+                checkedOutHandler.setSessionAttribute( ConnectionHandler.DirtyAttribute.READ_ONLY, true );
             }
             return checkedOutHandler.connectionWrapper();
         } catch ( Throwable t ) {
@@ -272,16 +334,19 @@ public final class Poolless implements Pool {
         return (ConnectionHandler) transactionIntegration.getTransactionAware();
     }
 
-    private ConnectionHandler handlerFromSharedCache() throws SQLException {
+    private ConnectionHandler handlerFromSharedCache(long metricsStamp) throws SQLException {
         long remaining = configuration.acquisitionTimeout().toNanos();
         long deadline = remaining > 0 ? nanoTime() + remaining : Long.MAX_VALUE;
         int retries = configuration.establishmentRetryAttempts();
+        boolean retry = false;
         try {
             for ( ; ; ) {
                 // Try to get a "token" to create a new connection
                 if ( activeCount.incrementAndGet() <= configuration.maxSize() ) {
                     try {
-                        return createConnection();
+                        ConnectionHandler handler = createConnection();
+                        handler.setAcquisitionPath( retry ? RETRY : INLINE_CREATION );
+                        return handler;
                     } catch ( SQLException e ) {
                         activeCount.decrementAndGet();
                         long timeout = deadline - nanoTime();
@@ -289,14 +354,15 @@ public final class Poolless implements Pool {
                             throw e;
                         } else {
                             fireOnInfo( listeners, "Retrying establishment of connection after " + e.getClass().getName() );
-                            waitAvailableHandler( Long.min( configuration.establishmentRetryInterval().toNanos(), timeout - ONE_SECOND / 10 ), false );
+                            retry = true;
+                            waitAvailableHandler( Long.min( configuration.establishmentRetryInterval().toNanos(), timeout - ONE_SECOND / 10 ), false, metricsStamp );
                             continue;
                         }
                     }
                 } else {
                     activeCount.decrementAndGet();
                 }
-                waitAvailableHandler( deadline - nanoTime(), true ); // Wait for a connection to be returned
+                waitAvailableHandler( deadline - nanoTime(), true, metricsStamp ); // Wait for a connection to be returned
             }
         } catch ( InterruptedException e ) {
             currentThread().interrupt();
@@ -304,10 +370,11 @@ public final class Poolless implements Pool {
         }
     }
 
-    private void waitAvailableHandler(long timeout, boolean strict) throws InterruptedException, SQLException {
-        fireBeforePoolBlock( listeners, timeout );
+    private void waitAvailableHandler(long timeout, boolean strict, long metricsStamp) throws InterruptedException, SQLException {
+        fireBeforePoolBlock( eventListeners, timeout );
         ConnectionHandler handler = handlerTransferQueue.poll( timeout, NANOSECONDS );
         if ( strict && handler == null ) {
+            metricsRepository.afterAcquisitionTimeout( metricsStamp );
             throw new SQLException( "Sorry, acquisition timeout!" );
         } else if ( handler == TRANSFER_POISON ) {
             throw new CancellationException();
@@ -316,8 +383,9 @@ public final class Poolless implements Pool {
 
     @SuppressWarnings( "SingleCharacterStringConcatenation" )
     private void afterAcquire(long metricsStamp, ConnectionHandler checkedOutHandler, boolean verifyEnlistment) throws SQLException {
-        metricsRepository.afterConnectionAcquire( metricsStamp );
-        fireOnConnectionAcquired( listeners, checkedOutHandler );
+        metricsRepository.afterConnectionAcquire( metricsStamp, checkedOutHandler.getAcquisitionPath() );
+        checkedOutHandler.setAcquisitionTime( metricsRepository.beforeConnectionHold() );
+        fireOnConnectionAcquired( eventListeners, checkedOutHandler );
 
         if ( verifyEnlistment && !checkedOutHandler.isEnlisted() ) {
             switch ( configuration.transactionRequirement() ) {
@@ -325,22 +393,27 @@ public final class Poolless implements Pool {
                     returnConnectionHandler( checkedOutHandler );
                     throw new SQLException( "Connection acquired without transaction." );
                 case WARN:
-                    fireOnWarning( listeners, new SQLException( "Connection acquired without transaction." ) );
+                    fireOnWarning( eventListeners, new SQLException( "Connection acquired without transaction." ) );
                 case OFF: // do nothing
                 default:
             }
         }
-        if ( !configuration.leakTimeout().isZero() || configuration.multipleAcquisition() != LENIENT ) {
+        if ( !configuration.leakTimeout().isZero() || configuration.reclaimUnreachable() || configuration.multipleAcquisition() != LENIENT ) {
             if ( checkedOutHandler.getHoldingThread() != null && checkedOutHandler.getHoldingThread() != currentThread() ) {
                 Throwable warn = new Throwable( "Shared connection between threads '" + checkedOutHandler.getHoldingThread().getName() + "' and '" + currentThread().getName() + "'" );
                 warn.setStackTrace( checkedOutHandler.getHoldingThread().getStackTrace() );
-                fireOnWarning( listeners, warn );
+                fireOnWarning( eventListeners, warn );
             }
             checkedOutHandler.setHoldingThread( currentThread() );
+            if ( configuration.multipleAcquisition() != LENIENT ) {
+                checkedOutHandler.setHoldingThreadConnections( heldConnections.get() );
+            }
             checkedOutHandler.touch();
             if ( configuration.enhancedLeakReport() ) {
-                StackTraceElement[] stackTrace = currentThread().getStackTrace();
-                checkedOutHandler.setAcquisitionStackTrace( copyOfRange( stackTrace, 4, stackTrace.length ) );
+                checkedOutHandler.setTracingOperations( configuration.enhancedLeakReportSampling() <= 1 || current().nextInt( configuration.enhancedLeakReportSampling() ) == 0 );
+            }
+            if ( configuration.reclaimUnreachable() ) {
+                checkedOutHandler.setAcquisitionSite( true );
             }
         }
     }
@@ -348,18 +421,30 @@ public final class Poolless implements Pool {
     // --- //
 
     public void returnConnectionHandler(ConnectionHandler handler) throws SQLException {
-        fireBeforeConnectionReturn( listeners, handler );
+        fireBeforeConnectionReturn( eventListeners, handler );
         try {
             if ( !transactionIntegration.disassociate( handler ) ) {
                 return;
             }
         } catch ( Throwable ignored ) {
         }
+        metricsRepository.afterConnectionHold( handler.getAcquisitionTime() );
 
         fireOnConnectionReturnInterceptor( interceptors, handler );
         flushHandler( handler );
     }
 
+    @Override
+    public void reclaimConnectionHandler(ConnectionHandler handler) {
+        // there is no housekeeping thread, the leak is reported on the reaper thread of this pool
+        metricsRepository.afterLeakDetection();
+        fireOnConnectionLeak( listeners, handler );
+        if ( flightRecorder != null ) {
+            flightRecorder.onConnectionLeak( handler.rawConnection(), handler.getHoldingThread() );
+        }
+        handler.returnReclaimed();
+    }
+
     // --- Exposed statistics //
 
     @Override
@@ -371,18 +456,35 @@ public final class Poolless implements Pool {
         return metricsRepository;
     }
 
+    @Override
+    public MemoryBudget getResultSetMemory() {
+        return resultSetMemory;
+    }
+
+    @Override
+    public ConnectionStateCounters getStateCounters() {
+        return stateCounters;
+    }
+
+    @Override
+    public UnreachableReaper getUnreachableReaper() {
+        return unreachableReaper;
+    }
+
     public long activeCount() {
         return activeCount.get();
     }
 
     public long heldCount() {
-        int held = 0;
-        for ( ConnectionHandler handler : allConnections ) {
-            if ( handler.isHeldOverCommit() ) {
-                held++;
-            }
-        }
-        return held;
+        return stateCounters.heldCount();
+    }
+
+    public long validatingCount() {
+        return stateCounters.validatingCount();
+    }
+
+    public long flushingCount() {
+        return stateCounters.flushingCount();
     }
 
     public long availableCount() {
@@ -409,16 +511,16 @@ public final class Poolless implements Pool {
         if ( newConnection ) {
             activeCount.incrementAndGet();
         }
-        ConnectionHandler healthHandler = newConnection ? createConnection() : handlerFromSharedCache();
+        ConnectionHandler healthHandler = newConnection ? createConnection() : handlerFromSharedCache( metricsRepository.beforeConnectionAcquire() );
 
         try {
-            fireBeforeConnectionValidation( listeners, healthHandler );
+            fireBeforeConnectionValidation( eventListeners, healthHandler );
             if ( healthHandler.tryValidationFromActive() && healthHandler.isValid() && healthHandler.passValidationToActive() ) {
-                fireOnConnectionValid( listeners, healthHandler );
+                fireOnConnectionValid( eventListeners, healthHandler );
                 return true;
             } else {
                 metricsRepository.afterConnectionInvalid();
-                fireOnConnectionInvalid( listeners, healthHandler );
+                fireOnConnectionInvalid( eventListeners, healthHandler );
                 return false;
             }
         } finally {
@@ -429,15 +531,16 @@ public final class Poolless implements Pool {
     // --- create //
 
     private ConnectionHandler createConnection() throws SQLException {
-        fireBeforeConnectionCreation( listeners );
+        fireBeforeConnectionCreation( eventListeners );
         long metricsStamp = metricsRepository.beforeConnectionCreation();
 
         try {
             XAConnection xaConnection = connectionFactory.createConnection();
             ConnectionHandler handler = new ConnectionHandler( xaConnection, this, connectionFactory.defaultJdbcIsolationLevel(), connectionFactory.defaultHoldability() );
             metricsRepository.afterConnectionCreation( metricsStamp );
+            handler.prepareInitialStatements();
 
-            fireOnConnectionCreation( listeners, handler );
+            fireOnConnectionCreation( eventListeners, handler );
             fireOnConnectionCreateInterceptor( interceptors, handler );
 
             handler.markAvailable();
@@ -445,11 +548,11 @@ public final class Poolless implements Pool {
             allConnections.add( handler );
 
             maxUsed.accumulate( allConnections.size() );
-            fireOnConnectionPooled( listeners, handler );
+            fireOnConnectionPooled( eventListeners, handler );
 
             return handler;
         } catch ( SQLException e ) {
-            fireOnConnectionCreationFailure( listeners, e );
+            fireOnConnectionCreationFailure( eventListeners, e );
             throw e;
         }
     }
@@ -459,13 +562,13 @@ public final class Poolless implements Pool {
     public void flushPool(AgroalDataSource.FlushMode mode) {
         if ( mode == ALL ) {
             for ( ConnectionHandler handler : allConnections ) {
-                fireBeforeConnectionFlush( listeners, handler );
+                fireBeforeConnectionFlush( eventListeners, handler );
                 flushHandler( handler );
             }
         } else if ( mode == LEAK ) {
             for ( ConnectionHandler handler : allConnections ) {
                 if ( handler.isLeak( configuration.leakTimeout() ) ) {
-                    fireBeforeConnectionFlush( listeners, handler );
+                    fireBeforeConnectionFlush( eventListeners, handler );
                     flushHandler( handler );
                 }
             }
@@ -478,21 +581,21 @@ public final class Poolless implements Pool {
         activeCount.decrementAndGet();
         handlerTransferQueue.tryTransfer( handler );
         metricsRepository.afterConnectionFlush();
-        fireOnConnectionFlush( listeners, handler );
+        fireOnConnectionFlush( eventListeners, handler );
         destroyConnection( handler );
     }
 
     // --- destroy //
 
     private void destroyConnection(ConnectionHandler handler) {
-        fireBeforeConnectionDestroy( listeners, handler );
+        fireBeforeConnectionDestroy( eventListeners, handler );
         try {
             fireOnConnectionDestroyInterceptor( interceptors, handler );
             handler.closeConnection();
         } catch ( SQLException e ) {
-            fireOnWarning( listeners, e );
+            fireOnWarning( eventListeners, e );
         }
         metricsRepository.afterConnectionDestroy();
-        fireOnConnectionDestroy( listeners, handler );
+        fireOnConnectionDestroy( eventListeners, handler );
     }
 }
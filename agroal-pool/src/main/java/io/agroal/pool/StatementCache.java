@@ -0,0 +1,296 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * LRU cache of physical prepared and callable statements of a connection.
+ * A statement is removed from the cache while in use, and put back when the application closes it. Only one statement is kept for each key.
+ * <p>
+ * JDBC does not provide a way to reset the registration of out parameters of a callable statement, so callable statements where out parameters were registered are closed instead of put back in the cache.
+ * The statements in the cache never have out parameters registered.
+ * <p>
+ * The settings of a statement are captured when it's prepared, and restored when it's put back in the cache. Escape processing can't be read back, so statements are not cached if it's changed.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class StatementCache {
+
+    private final int maxSize;
+    private final Pool connectionPool;
+
+    // insertion order is the order statements were returned, so the eldest entry is the least recently used
+    private final Map<Key, Entry> statements = new LinkedHashMap<>();
+
+    private boolean closed;
+
+    StatementCache(int maxSize, Pool pool) {
+        this.maxSize = maxSize;
+        connectionPool = pool;
+    }
+
+    /**
+     * Returns a cached statement for the key, or prepares a new one if there is none.
+     */
+    public Entry prepare(Key key, Connection connection) throws SQLException {
+        Entry entry;
+        synchronized ( this ) {
+            entry = statements.remove( key );
+        }
+        if ( entry != null ) {
+            connectionPool.getMetrics().afterStatementCacheHit();
+            return entry;
+        }
+        connectionPool.getMetrics().afterStatementCacheMiss();
+        return new Entry( key.prepare( connection ) );
+    }
+
+    /**
+     * Puts a statement no longer in use back in the cache, evicting the least recently used if the cache is full.
+     * Statements that can't be reused are closed instead.
+     */
+    public void release(Key key, Entry entry) throws SQLException {
+        PreparedStatement statement = entry.statement;
+        if ( statement.isClosed() || statement.isCloseOnCompletion() ) {
+            statement.close();
+            return;
+        }
+        try {
+            entry.reset();
+        } catch ( SQLException e ) {
+            statement.close();
+            throw e;
+        }
+
+        PreparedStatement evicted = null;
+        synchronized ( this ) {
+            if ( closed || statements.containsKey( key ) ) {
+                evicted = statement;
+            } else {
+                statements.put( key, entry );
+                if ( statements.size() > maxSize ) {
+                    Iterator<Entry> eldest = statements.values().iterator();
+                    evicted = eldest.next().statement;
+                    eldest.remove();
+                    connectionPool.getMetrics().afterStatementCacheEviction();
+                }
+            }
+        }
+        if ( evicted != null ) {
+            evicted.close();
+        }
+    }
+
+    /**
+     * Prepares a statement and puts it in the cache, ahead of it's first use.
+     */
+    void prime(String sql, Connection connection, boolean defaultHold) throws SQLException {
+        Key key = Key.of( sql, defaultHold );
+        release( key, new Entry( key.prepare( connection ) ) );
+    }
+
+    /**
+     * Closes all cached statements. Statements released after this are closed.
+     */
+    public void close() {
+        List<Entry> cached;
+        synchronized ( this ) {
+            closed = true;
+            cached = new ArrayList<>( statements.values() );
+            statements.clear();
+        }
+        for ( Entry entry : cached ) {
+            try {
+                entry.statement.close();
+            } catch ( SQLException e ) {
+                // ignore and proceed
+            }
+        }
+    }
+
+    // --- //
+
+    /**
+     * A statement together with it's settings when prepared.
+     */
+    public static final class Entry {
+
+        private final PreparedStatement statement;
+
+        private final int maxRows;
+        private final int maxFieldSize;
+        private final int queryTimeout;
+        private final int fetchSize;
+        private final int fetchDirection;
+        private final boolean poolable;
+
+        Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            maxRows = statement.getMaxRows();
+            maxFieldSize = statement.getMaxFieldSize();
+            queryTimeout = statement.getQueryTimeout();
+            fetchSize = statement.getFetchSize();
+            fetchDirection = statement.getFetchDirection();
+            poolable = statement.isPoolable();
+        }
+
+        public PreparedStatement statement() {
+            return statement;
+        }
+
+        /**
+         * Clears the state left by the last use and restores the settings the statement had when prepared.
+         */
+        @SuppressWarnings( "MagicConstant" )
+        private void reset() throws SQLException {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            if ( statement.getMaxRows() != maxRows ) {
+                statement.setMaxRows( maxRows );
+            }
+            if ( statement.getMaxFieldSize() != maxFieldSize ) {
+                statement.setMaxFieldSize( maxFieldSize );
+            }
+            if ( statement.getQueryTimeout() != queryTimeout ) {
+                statement.setQueryTimeout( queryTimeout );
+            }
+            if ( statement.getFetchSize() != fetchSize ) {
+                statement.setFetchSize( fetchSize );
+            }
+            if ( statement.getFetchDirection() != fetchDirection ) {
+                statement.setFetchDirection( fetchDirection );
+            }
+            if ( statement.isPoolable() != poolable ) {
+                statement.setPoolable( poolable );
+            }
+        }
+    }
+
+    // --- //
+
+    /**
+     * Identifies a prepared statement by it's SQL and all the arguments that affect it's behaviour.
+     */
+    public static final class Key {
+
+        private static final int UNSPECIFIED = Integer.MIN_VALUE;
+
+        private final boolean callable;
+        private final String sql;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+        private final int resultSetHoldability;
+        private final int autoGeneratedKeys;
+        private final int[] columnIndexes;
+        private final String[] columnNames;
+
+        // holdability of the connection when the statement is prepared without specifying it
+        private final boolean defaultHold;
+
+        private final int hash;
+
+        @SuppressWarnings( "ConstructorWithTooManyParameters" )
+        private Key(boolean callable, String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability, int autoGeneratedKeys, int[] columnIndexes, String[] columnNames, boolean defaultHold) {
+            this.callable = callable;
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            this.resultSetHoldability = resultSetHoldability;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.columnIndexes = columnIndexes == null ? null : columnIndexes.clone();
+            this.columnNames = columnNames == null ? null : columnNames.clone();
+            this.defaultHold = resultSetHoldability == UNSPECIFIED && defaultHold;
+            hash = 31 * Objects.hash( callable, sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys, this.defaultHold ) + 31 * Arrays.hashCode( columnIndexes ) + Arrays.hashCode( columnNames );
+        }
+
+        public static Key of(String sql, boolean defaultHold) {
+            return new Key( false, sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, null, null, defaultHold );
+        }
+
+        public static Key of(String sql, int resultSetType, int resultSetConcurrency, boolean defaultHold) {
+            return new Key( false, sql, resultSetType, resultSetConcurrency, UNSPECIFIED, UNSPECIFIED, null, null, defaultHold );
+        }
+
+        public static Key of(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
+            return new Key( false, sql, resultSetType, resultSetConcurrency, resultSetHoldability, UNSPECIFIED, null, null, false );
+        }
+
+        public static Key call(String sql, boolean defaultHold) {
+            return new Key( true, sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, null, null, defaultHold );
+        }
+
+        public static Key call(String sql, int resultSetType, int resultSetConcurrency, boolean defaultHold) {
+            return new Key( true, sql, resultSetType, resultSetConcurrency, UNSPECIFIED, UNSPECIFIED, null, null, defaultHold );
+        }
+
+        public static Key call(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
+            return new Key( true, sql, resultSetType, resultSetConcurrency, resultSetHoldability, UNSPECIFIED, null, null, false );
+        }
+
+        public static Key withGeneratedKeys(String sql, int autoGeneratedKeys, boolean defaultHold) {
+            return new Key( false, sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, autoGeneratedKeys, null, null, defaultHold );
+        }
+
+        public static Key withGeneratedKeys(String sql, int[] columnIndexes, boolean defaultHold) {
+            return new Key( false, sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, columnIndexes, null, defaultHold );
+        }
+
+        public static Key withGeneratedKeys(String sql, String[] columnNames, boolean defaultHold) {
+            return new Key( false, sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, null, columnNames, defaultHold );
+        }
+
+        @SuppressWarnings( "MagicConstant" )
+        PreparedStatement prepare(Connection connection) throws SQLException {
+            if ( callable ) {
+                if ( resultSetHoldability != UNSPECIFIED ) {
+                    return connection.prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+                } else if ( resultSetType != UNSPECIFIED ) {
+                    return connection.prepareCall( sql, resultSetType, resultSetConcurrency );
+                }
+                return connection.prepareCall( sql );
+            } else if ( columnIndexes != null ) {
+                return connection.prepareStatement( sql, columnIndexes );
+            } else if ( columnNames != null ) {
+                return connection.prepareStatement( sql, columnNames );
+            } else if ( autoGeneratedKeys != UNSPECIFIED ) {
+                return connection.prepareStatement( sql, autoGeneratedKeys );
+            } else if ( resultSetHoldability != UNSPECIFIED ) {
+                return connection.prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+            } else if ( resultSetType != UNSPECIFIED ) {
+                return connection.prepareStatement( sql, resultSetType, resultSetConcurrency );
+            }
+            return connection.prepareStatement( sql );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof Key ) ) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && callable == other.callable && resultSetType == other.resultSetType && resultSetConcurrency == other.resultSetConcurrency && resultSetHoldability == other.resultSetHoldability
+                    && autoGeneratedKeys == other.autoGeneratedKeys && defaultHold == other.defaultHold && sql.equals( other.sql )
+                    && Arrays.equals( columnIndexes, other.columnIndexes ) && Arrays.equals( columnNames, other.columnNames );
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
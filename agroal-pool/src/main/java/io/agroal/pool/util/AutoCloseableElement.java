@@ -5,27 +5,34 @@ package io.agroal.pool.util;
 
 import io.agroal.pool.wrapper.ConnectionWrapper;
 
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.ArrayList;
+import java.util.List;
 
-import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
+import static java.util.Collections.emptyList;
 
 /**
  * Abstract class to track auto-closeable resources by having them forming a collection between themselves.
  * This class is designed to prevent leaks of Agroal JDBC wrapper objects.
- * Once a new wrapper is created it tries to insert itself between the head and the first element of the list (if it exists).
- * There is the invariant that at any given point in time the list can be traversed from the head and all inserted elements are reachable.
- * As an implementation detail, the collection formed is actually a stack (FILO behaviour) and is thread-safe.
+ * Any element can be the head of a collection of other elements, like a connection for its statements, so that no extra object is required to track them.
+ * Once a new wrapper is created it inserts itself as the first element of the collection of the head.
+ * As an implementation detail, the collection formed is a doubly-linked list (FILO behaviour) guarded by the lock of the head, so that elements can be removed in constant time.
+ * The lock is not held while elements are closed.
  * <p>
- * The resources do not remove themselves on close, rather there is a {@link #pruneClosed()} method that must be called to remove subsequent closed elements.
+ * The resources must remove themselves on close, by calling {@link #unregister()}.
  *
  * @author <a href="lbarreiro@redhat.com">Luis Barreiro</a>
  */
 public abstract class AutoCloseableElement<T extends AutoCloseableElement<T>> implements AutoCloseable {
 
-    @SuppressWarnings( "rawtypes" )
-    private static final AtomicReferenceFieldUpdater<AutoCloseableElement, AutoCloseableElement> NEXT_UPDATER = newUpdater( AutoCloseableElement.class, AutoCloseableElement.class, "nextElement" );
+    // the element this one is tracked by. null for elements that are not tracked
+    private final AutoCloseableElement<?> head;
 
-    private volatile AutoCloseableElement<T> nextElement;
+    // all guarded by the lock on the head
+    private AutoCloseableElement<?> previousElement;
+    private AutoCloseableElement<?> nextElement;
+
+    // first of the elements tracked by this one. guarded by the lock on this element
+    private AutoCloseableElement<?> firstElement;
 
     public boolean isHeld() {
         return true;
@@ -39,72 +46,129 @@ public abstract class AutoCloseableElement<T extends AutoCloseableElement<T>> im
     }
 
     @SuppressWarnings( "ThisEscapedInObjectConstruction" )
-    protected AutoCloseableElement(AutoCloseableElement<T> head) {
+    protected AutoCloseableElement(AutoCloseableElement<?> head) {
+        this.head = head;
         if ( head != null ) {
-            // point to the first element of the list and attempt to have the head to point at us
-            do {
-                nextElement = head.getNextElement();
-            } while ( !head.setNextElement( nextElement, this ) );
+            synchronized ( head ) {
+                nextElement = head.firstElement;
+                if ( nextElement != null ) {
+                    nextElement.previousElement = this;
+                }
+                head.firstElement = this;
+            }
         }
     }
 
     /**
      * Returns the number of resources that were not properly closed. The resources are closed in the process and the collection is cleared.
-     * This method should be invoked on the collection head only, otherwise it may not traverse the whole collection.
      */
     public int closeAllAutocloseableElements() {
-        // To be called on the head of the list
-        throw new IllegalStateException();
+        int count = 0;
+        for ( AutoCloseableElement<?> element : unlinkAll() ) {
+            try {
+                if ( !element.internalClosed() ) {
+                    element.beforeClose();
+                    element.close();
+                    count++;
+                }
+            } catch ( Exception e ) {
+                // ignore
+            }
+        }
+        return count;
     }
 
     /**
      * Returns the number of resources that were not held and are not properly closed.
      * After run the resources that are not held are closed and remove from the list.
-     * This method should be invoked on the collection head only, otherwise it may not traverse the whole collection.
      */
     public int closeNotHeldAutocloseableElements() {
-        // To be called on the head of the list
-        throw new IllegalStateException();
-    }
+        int count = 0;
+        for ( AutoCloseableElement<?> element : elements() ) {
+            try {
+                boolean holdElement = element.isHeld() && !element.internalClosed();
+                if ( !holdElement && element instanceof ConnectionWrapper connectionWrapper ) {
+                    connectionWrapper.closeNotHeldTrackedStatements();
+                    holdElement = connectionWrapper.hasTrackedStatements();
+                }
 
-    /**
-     * Check if the list of elements is empty
-     */
-    public boolean isElementListEmpty() {
-        // To be called on the head of the list
-        throw new IllegalStateException();
+                if ( !holdElement ) {
+                    element.unregister();
+                    if ( !element.internalClosed() ) {
+                        element.beforeClose();
+                        element.close();
+                        count++;
+                    }
+                }
+            } catch ( Exception e ) {
+                // ignore
+            }
+        }
+        return count;
     }
 
-    // --- convenience protected methods to access the field updater //
-
-    protected boolean setNextElement(AutoCloseableElement<T> expected, AutoCloseableElement<T> element) {
-        return NEXT_UPDATER.compareAndSet( this, expected, element );
+    // elements are closed without holding the lock, as closing them may require other locks
+    private synchronized List<AutoCloseableElement<?>> unlinkAll() {
+        if ( firstElement == null ) {
+            return emptyList();
+        }
+        List<AutoCloseableElement<?>> elements = new ArrayList<>();
+        for ( AutoCloseableElement<?> element = firstElement; element != null; element = firstElement ) {
+            element.unlink();
+            elements.add( element );
+        }
+        return elements;
     }
 
-    @SuppressWarnings( "unchecked" )
-    protected AutoCloseableElement<T> getNextElement() {
-        return NEXT_UPDATER.get( this );
+    private synchronized List<AutoCloseableElement<?>> elements() {
+        if ( firstElement == null ) {
+            return emptyList();
+        }
+        List<AutoCloseableElement<?>> elements = new ArrayList<>();
+        for ( AutoCloseableElement<?> element = firstElement; element != null; element = element.nextElement ) {
+            elements.add( element );
+        }
+        return elements;
     }
 
-    @SuppressWarnings( "unchecked" )
-    protected AutoCloseableElement<T> resetNextElement() {
-        return NEXT_UPDATER.getAndSet( this, null );
+    /**
+     * Check if the list of elements is empty
+     */
+    public synchronized boolean isElementListEmpty() {
+        return firstElement == null;
     }
 
     /**
-     * Check for runs of closed elements after the current position and remove them from the linked list
+     * Removes this element from the collection it was inserted into, if any. Subsequent calls have no effect.
      */
-    public void pruneClosed() {
-        AutoCloseableElement<T> next = nextElement;
-        while ( next != null && next.internalClosed() && setNextElement( next, next.nextElement ) ) {
-            next = nextElement;
+    protected void unregister() {
+        if ( head != null ) {
+            synchronized ( head ) {
+                unlink();
+            }
+        }
+    }
+
+    // must be called while holding the lock on the head
+    private void unlink() {
+        if ( previousElement != null ) {
+            previousElement.nextElement = nextElement;
+        } else if ( head.firstElement == this ) {
+            head.firstElement = nextElement;
+        } else {
+            return; // not in the collection
         }
+        if ( nextElement != null ) {
+            nextElement.previousElement = previousElement;
+        }
+        previousElement = null;
+        nextElement = null;
     }
 
     // --- head of the list //
 
     /**
-     * Create a special marker element to be used as head of a collection.
+     * Create a special marker element to be used as head of a collection, when there is no other element to use as such.
      */
     public static <T extends AutoCloseableElement<T>> AutoCloseableElement<T> newHead() {
         return new AutoCloseableElementHead<>();
@@ -116,11 +180,6 @@ public abstract class AutoCloseableElement<T extends AutoCloseableElement<T>> im
             super( null );
         }
 
-        @Override
-        public boolean isElementListEmpty() {
-            return getNextElement() == null;
-        }
-
         @Override
         public boolean isHeld() {
             throw new IllegalStateException();
@@ -140,49 +199,5 @@ public abstract class AutoCloseableElement<T extends AutoCloseableElement<T>> im
         protected boolean internalClosed() {
             return false;
         }
-
-        public int closeAllAutocloseableElements() {
-            int count = 0;
-            // if under contention, the call that succeeds to reset the head is the one and only that will traverse the whole collection
-            for ( AutoCloseableElement<T> next = resetNextElement(); next != null; next = next.resetNextElement() ) {
-                try {
-                    if ( !next.internalClosed() ) {
-                        next.beforeClose();
-                        next.close();
-                        count++;
-                    }
-                } catch ( Exception e ) {
-                    // ignore
-                }
-            }
-            return count;
-        }
-
-        public int closeNotHeldAutocloseableElements() {
-            int count = 0;
-            for ( AutoCloseableElement<T> current = this; current != null && current.nextElement != null; ) {
-                AutoCloseableElement<T> next = current.nextElement;
-                try {
-                    boolean holdElement = next.isHeld() && !next.internalClosed();
-                    if ( !holdElement && next instanceof ConnectionWrapper connectionWrapper ) {
-                        connectionWrapper.closeNotHeldTrackedStatements();
-                        holdElement = connectionWrapper.hasTrackedStatements();
-                    }
-
-                    if ( !holdElement && current.setNextElement( next, next.nextElement ) ) {
-                        if ( !next.internalClosed() ) {
-                            next.beforeClose();
-                            next.close();
-                            count++;
-                        }
-                    } else {
-                        current = current.nextElement;
-                    }
-                } catch ( Exception e ) {
-                    // ignore
-                }
-            }
-            return count;
-        }
     }
 }
@@ -0,0 +1,80 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool.util;
+
+import io.agroal.api.AgroalPoolInterceptor;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Immutable set of interceptors, sorted by priority, with one array for each of the callbacks.
+ * Each array holds only the interceptors that override that callback, in the order they are invoked: create and acquire in priority order, return and destroy in reverse.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class InterceptorChain {
+
+    private static final AgroalPoolInterceptor[] NONE = new AgroalPoolInterceptor[0];
+
+    public static final InterceptorChain EMPTY = new InterceptorChain();
+
+    private final List<AgroalPoolInterceptor> interceptors;
+
+    final AgroalPoolInterceptor[] create;
+    final AgroalPoolInterceptor[] acquire;
+    final AgroalPoolInterceptor[] release;
+    final AgroalPoolInterceptor[] destroy;
+
+    private InterceptorChain() {
+        interceptors = emptyList();
+        create = acquire = release = destroy = NONE;
+    }
+
+    public InterceptorChain(Collection<? extends AgroalPoolInterceptor> collection) {
+        List<AgroalPoolInterceptor> sorted = new ArrayList<>( collection );
+        sorted.sort( AgroalPoolInterceptor.DEFAULT_COMPARATOR );
+        interceptors = unmodifiableList( sorted );
+
+        create = chain( sorted, "onConnectionCreate", false );
+        acquire = chain( sorted, "onConnectionAcquire", false );
+        release = chain( sorted, "onConnectionReturn", true );
+        destroy = chain( sorted, "onConnectionDestroy", true );
+    }
+
+    private static AgroalPoolInterceptor[] chain(List<AgroalPoolInterceptor> sorted, String callback, boolean reverse) {
+        List<AgroalPoolInterceptor> chain = new ArrayList<>( sorted.size() );
+        for ( AgroalPoolInterceptor interceptor : sorted ) {
+            if ( overrides( interceptor, callback ) ) {
+                chain.add( reverse ? 0 : chain.size(), interceptor );
+            }
+        }
+        return chain.isEmpty() ? NONE : chain.toArray( NONE );
+    }
+
+    @SuppressWarnings( "ErrorNotRethrown" )
+    private static boolean overrides(AgroalPoolInterceptor interceptor, String callback) {
+        try {
+            return interceptor.getClass().getMethod( callback, Connection.class ).getDeclaringClass() != AgroalPoolInterceptor.class;
+        } catch ( NoSuchMethodException | SecurityException | LinkageError e ) {
+            return true; // when in doubt, invoke it
+        }
+    }
+
+    /**
+     * Interceptors sorted by priority.
+     */
+    public List<AgroalPoolInterceptor> interceptors() {
+        return interceptors;
+    }
+
+    public boolean isEmpty() {
+        return interceptors.isEmpty();
+    }
+}
@@ -8,53 +8,44 @@ import io.agroal.pool.ConnectionHandler;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.List;
 
 /**
  * @author <a href="lbarreiro@redhat.com">Luis Barreiro</a>
  */
-@SuppressWarnings( {"UtilityClass", "ObjectAllocationInLoop"} )
+@SuppressWarnings( "UtilityClass" )
 public final class InterceptorHelper {
 
     private InterceptorHelper() {
     }
 
-    public static void fireOnConnectionCreateInterceptor(List<? extends AgroalPoolInterceptor> interceptors, ConnectionHandler handler) throws SQLException {
-        if ( interceptors != null && !interceptors.isEmpty() ) {
-            for ( AgroalPoolInterceptor interceptor : interceptors ) {
-                try ( Connection connection = handler.detachedWrapper() ) {
-                    interceptor.onConnectionCreate( connection );
-                }
+    public static void fireOnConnectionCreateInterceptor(InterceptorChain interceptors, ConnectionHandler handler) throws SQLException {
+        for ( AgroalPoolInterceptor interceptor : interceptors.create ) {
+            try ( Connection connection = handler.interceptorWrapper() ) {
+                interceptor.onConnectionCreate( connection );
             }
         }
     }
 
-    public static void fireOnConnectionAcquiredInterceptor(List<? extends AgroalPoolInterceptor> interceptors, ConnectionHandler handler) throws SQLException {
-        if ( interceptors != null && !interceptors.isEmpty() ) {
-            for ( AgroalPoolInterceptor interceptor : interceptors ) {
-                try ( Connection connection = handler.detachedWrapper() ) {
-                    interceptor.onConnectionAcquire( connection );
-                }
+    public static void fireOnConnectionAcquiredInterceptor(InterceptorChain interceptors, ConnectionHandler handler) throws SQLException {
+        for ( AgroalPoolInterceptor interceptor : interceptors.acquire ) {
+            try ( Connection connection = handler.interceptorWrapper() ) {
+                interceptor.onConnectionAcquire( connection );
             }
         }
     }
 
-    public static void fireOnConnectionReturnInterceptor(List<? extends AgroalPoolInterceptor> interceptors, ConnectionHandler handler) throws SQLException {
-        if ( interceptors != null && !interceptors.isEmpty() ) {
-            for ( int i = interceptors.size(); i > 0; ) {
-                try ( Connection connection = handler.detachedWrapper() ) {
-                    interceptors.get( --i ).onConnectionReturn( connection );
-                }
+    public static void fireOnConnectionReturnInterceptor(InterceptorChain interceptors, ConnectionHandler handler) throws SQLException {
+        for ( AgroalPoolInterceptor interceptor : interceptors.release ) {
+            try ( Connection connection = handler.interceptorWrapper() ) {
+                interceptor.onConnectionReturn( connection );
             }
         }
     }
 
-    public static void fireOnConnectionDestroyInterceptor(List<? extends AgroalPoolInterceptor> interceptors, ConnectionHandler handler) throws SQLException {
-        if ( interceptors != null && !interceptors.isEmpty() ) {
-            for ( int i = interceptors.size(); i > 0; ) {
-                try ( Connection connection = handler.detachedWrapper() ) {
-                    interceptors.get( --i ).onConnectionDestroy( connection );
-                }
+    public static void fireOnConnectionDestroyInterceptor(InterceptorChain interceptors, ConnectionHandler handler) throws SQLException {
+        for ( AgroalPoolInterceptor interceptor : interceptors.destroy ) {
+            try ( Connection connection = handler.interceptorWrapper() ) {
+                interceptor.onConnectionDestroy( connection );
             }
         }
     }
@@ -86,6 +86,8 @@ public final class ListenerHelper {
                     listener.onInfo( "Leaked connection " + connection + " is not enlisted. To return it to the pool use the flush(LEAK) operation." );
                 }
                 listener.onInfo( "Leaked connection " + connection + " acquired at: " + Arrays.toString( handler.getAcquisitionStackTrace() ) );
+            } else if ( handler.getAcquisitionSite() != null ) {
+                listener.onInfo( "Leaked connection " + connection + " acquired at: " + handler.getAcquisitionSite() );
             }
             if ( handler.getConnectionOperations() != null ) {
                 listener.onInfo( "Operations executed on leaked connection " + connection + ": " + String.join( ", ", handler.getConnectionOperations() ) );
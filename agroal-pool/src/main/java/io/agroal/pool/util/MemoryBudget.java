@@ -0,0 +1,50 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Amount of memory shared by many users, that reserve it before use and release it after.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class MemoryBudget {
+
+    private final long max;
+    private final AtomicLong used = new AtomicLong();
+
+    /**
+     * @param max Maximum amount of memory that can be reserved at any given time. Zero means there is no limit.
+     */
+    public MemoryBudget(long max) {
+        this.max = max;
+    }
+
+    /**
+     * Reserves some amount of memory.
+     *
+     * @return false if the reservation would exceed the maximum, in which case nothing is reserved.
+     */
+    public boolean tryReserve(long bytes) {
+        if ( max == 0 ) {
+            used.addAndGet( bytes );
+            return true;
+        }
+        for ( long current = used.get(); current + bytes <= max; current = used.get() ) {
+            if ( used.compareAndSet( current, current + bytes ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void release(long bytes) {
+        used.addAndGet( -bytes );
+    }
+
+    public long used() {
+        return used.get();
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool.util;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs actions on a dedicated thread once the objects they are registered for become unreachable.
+ * Unlike {@link java.lang.ref.Cleaner} it can be closed, so that each pool has it's own thread that does not outlive it.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class UnreachableReaper implements Runnable {
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    // registrations must be kept reachable for the references to be enqueued
+    private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+
+    private final Thread reaper;
+    private volatile boolean closed;
+
+    public UnreachableReaper(String threadName) {
+        reaper = new Thread( this, threadName );
+        reaper.setDaemon( true );
+    }
+
+    public void start() {
+        reaper.start();
+    }
+
+    /**
+     * Stops the reaper thread. Actions of objects that become unreachable afterwards are not run.
+     */
+    public void close() {
+        closed = true;
+        registrations.clear();
+        reaper.interrupt();
+    }
+
+    /**
+     * Registers an action to run when the referent becomes unreachable. The action must not reference the referent.
+     */
+    public Registration register(Object referent, Runnable action) {
+        Registration registration = new Registration( referent, action );
+        if ( !closed ) {
+            registrations.add( registration );
+        }
+        return registration;
+    }
+
+    @Override
+    public void run() {
+        while ( !closed ) {
+            try {
+                ( (Registration) queue.remove() ).run();
+            } catch ( InterruptedException e ) {
+                // closed
+            } catch ( VirtualMachineError e ) {
+                throw e;
+            } catch ( Throwable t ) {
+                // the action is responsible for reporting it's own failures
+            }
+        }
+    }
+
+    // --- //
+
+    public final class Registration extends PhantomReference<Object> {
+
+        private final Runnable action;
+
+        private Registration(Object referent, Runnable action) {
+            super( referent, queue );
+            this.action = action;
+        }
+
+        /**
+         * Prevents the action from running, when the referent is no longer in use.
+         */
+        public void cancel() {
+            if ( registrations.remove( this ) ) {
+                clear();
+            }
+        }
+
+        private void run() {
+            if ( registrations.remove( this ) ) {
+                action.run();
+            }
+        }
+    }
+}
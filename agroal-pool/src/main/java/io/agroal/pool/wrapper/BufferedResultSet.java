@@ -0,0 +1,1936 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool.wrapper;
+
+import io.agroal.pool.util.MemoryBudget;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.Cleaner;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+
+/**
+ * Read-only, forward-only {@link ResultSet} with the rows read into memory, to be used after the connection is closed.
+ * Values are kept in one array per column, of primitive type for numeric and boolean columns.
+ * <p>
+ * If not all rows fit in the buffer, the rows that did not fit are read from the database result set (the remainder) once the buffered rows are consumed.
+ * The memory taken by the buffered rows is reserved from the budget of the pool, and released when this result set is closed or the remainder is reached.
+ * Result sets that are never closed release their reservation once they become unreachable.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class BufferedResultSet implements ResultSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // rough estimates of the memory taken by values stored in the buffer
+    private static final long PRIMITIVE_SIZE = Long.BYTES;
+    private static final long REFERENCE_SIZE = 8;
+    private static final long OBJECT_SIZE = 32;
+    private static final long ARRAY_HEADER_SIZE = 16;
+    private static final long STRING_SIZE = 40;
+
+    private static final LocalDate EPOCH = LocalDate.of( 1970, 1, 1 );
+
+    // single thread for all pools, releases the memory of result sets that were not closed
+    private static final Cleaner CLEANER = Cleaner.create( r -> {
+        Thread thread = new Thread( r, "agroal-result-set-cleaner" );
+        thread.setDaemon( true );
+        return thread;
+    } );
+
+    private final Statement statement;
+    private final Reservation reservation;
+    private final Cleaner.Cleanable cleanable;
+    private final Column[] columns;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+    private int rowCount;
+    private int cursor = -1;
+
+    private SQLWarning warnings;
+    private int fetchSize;
+    private boolean wasNull;
+    private boolean closed;
+
+    // rows that did not fit in the buffer. null if all rows were buffered
+    private ResultSet remainder;
+    private boolean onRemainder;
+
+    public BufferedResultSet(Statement statement, ResultSet resultSet, MemoryBudget budget) throws SQLException {
+        this.statement = statement;
+        reservation = new Reservation( budget );
+        cleanable = CLEANER.register( this, reservation );
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        columns = new Column[metaData.getColumnCount()];
+        for ( int i = 0; i < columns.length; i++ ) {
+            columns[i] = new Column( metaData, i + 1 );
+            columnIndexes.putIfAbsent( columns[i].label.toLowerCase( Locale.ROOT ), i + 1 );
+        }
+    }
+
+    /**
+     * If the rows of a result set can be kept in a buffer. It must be forward-only and read-only, and have no columns of LOB, array or structured types.
+     */
+    public static boolean canBuffer(ResultSet resultSet) throws SQLException {
+        if ( resultSet.getType() != TYPE_FORWARD_ONLY || resultSet.getConcurrency() != CONCUR_READ_ONLY ) {
+            return false;
+        }
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        if ( metaData == null ) {
+            return false;
+        }
+        for ( int i = 1; i <= metaData.getColumnCount(); i++ ) {
+            switch ( metaData.getColumnType( i ) ) {
+                case Types.BLOB:
+                case Types.CLOB:
+                case Types.NCLOB:
+                case Types.ARRAY:
+                case Types.STRUCT:
+                case Types.REF:
+                case Types.REF_CURSOR:
+                case Types.SQLXML:
+                case Types.DATALINK:
+                case Types.ROWID:
+                    return false;
+                default:
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads rows of a result set into the buffer, until there are no more rows, the maximum number of rows is reached or the memory budget is exhausted.
+     *
+     * @return true if all rows were read. Otherwise the result set is left positioned on the first row that was not buffered, and should be set as the remainder.
+     */
+    public boolean fill(ResultSet resultSet, int maxRows) throws SQLException {
+        warnings = resultSet.getWarnings();
+        while ( resultSet.next() ) {
+            if ( rowCount == maxRows || !bufferRow( resultSet ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean bufferRow(ResultSet resultSet) throws SQLException {
+        long rowBytes = 0;
+        for ( int i = 0; i < columns.length; i++ ) {
+            rowBytes += columns[i].read( resultSet, i + 1, rowCount );
+        }
+        if ( !reservation.tryReserve( rowBytes ) ) {
+            for ( Column column : columns ) {
+                column.clear( rowCount );
+            }
+            return false;
+        }
+        rowCount++;
+        return true;
+    }
+
+    /**
+     * Sets the result set, positioned on the first row that was not buffered, where rows are read from after the buffered ones.
+     */
+    public void setRemainder(ResultSet resultSet) {
+        remainder = resultSet;
+    }
+
+    private void releaseBuffer() {
+        for ( Column column : columns ) {
+            column.release();
+        }
+        cleanable.clean();
+    }
+
+    private void checkClosed() throws SQLException {
+        if ( closed ) {
+            throw new SQLException( "ResultSet is closed" );
+        }
+    }
+
+    private Column column(int columnIndex) throws SQLException {
+        checkClosed();
+        if ( cursor < 0 || cursor >= rowCount ) {
+            throw new SQLException( "ResultSet is not positioned on a row" );
+        }
+        if ( columnIndex < 1 || columnIndex > columns.length ) {
+            throw new SQLException( "Invalid column index: " + columnIndex );
+        }
+        Column column = columns[columnIndex - 1];
+        wasNull = column.isNull( cursor );
+        return column;
+    }
+
+    private Object convert(int columnIndex, Class<?> type) throws SQLException {
+        if ( type == String.class ) {
+            return getString( columnIndex );
+        } else if ( type == Boolean.class ) {
+            return getBoolean( columnIndex );
+        } else if ( type == Byte.class ) {
+            return getByte( columnIndex );
+        } else if ( type == Short.class ) {
+            return getShort( columnIndex );
+        } else if ( type == Integer.class ) {
+            return getInt( columnIndex );
+        } else if ( type == Long.class ) {
+            return getLong( columnIndex );
+        } else if ( type == Float.class ) {
+            return getFloat( columnIndex );
+        } else if ( type == Double.class ) {
+            return getDouble( columnIndex );
+        } else if ( type == BigDecimal.class ) {
+            return getBigDecimal( columnIndex );
+        } else if ( type == byte[].class ) {
+            return getBytes( columnIndex );
+        } else if ( type == Date.class ) {
+            return getDate( columnIndex );
+        } else if ( type == Time.class ) {
+            return getTime( columnIndex );
+        } else if ( type == Timestamp.class ) {
+            return getTimestamp( columnIndex );
+        } else if ( type == LocalDate.class ) {
+            return getDate( columnIndex ).toLocalDate();
+        } else if ( type == LocalTime.class ) {
+            return getTime( columnIndex ).toLocalTime();
+        } else if ( type == LocalDateTime.class ) {
+            return getTimestamp( columnIndex ).toLocalDateTime();
+        }
+        throw cannotConvert( columnIndex, type );
+    }
+
+    private static SQLException cannotConvert(int columnIndex, Class<?> type) {
+        return new SQLException( "Cannot convert value of column " + columnIndex + " to " + type.getName() );
+    }
+
+    private static SQLException readOnly() {
+        return new SQLFeatureNotSupportedException( "ResultSet is read-only" );
+    }
+
+    private static SQLException forwardOnly() {
+        return new SQLException( "ResultSet is forward-only" );
+    }
+
+    private static SQLException notSupported() {
+        return new SQLFeatureNotSupportedException( "Operation not supported on a buffered ResultSet" );
+    }
+
+    // --- //
+
+    @Override
+    public boolean next() throws SQLException {
+        checkClosed();
+        if ( onRemainder ) {
+            return remainder.next();
+        }
+        if ( cursor < rowCount ) {
+            cursor++;
+        }
+        if ( cursor < rowCount ) {
+            return true;
+        }
+        if ( remainder == null ) {
+            return false;
+        }
+        // the remainder is positioned on the first row that was not buffered
+        onRemainder = true;
+        releaseBuffer();
+        return true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if ( !closed ) {
+            closed = true;
+            releaseBuffer();
+            if ( remainder != null ) {
+                remainder.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        if ( onRemainder ) {
+            return remainder.wasNull();
+        }
+        checkClosed();
+        return wasNull;
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getString( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? null : column.getString( cursor );
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getBoolean( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return !wasNull && column.getBoolean( cursor );
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getByte( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? 0 : (byte) column.getLong( cursor );
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getShort( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? 0 : (short) column.getLong( cursor );
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getInt( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? 0 : (int) column.getLong( cursor );
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getLong( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? 0 : column.getLong( cursor );
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getFloat( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? 0 : (float) column.getDouble( cursor );
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getDouble( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? 0 : column.getDouble( cursor );
+    }
+
+    @Override
+    @SuppressWarnings( "deprecation" )
+    public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getBigDecimal( columnIndex, scale );
+        }
+        BigDecimal value = getBigDecimal( columnIndex );
+        return value == null ? null : value.setScale( scale, RoundingMode.HALF_UP );
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getBytes( columnIndex );
+        }
+        Object value = getObject( columnIndex );
+        if ( value == null ) {
+            return null;
+        }
+        if ( value instanceof byte[] bytes ) {
+            return bytes.clone();
+        }
+        throw cannotConvert( columnIndex, byte[].class );
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getDate( columnIndex );
+        }
+        Object value = getObject( columnIndex );
+        if ( value == null || value instanceof Date ) {
+            return (Date) value;
+        }
+        if ( value instanceof Timestamp timestamp ) {
+            return Date.valueOf( timestamp.toLocalDateTime().toLocalDate() );
+        }
+        if ( value instanceof LocalDate localDate ) {
+            return Date.valueOf( localDate );
+        }
+        throw cannotConvert( columnIndex, Date.class );
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getTime( columnIndex );
+        }
+        Object value = getObject( columnIndex );
+        if ( value == null || value instanceof Time ) {
+            return (Time) value;
+        }
+        if ( value instanceof Timestamp timestamp ) {
+            return Time.valueOf( timestamp.toLocalDateTime().toLocalTime() );
+        }
+        if ( value instanceof LocalTime localTime ) {
+            return Time.valueOf( localTime );
+        }
+        throw cannotConvert( columnIndex, Time.class );
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getTimestamp( columnIndex );
+        }
+        Object value = getObject( columnIndex );
+        if ( value == null || value instanceof Timestamp ) {
+            return (Timestamp) value;
+        }
+        if ( value instanceof Date date ) {
+            return Timestamp.valueOf( date.toLocalDate().atStartOfDay() );
+        }
+        if ( value instanceof LocalDateTime localDateTime ) {
+            return Timestamp.valueOf( localDateTime );
+        }
+        throw cannotConvert( columnIndex, Timestamp.class );
+    }
+
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getAsciiStream( columnIndex );
+        }
+        String value = getString( columnIndex );
+        return value == null ? null : new ByteArrayInputStream( value.getBytes( US_ASCII ) );
+    }
+
+    @Override
+    @SuppressWarnings( "deprecation" )
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getUnicodeStream( columnIndex );
+        }
+        String value = getString( columnIndex );
+        return value == null ? null : new ByteArrayInputStream( value.getBytes( UTF_16BE ) );
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getBinaryStream( columnIndex );
+        }
+        byte[] value = getBytes( columnIndex );
+        return value == null ? null : new ByteArrayInputStream( value );
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return getBoolean( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        return getByte( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        return getShort( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        return getFloat( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return getDouble( findColumn( columnLabel ) );
+    }
+
+    @Override
+    @SuppressWarnings( "deprecation" )
+    public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+        return getBigDecimal( findColumn( columnLabel ), scale );
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return getBytes( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        return getDate( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        return getTime( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        return getAsciiStream( findColumn( columnLabel ) );
+    }
+
+    @Override
+    @SuppressWarnings( "deprecation" )
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        return getUnicodeStream( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        return getBinaryStream( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkClosed();
+        return warnings;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkClosed();
+        warnings = null;
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getCursorName();
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkClosed();
+        return new DetachedMetaData( columns );
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getObject( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? null : column.getObject( cursor );
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        checkClosed();
+        Integer index = columnIndexes.get( columnLabel.toLowerCase( Locale.ROOT ) );
+        if ( index == null ) {
+            throw new SQLException( "Column not found: " + columnLabel );
+        }
+        return index;
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getCharacterStream( columnIndex );
+        }
+        String value = getString( columnIndex );
+        return value == null ? null : new StringReader( value );
+    }
+
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        return getCharacterStream( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getBigDecimal( columnIndex );
+        }
+        Column column = column( columnIndex );
+        return wasNull ? null : column.getBigDecimal( cursor );
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return getBigDecimal( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        if ( onRemainder ) {
+            return remainder.isBeforeFirst();
+        }
+        checkClosed();
+        return cursor < 0 && ( rowCount > 0 || remainder != null );
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        if ( onRemainder ) {
+            return remainder.isAfterLast();
+        }
+        checkClosed();
+        return rowCount > 0 && cursor >= rowCount;
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        checkClosed();
+        if ( onRemainder ) {
+            return rowCount == 0 && remainder.isFirst();
+        }
+        return cursor == 0 && rowCount > 0;
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        if ( onRemainder ) {
+            return remainder.isLast();
+        }
+        checkClosed();
+        return remainder == null && cursor == rowCount - 1;
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getRow();
+        }
+        checkClosed();
+        return cursor >= 0 && cursor < rowCount ? cursor + 1 : 0;
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        throw forwardOnly();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        checkClosed();
+        if ( direction != FETCH_FORWARD ) {
+            throw forwardOnly();
+        }
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        checkClosed();
+        return FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        checkClosed();
+        fetchSize = rows;
+        if ( remainder != null ) {
+            remainder.setFetchSize( rows );
+        }
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        checkClosed();
+        return fetchSize;
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        checkClosed();
+        return TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        checkClosed();
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        checkClosed();
+        return false;
+    }
+
+    @Override
+    public boolean rowInserted() throws SQLException {
+        checkClosed();
+        return false;
+    }
+
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        checkClosed();
+        return false;
+    }
+
+    @Override
+    public void updateNull(int columnIndex) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNull(String columnLabel) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        checkClosed();
+        return statement;
+    }
+
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getObject( columnIndex, map );
+        }
+        if ( map != null && !map.isEmpty() ) {
+            throw notSupported();
+        }
+        return getObject( columnIndex );
+    }
+
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getRef( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getBlob( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getClob( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getArray( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+        return getObject( findColumn( columnLabel ), map );
+    }
+
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        return getRef( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        return getBlob( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        return getClob( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        return getArray( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getDate( columnIndex, cal );
+        }
+        Date value = getDate( columnIndex );
+        return value == null || cal == null ? value : new Date( value.toLocalDate().atStartOfDay( cal.getTimeZone().toZoneId() ).toInstant().toEpochMilli() );
+    }
+
+    @Override
+    public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+        return getDate( findColumn( columnLabel ), cal );
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getTime( columnIndex, cal );
+        }
+        Time value = getTime( columnIndex );
+        return value == null || cal == null ? value : new Time( value.toLocalTime().atDate( EPOCH ).atZone( cal.getTimeZone().toZoneId() ).toInstant().toEpochMilli() );
+    }
+
+    @Override
+    public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+        return getTime( findColumn( columnLabel ), cal );
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getTimestamp( columnIndex, cal );
+        }
+        Timestamp value = getTimestamp( columnIndex );
+        return value == null || cal == null ? value : Timestamp.from( value.toLocalDateTime().atZone( cal.getTimeZone().toZoneId() ).toInstant() );
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+        return getTimestamp( findColumn( columnLabel ), cal );
+    }
+
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getURL( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        return getURL( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getRowId( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        return getRowId( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkClosed();
+        return remainder == null ? HOLD_CURSORS_OVER_COMMIT : remainder.getHoldability();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void updateNString(int columnIndex, String nString) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(String columnLabel, String nString) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getNClob( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        return getNClob( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getSQLXML( columnIndex );
+        }
+        throw notSupported();
+    }
+
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        return getSQLXML( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getNString( columnIndex );
+        }
+        return getString( columnIndex );
+    }
+
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        return getNString( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getNCharacterStream( columnIndex );
+        }
+        return getCharacterStream( columnIndex );
+    }
+
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        return getNCharacterStream( findColumn( columnLabel ) );
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        if ( onRemainder ) {
+            return remainder.getObject( columnIndex, type );
+        }
+        Object value = getObject( columnIndex );
+        if ( value == null || type.isInstance( value ) ) {
+            return type.cast( value );
+        }
+        return type.cast( convert( columnIndex, type ) );
+    }
+
+    @Override
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        return getObject( findColumn( columnLabel ), type );
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, SQLType targetSqlType) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, SQLType targetSqlType) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if ( iface.isInstance( this ) ) {
+            return iface.cast( this );
+        }
+        if ( remainder != null ) {
+            return remainder.unwrap( iface );
+        }
+        throw new SQLException( "Not a wrapper for " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance( this ) || remainder != null && remainder.isWrapperFor( iface );
+    }
+
+    // --- //
+
+    private enum Kind {
+        BOOLEAN, INTEGRAL, FLOATING, OBJECT
+    }
+
+    // must not reference the result set, or it would never become unreachable
+    private static final class Reservation implements Runnable {
+
+        private final MemoryBudget budget;
+        private volatile long bytes;
+
+        Reservation(MemoryBudget budget) {
+            this.budget = budget;
+        }
+
+        boolean tryReserve(long rowBytes) {
+            if ( !budget.tryReserve( rowBytes ) ) {
+                return false;
+            }
+            bytes += rowBytes;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            budget.release( bytes );
+            bytes = 0;
+        }
+    }
+
+    private static final class Column {
+
+        // metadata
+        private final String label;
+        private final String name;
+        private final String schemaName;
+        private final String tableName;
+        private final String catalogName;
+        private final String typeName;
+        private final String className;
+        private final int type;
+        private final int precision;
+        private final int scale;
+        private final int displaySize;
+        private final int nullable;
+        private final boolean autoIncrement;
+        private final boolean caseSensitive;
+        private final boolean searchable;
+        private final boolean currency;
+        private final boolean signed;
+        private final boolean readOnly;
+        private final boolean writable;
+        private final boolean definitelyWritable;
+
+        // values. only the array for the kind of the column is used
+        private final Kind kind;
+        private final BitSet nulls = new BitSet();
+        private int capacity = INITIAL_CAPACITY;
+        private boolean[] booleans;
+        private long[] longs;
+        private double[] doubles;
+        private Object[] objects;
+
+        Column(ResultSetMetaData metaData, int index) throws SQLException {
+            label = metaData.getColumnLabel( index );
+            name = metaData.getColumnName( index );
+            schemaName = metaData.getSchemaName( index );
+            tableName = metaData.getTableName( index );
+            catalogName = metaData.getCatalogName( index );
+            typeName = metaData.getColumnTypeName( index );
+            className = metaData.getColumnClassName( index );
+            type = metaData.getColumnType( index );
+            precision = metaData.getPrecision( index );
+            scale = metaData.getScale( index );
+            displaySize = metaData.getColumnDisplaySize( index );
+            nullable = metaData.isNullable( index );
+            autoIncrement = metaData.isAutoIncrement( index );
+            caseSensitive = metaData.isCaseSensitive( index );
+            searchable = metaData.isSearchable( index );
+            currency = metaData.isCurrency( index );
+            signed = metaData.isSigned( index );
+            readOnly = metaData.isReadOnly( index );
+            writable = metaData.isWritable( index );
+            definitelyWritable = metaData.isDefinitelyWritable( index );
+
+            switch ( type ) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    kind = Kind.BOOLEAN;
+                    booleans = new boolean[capacity];
+                    break;
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    kind = Kind.INTEGRAL;
+                    longs = new long[capacity];
+                    break;
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    kind = Kind.FLOATING;
+                    doubles = new double[capacity];
+                    break;
+                default:
+                    kind = Kind.OBJECT;
+                    objects = new Object[capacity];
+            }
+        }
+
+        /**
+         * Reads the value of the current row of a result set into the buffer.
+         *
+         * @return estimate of the memory taken by the value.
+         */
+        long read(ResultSet resultSet, int index, int row) throws SQLException {
+            ensureCapacity( row + 1 );
+            long bytes = PRIMITIVE_SIZE;
+            switch ( kind ) {
+                case BOOLEAN:
+                    booleans[row] = resultSet.getBoolean( index );
+                    break;
+                case INTEGRAL:
+                    longs[row] = resultSet.getLong( index );
+                    break;
+                case FLOATING:
+                    doubles[row] = resultSet.getDouble( index );
+                    break;
+                default:
+                    objects[row] = readObject( resultSet, index );
+                    bytes = REFERENCE_SIZE + sizeOf( objects[row] );
+            }
+            if ( resultSet.wasNull() ) {
+                nulls.set( row );
+            }
+            return bytes;
+        }
+
+        private Object readObject(ResultSet resultSet, int index) throws SQLException {
+            switch ( type ) {
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                    return resultSet.getString( index );
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return resultSet.getBigDecimal( index );
+                case Types.DATE:
+                    return resultSet.getDate( index );
+                case Types.TIME:
+                    return resultSet.getTime( index );
+                case Types.TIMESTAMP:
+                    return resultSet.getTimestamp( index );
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                    return resultSet.getBytes( index );
+                default:
+                    return resultSet.getObject( index );
+            }
+        }
+
+        private static long sizeOf(Object value) {
+            if ( value == null ) {
+                return 0;
+            } else if ( value instanceof String string ) {
+                return STRING_SIZE + 2L * string.length();
+            } else if ( value instanceof byte[] bytes ) {
+                return ARRAY_HEADER_SIZE + bytes.length;
+            } else if ( value instanceof BigDecimal ) {
+                return 2 * OBJECT_SIZE;
+            }
+            return OBJECT_SIZE;
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            if ( minCapacity <= capacity ) {
+                return;
+            }
+            capacity = Math.max( minCapacity, capacity * 2 );
+            switch ( kind ) {
+                case BOOLEAN:
+                    booleans = Arrays.copyOf( booleans, capacity );
+                    break;
+                case INTEGRAL:
+                    longs = Arrays.copyOf( longs, capacity );
+                    break;
+                case FLOATING:
+                    doubles = Arrays.copyOf( doubles, capacity );
+                    break;
+                default:
+                    objects = Arrays.copyOf( objects, capacity );
+            }
+        }
+
+        void clear(int row) {
+            nulls.clear( row );
+            if ( objects != null ) {
+                objects[row] = null;
+            }
+        }
+
+        void release() {
+            nulls.clear();
+            booleans = null;
+            longs = null;
+            doubles = null;
+            objects = null;
+        }
+
+        boolean isNull(int row) {
+            return nulls.get( row );
+        }
+
+        // --- //
+
+        boolean getBoolean(int row) throws SQLException {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return booleans[row];
+                case INTEGRAL:
+                    return longs[row] != 0;
+                case FLOATING:
+                    return doubles[row] != 0;
+                default:
+                    Object value = objects[row];
+                    if ( value instanceof Boolean b ) {
+                        return b;
+                    } else if ( value instanceof String s ) {
+                        return "true".equalsIgnoreCase( s.trim() ) || "1".equals( s.trim() );
+                    }
+                    return toBigDecimal( value ).signum() != 0;
+            }
+        }
+
+        long getLong(int row) throws SQLException {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return booleans[row] ? 1 : 0;
+                case INTEGRAL:
+                    return longs[row];
+                case FLOATING:
+                    return (long) doubles[row];
+                default:
+                    return objects[row] instanceof Number number ? number.longValue() : toBigDecimal( objects[row] ).longValue();
+            }
+        }
+
+        double getDouble(int row) throws SQLException {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return booleans[row] ? 1 : 0;
+                case INTEGRAL:
+                    return longs[row];
+                case FLOATING:
+                    return doubles[row];
+                default:
+                    return objects[row] instanceof Number number ? number.doubleValue() : toBigDecimal( objects[row] ).doubleValue();
+            }
+        }
+
+        BigDecimal getBigDecimal(int row) throws SQLException {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return booleans[row] ? BigDecimal.ONE : BigDecimal.ZERO;
+                case INTEGRAL:
+                    return BigDecimal.valueOf( longs[row] );
+                case FLOATING:
+                    return BigDecimal.valueOf( doubles[row] );
+                default:
+                    return toBigDecimal( objects[row] );
+            }
+        }
+
+        String getString(int row) {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return Boolean.toString( booleans[row] );
+                case INTEGRAL:
+                    return Long.toString( longs[row] );
+                case FLOATING:
+                    return type == Types.REAL ? Float.toString( (float) doubles[row] ) : Double.toString( doubles[row] );
+                default:
+                    return objects[row].toString();
+            }
+        }
+
+        Object getObject(int row) {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return booleans[row];
+                case INTEGRAL:
+                    return type == Types.BIGINT ? (Object) longs[row] : (Object) (int) longs[row];
+                case FLOATING:
+                    return type == Types.REAL ? (Object) (float) doubles[row] : (Object) doubles[row];
+                default:
+                    return objects[row];
+            }
+        }
+
+        private BigDecimal toBigDecimal(Object value) throws SQLException {
+            if ( value instanceof BigDecimal bigDecimal ) {
+                return bigDecimal;
+            } else if ( value instanceof BigInteger bigInteger ) {
+                return new BigDecimal( bigInteger );
+            } else if ( value instanceof Boolean b ) {
+                return b ? BigDecimal.ONE : BigDecimal.ZERO;
+            } else if ( value instanceof Number || value instanceof String ) {
+                try {
+                    return new BigDecimal( value.toString().trim() );
+                } catch ( NumberFormatException e ) {
+                    throw new SQLException( "Cannot convert value of column " + label + " to a number", e );
+                }
+            }
+            throw new SQLException( "Cannot convert value of column " + label + " to a number" );
+        }
+    }
+
+    // --- //
+
+    private static final class DetachedMetaData implements ResultSetMetaData {
+
+        private final Column[] columns;
+
+        DetachedMetaData(Column[] columns) {
+            this.columns = columns;
+        }
+
+        private Column column(int column) throws SQLException {
+            if ( column < 1 || column > columns.length ) {
+                throw new SQLException( "Invalid column index: " + column );
+            }
+            return columns[column - 1];
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public boolean isAutoIncrement(int column) throws SQLException {
+            return column( column ).autoIncrement;
+        }
+
+        @Override
+        public boolean isCaseSensitive(int column) throws SQLException {
+            return column( column ).caseSensitive;
+        }
+
+        @Override
+        public boolean isSearchable(int column) throws SQLException {
+            return column( column ).searchable;
+        }
+
+        @Override
+        public boolean isCurrency(int column) throws SQLException {
+            return column( column ).currency;
+        }
+
+        @Override
+        public int isNullable(int column) throws SQLException {
+            return column( column ).nullable;
+        }
+
+        @Override
+        public boolean isSigned(int column) throws SQLException {
+            return column( column ).signed;
+        }
+
+        @Override
+        public int getColumnDisplaySize(int column) throws SQLException {
+            return column( column ).displaySize;
+        }
+
+        @Override
+        public String getColumnLabel(int column) throws SQLException {
+            return column( column ).label;
+        }
+
+        @Override
+        public String getColumnName(int column) throws SQLException {
+            return column( column ).name;
+        }
+
+        @Override
+        public String getSchemaName(int column) throws SQLException {
+            return column( column ).schemaName;
+        }
+
+        @Override
+        public int getPrecision(int column) throws SQLException {
+            return column( column ).precision;
+        }
+
+        @Override
+        public int getScale(int column) throws SQLException {
+            return column( column ).scale;
+        }
+
+        @Override
+        public String getTableName(int column) throws SQLException {
+            return column( column ).tableName;
+        }
+
+        @Override
+        public String getCatalogName(int column) throws SQLException {
+            return column( column ).catalogName;
+        }
+
+        @Override
+        public int getColumnType(int column) throws SQLException {
+            return column( column ).type;
+        }
+
+        @Override
+        public String getColumnTypeName(int column) throws SQLException {
+            return column( column ).typeName;
+        }
+
+        @Override
+        public boolean isReadOnly(int column) throws SQLException {
+            return column( column ).readOnly;
+        }
+
+        @Override
+        public boolean isWritable(int column) throws SQLException {
+            return column( column ).writable;
+        }
+
+        @Override
+        public boolean isDefinitelyWritable(int column) throws SQLException {
+            return column( column ).definitelyWritable;
+        }
+
+        @Override
+        public String getColumnClassName(int column) throws SQLException {
+            return column( column ).className;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if ( iface.isInstance( this ) ) {
+                return iface.cast( this );
+            }
+            throw new SQLException( "Not a wrapper for " + iface.getName() );
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance( this );
+        }
+    }
+}
@@ -3,6 +3,7 @@
 
 package io.agroal.pool.wrapper;
 
+import io.agroal.pool.StatementCache;
 import io.agroal.pool.util.AutoCloseableElement;
 import io.agroal.pool.wrapper.closed.ClosedCallableStatement;
 
@@ -28,6 +29,7 @@ import java.sql.SQLType;
 import java.sql.SQLXML;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Statement;
 import java.util.Calendar;
 import java.util.Map;
 
@@ -57,9 +59,22 @@ public final class CallableStatementWrapper extends StatementWrapper implements
     @SuppressWarnings( "unused" )
     private CallableStatement wrappedStatement;
 
-    public CallableStatementWrapper(ConnectionWrapper connectionWrapper, CallableStatement statement, boolean trackJdbcResources, AutoCloseableElement<StatementWrapper> head, boolean defaultHoldability) {
+    // key and entry of the statement in the statement cache of the connection, null if not cached
+    private final StatementCache.Key cacheKey;
+    private final StatementCache.Entry cacheEntry;
+
+    // JDBC provides no way to clear the registration of out parameters, so a statement where they were registered can't be reused
+    private boolean outParametersRegistered;
+
+    public CallableStatementWrapper(ConnectionWrapper connectionWrapper, CallableStatement statement, boolean trackJdbcResources, AutoCloseableElement<?> head, boolean defaultHoldability) {
+        this( connectionWrapper, statement, trackJdbcResources, head, defaultHoldability, null, null );
+    }
+
+    public CallableStatementWrapper(ConnectionWrapper connectionWrapper, CallableStatement statement, boolean trackJdbcResources, AutoCloseableElement<?> head, boolean defaultHoldability, StatementCache.Key key, StatementCache.Entry entry) {
         super( connectionWrapper, statement, trackJdbcResources, head, defaultHoldability );
         WRAPPED.setRelease( this, statement );
+        cacheKey = key;
+        cacheEntry = entry;
     }
 
     @Override
@@ -68,6 +83,15 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         super.close();
     }
 
+    @Override
+    protected void closeWrappedStatement(Statement statement) throws SQLException {
+        if ( cacheKey == null || isEscapeProcessingChanged() || outParametersRegistered ) {
+            statement.close();
+        } else {
+            connection.getHandler().getStatementCache().release( cacheKey, cacheEntry );
+        }
+    }
+
     // --- //
 
     @Override
@@ -75,6 +99,7 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         try {
             verifyEnlistment();
             wrappedCallableStatement().registerOutParameter( parameterIndex, sqlType );
+            outParametersRegistered = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
@@ -86,6 +111,7 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         try {
             verifyEnlistment();
             wrappedCallableStatement().registerOutParameter( parameterIndex, sqlType, scale );
+            outParametersRegistered = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
@@ -364,6 +390,7 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         try {
             verifyEnlistment();
             wrappedCallableStatement().registerOutParameter( parameterIndex, sqlType, typeName );
+            outParametersRegistered = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
@@ -375,6 +402,7 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         try {
             verifyEnlistment();
             wrappedCallableStatement().registerOutParameter( parameterName, sqlType );
+            outParametersRegistered = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
@@ -386,6 +414,7 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         try {
             verifyEnlistment();
             wrappedCallableStatement().registerOutParameter( parameterName, sqlType, scale );
+            outParametersRegistered = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
@@ -397,6 +426,7 @@ public final class CallableStatementWrapper extends StatementWrapper implements
         try {
             verifyEnlistment();
             wrappedCallableStatement().registerOutParameter( parameterName, sqlType, typeName );
+            outParametersRegistered = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
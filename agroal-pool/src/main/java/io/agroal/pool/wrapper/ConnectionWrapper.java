@@ -3,8 +3,12 @@
 
 package io.agroal.pool.wrapper;
 
+import io.agroal.api.transaction.TransactionAware.SQLCallable;
 import io.agroal.pool.ConnectionHandler;
+import io.agroal.pool.ConnectionHandler.DirtyAttribute;
+import io.agroal.pool.StatementCache;
 import io.agroal.pool.util.AutoCloseableElement;
+import io.agroal.pool.util.UnreachableReaper;
 import io.agroal.pool.wrapper.closed.ClosedConnection;
 
 import java.sql.Array;
@@ -62,14 +66,23 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     // tracks the current holdability state of this connection
     private boolean holdState;
 
-    // Collection of Statements to close them on close(). If null Statements are not tracked.
-    private final AutoCloseableElement<StatementWrapper> trackedStatements;
+    // Head of the collection of Statements to close them on close(), which is this wrapper. If null Statements are not tracked.
+    private final AutoCloseableElement<?> trackedStatements;
     private int leakedStatements, leakedResultSets;
 
     private final ConnectionHandler handler;
 
+    // operations are only traced for the enhanced leak report. decided once, when the connection is acquired
+    private boolean traceOperations;
+
     private Connection wrappedConnection;
 
+    // logical connection handed to the application, notified when all statements are closed, if any
+    private LogicalConnectionWrapper logicalConnection;
+
+    // action to run if this wrapper becomes unreachable without being closed, if any
+    private UnreachableReaper.Registration unreachableRegistration;
+
     public ConnectionWrapper(ConnectionHandler connectionHandler, boolean trackResources, boolean defaultHold) {
         this( connectionHandler, trackResources, false, defaultHold );
     }
@@ -78,21 +91,34 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
         this( connectionHandler, trackResources, null, detached, defaultHold );
     }
 
-    public ConnectionWrapper(ConnectionHandler connectionHandler, boolean trackResources, AutoCloseableElement<ConnectionWrapper> head, boolean defaultHold) {
+    public ConnectionWrapper(ConnectionHandler connectionHandler, boolean trackResources, AutoCloseableElement<?> head, boolean defaultHold) {
         this( connectionHandler, trackResources, head, false, defaultHold );
     }
 
-    private ConnectionWrapper(ConnectionHandler connectionHandler, boolean trackResources, AutoCloseableElement<ConnectionWrapper> head, boolean detached, boolean defaultHold) {
+    private ConnectionWrapper(ConnectionHandler connectionHandler, boolean trackResources, AutoCloseableElement<?> head, boolean detached, boolean defaultHold) {
         super( head );
         handler = connectionHandler;
+        traceOperations = connectionHandler.isTracingOperations();
         WRAPPED.setRelease( this, connectionHandler.rawConnection() );
-        trackedStatements = trackResources ? newHead() : null;
+        trackedStatements = trackResources ? this : null;
         detachedState = detached;
         holdState = defaultHold;
     }
 
+    /**
+     * Makes a closed detached wrapper usable again, instead of creating a new one. Only for wrappers that are not expected to be used once closed.
+     */
+    public void reopen(boolean defaultHold) {
+        traceOperations = handler.isTracingOperations();
+        holdState = defaultHold;
+        leakedStatements = 0;
+        leakedResultSets = 0;
+        WRAPPED.setRelease( this, handler.rawConnection() );
+    }
+
     public void verifyEnlistment() throws SQLException {
         handler.verifyEnlistment();
+        handler.applyPendingAttributes();
     }
 
     public ConnectionHandler getHandler() {
@@ -103,6 +129,30 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
         return detachedState;
     }
 
+    void setLogicalConnection(LogicalConnectionWrapper logicalConnectionWrapper) {
+        logicalConnection = logicalConnectionWrapper;
+    }
+
+    /**
+     * The connection the application holds, that statements return from getConnection(). It's the logical connection when acquisition is lazy.
+     */
+    Connection applicationConnection() {
+        return logicalConnection == null ? this : logicalConnection;
+    }
+
+    /**
+     * Registers an action to run if this wrapper becomes unreachable without being closed. The action must not reference this wrapper.
+     */
+    public void onUnreachable(UnreachableReaper reaper, Runnable action) {
+        unreachableRegistration = reaper.register( this, action );
+    }
+
+    private void trace(String operation) {
+        if ( traceOperations ) {
+            handler.traceConnectionOperation( operation );
+        }
+    }
+
     // --- //
 
     private Statement trackStatement(Statement statement) {
@@ -117,7 +167,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     }
 
     private CallableStatement trackCallableStatement(CallableStatement statement) {
-        return new CallableStatementWrapper( this, statement, true, trackedStatements, holdState );
+        return trackCallableStatement( statement, holdState );
     }
 
     private CallableStatement trackCallableStatement(CallableStatement statement, boolean holdability) {
@@ -138,6 +188,32 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
         return statement;
     }
 
+    private <T> T sessionAttribute(DirtyAttribute attribute, SQLCallable<T> getter) throws SQLException {
+        return wrappedConnection() == ClosedConnection.INSTANCE ? getter.call() : handler.getSessionAttribute( attribute, getter );
+    }
+
+    private boolean hasSessionAttribute(DirtyAttribute attribute, Object value) {
+        return wrappedConnection() != ClosedConnection.INSTANCE && handler.hasSessionAttribute( attribute, value );
+    }
+
+    private boolean deferSessionAttribute(DirtyAttribute attribute, Object value) {
+        return wrappedConnection() != ClosedConnection.INSTANCE && handler.deferSessionAttribute( attribute, value );
+    }
+
+    private boolean useStatementCache() {
+        return handler.getStatementCache() != null && wrappedConnection() != ClosedConnection.INSTANCE;
+    }
+
+    private PreparedStatement cachedPreparedStatement(StatementCache.Key key, boolean holdability) throws SQLException {
+        StatementCache.Entry entry = handler.getStatementCache().prepare( key, wrappedConnection() );
+        return new PreparedStatementWrapper( this, entry.statement(), trackedStatements != null, trackedStatements, holdability, key, entry );
+    }
+
+    private CallableStatement cachedCallableStatement(StatementCache.Key key, boolean holdability) throws SQLException {
+        StatementCache.Entry entry = handler.getStatementCache().prepare( key, wrappedConnection() );
+        return new CallableStatementWrapper( this, (CallableStatement) entry.statement(), trackedStatements != null, trackedStatements, holdability, key, entry );
+    }
+
     public void closeNotHeldTrackedStatements() {
         if ( trackedStatements != null ) {
             addLeakedStatements( trackedStatements.closeNotHeldAutocloseableElements() );
@@ -152,20 +228,23 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
 
     @Override
     public void close() throws SQLException {
-        handler.traceConnectionOperation( "close()" );
+        trace( "close()" );
         if ( wrappedConnection() != ClosedConnection.INSTANCE ) {
             WRAPPED.setRelease( this, ClosedConnection.INSTANCE );
-            pruneClosed();
+            unregister();
             if ( trackedStatements != null ) {
                 addLeakedStatements( trackedStatements.closeAllAutocloseableElements() );
             }
+            if ( unreachableRegistration != null ) {
+                unreachableRegistration.cancel();
+            }
             handler.onConnectionWrapperClose( this );
         }
     }
 
     @Override
     public void abort(Executor executor) throws SQLException {
-        handler.traceConnectionOperation( "abort()" );
+        trace( "abort()" );
         try {
             Connection connection = wrappedConnection();
             WRAPPED.setRelease( this, ClosedConnection.INSTANCE );
@@ -174,22 +253,27 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
             handler.setFlushOnly( se );
             throw se;
         } finally {
+            unregister();
+            if ( unreachableRegistration != null ) {
+                unreachableRegistration.cancel();
+            }
             handler.onConnectionWrapperClose( this );
         }
     }
 
     @Override
     public void setAutoCommit(boolean autoCommit) throws SQLException {
-        handler.traceConnectionOperation( "setAutoCommit(boolean)" );
+        trace( "setAutoCommit(boolean)" );
         if ( autoCommit && handler.isEnlisted() ) {
             handler.setFlushOnly();
             throw new SQLException( "Trying to set autocommit in connection taking part of transaction" );
         }
         try {
-            verifyEnlistment();
-            if ( wrappedConnection().getAutoCommit() != autoCommit ) {
-                handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.AUTOCOMMIT );
+            handler.verifyEnlistment();
+            if ( sessionAttribute( DirtyAttribute.AUTOCOMMIT, wrappedConnection()::getAutoCommit ) != autoCommit && !deferSessionAttribute( DirtyAttribute.AUTOCOMMIT, autoCommit ) ) {
+                handler.setDirtyAttribute( DirtyAttribute.AUTOCOMMIT );
                 wrappedConnection().setAutoCommit( autoCommit );
+                handler.setSessionAttribute( DirtyAttribute.AUTOCOMMIT, autoCommit );
             }
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
@@ -200,9 +284,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public boolean getAutoCommit() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getAutoCommit()" );
-            verifyEnlistment();
-            return wrappedConnection().getAutoCommit();
+            trace( "getAutoCommit()" );
+            handler.verifyEnlistment();
+            return sessionAttribute( DirtyAttribute.AUTOCOMMIT, wrappedConnection()::getAutoCommit );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -211,12 +295,13 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
 
     @Override
     public void commit() throws SQLException {
-        handler.traceConnectionOperation( "commit()" );
+        trace( "commit()" );
         if ( handler.isEnlisted() ) {
             handler.setFlushOnly();
             throw new SQLException( "Attempting to commit while taking part in a transaction" );
         }
         try {
+            handler.applyPendingAttributes();
             wrappedConnection().commit();
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
@@ -226,7 +311,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
 
     @Override
     public void rollback() throws SQLException {
-        handler.traceConnectionOperation( "rollback()" );
+        trace( "rollback()" );
         if ( handler.isEnlisted() ) {
             handler.setFlushOnly();
             throw new SQLException( "Attempting to rollback while enlisted in a transaction" );
@@ -242,7 +327,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
 
     @Override
     public void rollback(Savepoint savepoint) throws SQLException {
-        handler.traceConnectionOperation( "rollback(Savepoint)" );
+        trace( "rollback(Savepoint)" );
         if ( handler.isEnlisted() ) {
             handler.setFlushOnly();
             throw new SQLException( "Attempting to rollback while enlisted in a transaction" );
@@ -261,7 +346,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void clearWarnings() throws SQLException {
         try {
-            handler.traceConnectionOperation( "clearWarnings()" );
+            trace( "clearWarnings()" );
             verifyEnlistment();
             wrappedConnection().clearWarnings();
         } catch ( SQLException se ) {
@@ -273,7 +358,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Clob createClob() throws SQLException {
         try {
-            handler.traceConnectionOperation( "createClob()" );
+            trace( "createClob()" );
             verifyEnlistment();
             return wrappedConnection().createClob();
         } catch ( SQLException se ) {
@@ -285,7 +370,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Blob createBlob() throws SQLException {
         try {
-            handler.traceConnectionOperation( "createBlob()" );
+            trace( "createBlob()" );
             verifyEnlistment();
             return wrappedConnection().createBlob();
         } catch ( SQLException se ) {
@@ -297,7 +382,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public NClob createNClob() throws SQLException {
         try {
-            handler.traceConnectionOperation( "createNClob()" );
+            trace( "createNClob()" );
             verifyEnlistment();
             return wrappedConnection().createNClob();
         } catch ( SQLException se ) {
@@ -309,7 +394,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public SQLXML createSQLXML() throws SQLException {
         try {
-            handler.traceConnectionOperation( "createSQLXML()" );
+            trace( "createSQLXML()" );
             verifyEnlistment();
             return wrappedConnection().createSQLXML();
         } catch ( SQLException se ) {
@@ -321,7 +406,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
         try {
-            handler.traceConnectionOperation( "createArrayOf(String, Object[])" );
+            trace( "createArrayOf(String, Object[])" );
             verifyEnlistment();
             return wrappedConnection().createArrayOf( typeName, elements );
         } catch ( SQLException se ) {
@@ -333,7 +418,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Statement createStatement() throws SQLException {
         try {
-            handler.traceConnectionOperation( "createStatement()" );
+            trace( "createStatement()" );
             verifyEnlistment();
             return trackStatement( wrappedConnection().createStatement() );
         } catch ( SQLException se ) {
@@ -345,7 +430,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
         try {
-            handler.traceConnectionOperation( "createStatement(int, int)" );
+            trace( "createStatement(int, int)" );
             verifyEnlistment();
             return trackStatement( wrappedConnection().createStatement( resultSetType, resultSetConcurrency ) );
         } catch ( SQLException se ) {
@@ -357,7 +442,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
         try {
-            handler.traceConnectionOperation( "createStatement(int, int, int)" );
+            trace( "createStatement(int, int, int)" );
             verifyEnlistment();
             return trackStatement( wrappedConnection().createStatement( resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT );
         } catch ( SQLException se ) {
@@ -369,7 +454,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
         try {
-            handler.traceConnectionOperation( "createStruct(String, Object[])" );
+            trace( "createStruct(String, Object[])" );
             verifyEnlistment();
             return wrappedConnection().createStruct( typeName, attributes );
         } catch ( SQLException se ) {
@@ -381,9 +466,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public String getCatalog() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getCatalog()" );
-            verifyEnlistment();
-            return wrappedConnection().getCatalog();
+            trace( "getCatalog()" );
+            handler.verifyEnlistment();
+            return sessionAttribute( DirtyAttribute.CATALOG, wrappedConnection()::getCatalog );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -393,10 +478,13 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setCatalog(String catalog) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setCatalog(String)" );
-            verifyEnlistment();
-            handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.CATALOG );
-            wrappedConnection().setCatalog( catalog );
+            trace( "setCatalog(String)" );
+            handler.verifyEnlistment();
+            if ( !hasSessionAttribute( DirtyAttribute.CATALOG, catalog ) && !deferSessionAttribute( DirtyAttribute.CATALOG, catalog ) ) {
+                handler.setDirtyAttribute( DirtyAttribute.CATALOG );
+                wrappedConnection().setCatalog( catalog );
+                handler.setSessionAttribute( DirtyAttribute.CATALOG, catalog );
+            }
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -406,7 +494,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public int getHoldability() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getHoldability()" );
+            trace( "getHoldability()" );
             verifyEnlistment();
             return wrappedConnection().getHoldability();
         } catch ( SQLException se ) {
@@ -418,9 +506,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setHoldability(int holdability) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setHoldability(int)" );
+            trace( "setHoldability(int)" );
             verifyEnlistment();
-            handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.HOLDABILITY );
+            handler.setDirtyAttribute( DirtyAttribute.HOLDABILITY );
             holdState = ( holdability == HOLD_CURSORS_OVER_COMMIT );
             wrappedConnection().setHoldability( holdability );
         } catch ( SQLException se ) {
@@ -432,7 +520,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Properties getClientInfo() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getClientInfo()" );
+            trace( "getClientInfo()" );
             verifyEnlistment();
             return wrappedConnection().getClientInfo();
         } catch ( SQLException se ) {
@@ -444,7 +532,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setClientInfo(Properties properties) throws SQLClientInfoException {
         try {
-            handler.traceConnectionOperation( "setClientInfo(Properties)" );
+            trace( "setClientInfo(Properties)" );
             verifyEnlistment();
             wrappedConnection().setClientInfo( properties );
         } catch ( SQLClientInfoException sce ) {
@@ -459,7 +547,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public String getClientInfo(String name) throws SQLException {
         try {
-            handler.traceConnectionOperation( "getClientInfo(String)" );
+            trace( "getClientInfo(String)" );
             verifyEnlistment();
             return wrappedConnection().getClientInfo( name );
         } catch ( SQLException se ) {
@@ -471,7 +559,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public DatabaseMetaData getMetaData() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getMetaData()" );
+            trace( "getMetaData()" );
             verifyEnlistment();
             return wrappedConnection().getMetaData();
         } catch ( SQLException se ) {
@@ -483,7 +571,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public int getNetworkTimeout() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getNetworkTimeout()" );
+            trace( "getNetworkTimeout()" );
             verifyEnlistment();
             return wrappedConnection().getNetworkTimeout();
         } catch ( SQLException se ) {
@@ -495,9 +583,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public String getSchema() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getSchema()" );
-            verifyEnlistment();
-            return wrappedConnection().getSchema();
+            trace( "getSchema()" );
+            handler.verifyEnlistment();
+            return sessionAttribute( DirtyAttribute.SCHEMA, wrappedConnection()::getSchema );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -507,10 +595,13 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setSchema(String schema) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setSchema(String)" );
-            verifyEnlistment();
-            handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.SCHEMA );
-            wrappedConnection().setSchema( schema );
+            trace( "setSchema(String)" );
+            handler.verifyEnlistment();
+            if ( !hasSessionAttribute( DirtyAttribute.SCHEMA, schema ) && !deferSessionAttribute( DirtyAttribute.SCHEMA, schema ) ) {
+                handler.setDirtyAttribute( DirtyAttribute.SCHEMA );
+                wrappedConnection().setSchema( schema );
+                handler.setSessionAttribute( DirtyAttribute.SCHEMA, schema );
+            }
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -520,7 +611,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Map<String, Class<?>> getTypeMap() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getTypeMap()" );
+            trace( "getTypeMap()" );
             verifyEnlistment();
             return wrappedConnection().getTypeMap();
         } catch ( SQLException se ) {
@@ -532,7 +623,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setTypeMap(Map<String, Class<?>>)" );
+            trace( "setTypeMap(Map<String, Class<?>>)" );
             verifyEnlistment();
             wrappedConnection().setTypeMap( map );
         } catch ( SQLException se ) {
@@ -544,9 +635,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public int getTransactionIsolation() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getTransactionIsolation()" );
-            verifyEnlistment();
-            return wrappedConnection().getTransactionIsolation();
+            trace( "getTransactionIsolation()" );
+            handler.verifyEnlistment();
+            return sessionAttribute( DirtyAttribute.TRANSACTION_ISOLATION, wrappedConnection()::getTransactionIsolation );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -556,10 +647,13 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setTransactionIsolation(int level) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setTransactionIsolation(int)" );
-            verifyEnlistment();
-            handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.TRANSACTION_ISOLATION );
-            wrappedConnection().setTransactionIsolation( level );
+            trace( "setTransactionIsolation(int)" );
+            handler.verifyEnlistment();
+            if ( !hasSessionAttribute( DirtyAttribute.TRANSACTION_ISOLATION, level ) && !deferSessionAttribute( DirtyAttribute.TRANSACTION_ISOLATION, level ) ) {
+                handler.setDirtyAttribute( DirtyAttribute.TRANSACTION_ISOLATION );
+                wrappedConnection().setTransactionIsolation( level );
+                handler.setSessionAttribute( DirtyAttribute.TRANSACTION_ISOLATION, level );
+            }
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -569,7 +663,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public SQLWarning getWarnings() throws SQLException {
         try {
-            handler.traceConnectionOperation( "getWarnings()" );
+            trace( "getWarnings()" );
             verifyEnlistment();
             return wrappedConnection().getWarnings();
         } catch ( SQLException se ) {
@@ -581,7 +675,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public boolean isClosed() throws SQLException {
         try {
-            handler.traceConnectionOperation( "isClosed()" );
+            trace( "isClosed()" );
             return wrappedConnection().isClosed();
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
@@ -592,9 +686,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public boolean isReadOnly() throws SQLException {
         try {
-            handler.traceConnectionOperation( "isReadOnly()" );
-            verifyEnlistment();
-            return wrappedConnection().isReadOnly();
+            trace( "isReadOnly()" );
+            handler.verifyEnlistment();
+            return sessionAttribute( DirtyAttribute.READ_ONLY, wrappedConnection()::isReadOnly );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -604,11 +698,14 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setReadOnly(boolean readOnly) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setReadOnly(boolean)" );
+            trace( "setReadOnly(boolean)" );
             handler.verifyReadOnly( readOnly );
-            verifyEnlistment();
-            handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.READ_ONLY );
-            wrappedConnection().setReadOnly( readOnly );
+            handler.verifyEnlistment();
+            if ( !hasSessionAttribute( DirtyAttribute.READ_ONLY, readOnly ) && !deferSessionAttribute( DirtyAttribute.READ_ONLY, readOnly ) ) {
+                handler.setDirtyAttribute( DirtyAttribute.READ_ONLY );
+                wrappedConnection().setReadOnly( readOnly );
+                handler.setSessionAttribute( DirtyAttribute.READ_ONLY, readOnly );
+            }
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -618,7 +715,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public boolean isValid(int timeout) throws SQLException {
         try {
-            handler.traceConnectionOperation( "isValid(int)" );
+            trace( "isValid(int)" );
             verifyEnlistment();
             return wrappedConnection().isValid( timeout );
         } catch ( SQLException se ) {
@@ -630,7 +727,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public String nativeSQL(String sql) throws SQLException {
         try {
-            handler.traceConnectionOperation( "nativeSQL(String)" );
+            trace( "nativeSQL(String)" );
             verifyEnlistment();
             return wrappedConnection().nativeSQL( sql );
         } catch ( SQLException se ) {
@@ -642,9 +739,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public CallableStatement prepareCall(String sql) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareCall(String)" );
+            trace( "prepareCall(String)" );
             verifyEnlistment();
-            return trackCallableStatement( wrappedConnection().prepareCall( sql ) );
+            return useStatementCache() ? cachedCallableStatement( StatementCache.Key.call( sql, holdState ), holdState ) : trackCallableStatement( wrappedConnection().prepareCall( sql ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -654,9 +751,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareCall(String, int, int)" );
+            trace( "prepareCall(String, int, int)" );
             verifyEnlistment();
-            return trackCallableStatement( wrappedConnection().prepareCall( sql, resultSetType, resultSetConcurrency ) );
+            return useStatementCache() ? cachedCallableStatement( StatementCache.Key.call( sql, resultSetType, resultSetConcurrency, holdState ), holdState ) : trackCallableStatement( wrappedConnection().prepareCall( sql, resultSetType, resultSetConcurrency ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -666,9 +763,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareCall(String, int, int, int)" );
+            trace( "prepareCall(String, int, int, int)" );
             verifyEnlistment();
-            return trackCallableStatement( wrappedConnection().prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT );
+            return useStatementCache() ? cachedCallableStatement( StatementCache.Key.call( sql, resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT ) : trackCallableStatement( wrappedConnection().prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -678,9 +775,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareStatement(String)" );
+            trace( "prepareStatement(String)" );
             verifyEnlistment();
-            return trackPreparedStatement( wrappedConnection().prepareStatement( sql ) );
+            return useStatementCache() ? cachedPreparedStatement( StatementCache.Key.of( sql, holdState ), holdState ) : trackPreparedStatement( wrappedConnection().prepareStatement( sql ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -690,9 +787,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareStatement(String, int, int)" );
+            trace( "prepareStatement(String, int, int)" );
             verifyEnlistment();
-            return trackPreparedStatement( wrappedConnection().prepareStatement( sql, resultSetType, resultSetConcurrency ) );
+            return useStatementCache() ? cachedPreparedStatement( StatementCache.Key.of( sql, resultSetType, resultSetConcurrency, holdState ), holdState ) : trackPreparedStatement( wrappedConnection().prepareStatement( sql, resultSetType, resultSetConcurrency ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -702,9 +799,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareStatement(String, int, int, int)" );
+            trace( "prepareStatement(String, int, int, int)" );
             verifyEnlistment();
-            return trackPreparedStatement( wrappedConnection().prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT );
+            return useStatementCache() ? cachedPreparedStatement( StatementCache.Key.of( sql, resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT ) : trackPreparedStatement( wrappedConnection().prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability ), resultSetHoldability == HOLD_CURSORS_OVER_COMMIT );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -714,9 +811,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareStatement(String, int)" );
+            trace( "prepareStatement(String, int)" );
             verifyEnlistment();
-            return trackPreparedStatement( wrappedConnection().prepareStatement( sql, autoGeneratedKeys ) );
+            return useStatementCache() ? cachedPreparedStatement( StatementCache.Key.withGeneratedKeys( sql, autoGeneratedKeys, holdState ), holdState ) : trackPreparedStatement( wrappedConnection().prepareStatement( sql, autoGeneratedKeys ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -726,9 +823,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareStatement(String, int[])" );
+            trace( "prepareStatement(String, int[])" );
             verifyEnlistment();
-            return trackPreparedStatement( wrappedConnection().prepareStatement( sql, columnIndexes ) );
+            return useStatementCache() ? cachedPreparedStatement( StatementCache.Key.withGeneratedKeys( sql, columnIndexes, holdState ), holdState ) : trackPreparedStatement( wrappedConnection().prepareStatement( sql, columnIndexes ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -738,9 +835,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
         try {
-            handler.traceConnectionOperation( "prepareStatement(String, String[])" );
+            trace( "prepareStatement(String, String[])" );
             verifyEnlistment();
-            return trackPreparedStatement( wrappedConnection().prepareStatement( sql, columnNames ) );
+            return useStatementCache() ? cachedPreparedStatement( StatementCache.Key.withGeneratedKeys( sql, columnNames, holdState ), holdState ) : trackPreparedStatement( wrappedConnection().prepareStatement( sql, columnNames ) );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
             throw se;
@@ -750,7 +847,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void releaseSavepoint(Savepoint savepoint) throws SQLException {
         try {
-            handler.traceConnectionOperation( "releaseSavepoint(Savepoint)" );
+            trace( "releaseSavepoint(Savepoint)" );
             verifyEnlistment();
             wrappedConnection().releaseSavepoint( savepoint );
         } catch ( SQLException se ) {
@@ -762,7 +859,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setClientInfo(String name, String value) throws SQLClientInfoException {
         try {
-            handler.traceConnectionOperation( "setClientInfo(String, String)" );
+            trace( "setClientInfo(String, String)" );
             verifyEnlistment();
             wrappedConnection().setClientInfo( name, value );
         } catch ( SQLClientInfoException sce ) {
@@ -777,7 +874,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Savepoint setSavepoint() throws SQLException {
         try {
-            handler.traceConnectionOperation( "setSavepoint()" );
+            trace( "setSavepoint()" );
             verifyEnlistment();
             return wrappedConnection().setSavepoint();
         } catch ( SQLException se ) {
@@ -789,7 +886,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public Savepoint setSavepoint(String name) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setSavepoint(String)" );
+            trace( "setSavepoint(String)" );
             verifyEnlistment();
             return wrappedConnection().setSavepoint( name );
         } catch ( SQLException se ) {
@@ -801,9 +898,9 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
         try {
-            handler.traceConnectionOperation( "setNetworkTimeout(Executor, int)" );
+            trace( "setNetworkTimeout(Executor, int)" );
             verifyEnlistment();
-            handler.setDirtyAttribute( ConnectionHandler.DirtyAttribute.NETWORK_TIMEOUT );
+            handler.setDirtyAttribute( DirtyAttribute.NETWORK_TIMEOUT );
             wrappedConnection().setNetworkTimeout( executor, milliseconds );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
@@ -817,7 +914,8 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @SuppressWarnings( "unchecked" )
     public <T> T unwrap(Class<T> target) throws SQLException {
         try {
-            handler.traceConnectionOperation( "unwrap(Class<T>)" );
+            trace( "unwrap(Class<T>)" );
+            handler.applyPendingAttributes(); // the application may use the unwrapped connection directly
             return wrappedConnection().unwrap( target );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
@@ -828,7 +926,7 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     @Override
     public boolean isWrapperFor(Class<?> target) throws SQLException {
         try {
-            handler.traceConnectionOperation( "isWrapperFor(Class<?>)" );
+            trace( "isWrapperFor(Class<?>)" );
             return wrappedConnection().isWrapperFor( target );
         } catch ( SQLException se ) {
             handler.setFlushOnly( se );
@@ -859,11 +957,13 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
 
     // --- //
 
-    void pruneClosedStatements() {
+    void afterStatementClose() throws SQLException {
         if ( trackedStatements != null ) {
-            trackedStatements.pruneClosed();
             if ( trackedStatements.isElementListEmpty() ) {
                 holdState = false; // unset hold status
+                if ( logicalConnection != null ) {
+                    logicalConnection.onStatementsClosed( this );
+                }
             }
         }
     }
@@ -877,5 +977,4 @@ public final class ConnectionWrapper extends AutoCloseableElement<ConnectionWrap
     protected boolean internalClosed() {
         return wrappedConnection() == ClosedConnection.INSTANCE;
     }
-
 }
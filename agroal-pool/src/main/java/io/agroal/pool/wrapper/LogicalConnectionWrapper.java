@@ -0,0 +1,460 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.pool.wrapper;
+
+import io.agroal.api.configuration.AgroalConnectionFactoryConfiguration;
+import io.agroal.pool.Pool;
+import io.agroal.pool.wrapper.closed.ClosedConnection;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Connection handed to the application when acquisition is lazy. A connection is only acquired from the pool on first use, and returned on close.
+ * Session attributes set before that are recorded and applied once the connection is acquired, and getters of attributes with a configured default are answered without acquiring.
+ * Commit and rollback before acquiring have no work to act upon and do nothing.
+ * <p>
+ * With statement release, the connection is returned to the pool when all of it's statements are closed, if it is in auto-commit mode and not enlisted in a transaction.
+ * The next statement acquires a connection again, with the attributes set by the application. Statements must not be used after they are closed, as usual.
+ *
+ * @author <a href="agent@local">agent</a>
+ */
+public final class LogicalConnectionWrapper implements Connection {
+
+    private final Pool pool;
+    private final boolean statementRelease;
+
+    // null until acquired, ClosedConnection once closed
+    private Connection connection;
+
+    private Boolean autoCommit;
+    private Boolean readOnly;
+    private Integer transactionIsolation;
+    private Integer holdability;
+    private String schema;
+    private String catalog;
+
+    public LogicalConnectionWrapper(Pool pool, boolean statementRelease) {
+        this.pool = pool;
+        this.statementRelease = statementRelease;
+    }
+
+    public boolean isAcquired() {
+        return connection != null && connection != ClosedConnection.INSTANCE;
+    }
+
+    @SuppressWarnings( "MagicConstant" )
+    private Connection connection() throws SQLException {
+        if ( connection == null ) {
+            Connection acquired = pool.getConnection();
+            try {
+                if ( autoCommit != null ) {
+                    acquired.setAutoCommit( autoCommit );
+                }
+                if ( readOnly != null ) {
+                    acquired.setReadOnly( readOnly );
+                }
+                if ( transactionIsolation != null ) {
+                    acquired.setTransactionIsolation( transactionIsolation );
+                }
+                if ( holdability != null ) {
+                    acquired.setHoldability( holdability );
+                }
+                if ( schema != null ) {
+                    acquired.setSchema( schema );
+                }
+                if ( catalog != null ) {
+                    acquired.setCatalog( catalog );
+                }
+            } catch ( SQLException se ) {
+                acquired.close();
+                throw se;
+            }
+            if ( acquired instanceof ConnectionWrapper wrapper ) {
+                wrapper.setLogicalConnection( this );
+            }
+            connection = acquired;
+        }
+        return connection;
+    }
+
+    /**
+     * Returns the connection to the pool if there is no ongoing work on it. Called by the acquired connection once all of it's statements are closed.
+     */
+    void onStatementsClosed(ConnectionWrapper acquired) throws SQLException {
+        if ( !statementRelease || connection != acquired || acquired.isClosed() || !acquired.getAutoCommit() || acquired.getHandler().isEnlisted() ) {
+            return;
+        }
+        connection = null;
+        acquired.close();
+    }
+
+    private AgroalConnectionFactoryConfiguration factoryConfiguration() {
+        return pool.getConfiguration().connectionFactoryConfiguration();
+    }
+
+    // --- //
+
+    @Override
+    public void close() throws SQLException {
+        Connection acquired = connection;
+        connection = ClosedConnection.INSTANCE;
+        if ( acquired != null ) {
+            acquired.close();
+        }
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        Connection acquired = connection;
+        connection = ClosedConnection.INSTANCE;
+        if ( acquired != null ) {
+            acquired.abort( executor );
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return connection != null && connection.isClosed();
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if ( connection != null ) {
+            connection.setAutoCommit( autoCommit );
+        }
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        if ( connection == null ) {
+            return autoCommit == null ? factoryConfiguration().autoCommit() : autoCommit;
+        }
+        return connection.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        if ( connection != null ) {
+            connection.commit();
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        if ( connection != null ) {
+            connection.rollback();
+        }
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        if ( connection != null ) {
+            connection.setReadOnly( readOnly );
+        } else if ( factoryConfiguration().readOnly() && !readOnly ) {
+            throw new SQLException( "Attempted to modify read-only state of read-only connection" );
+        }
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        if ( connection == null ) {
+            return readOnly == null ? factoryConfiguration().readOnly() : readOnly;
+        }
+        return connection.isReadOnly();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        if ( connection != null ) {
+            connection.setTransactionIsolation( level );
+        }
+        transactionIsolation = level;
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        if ( connection == null ) {
+            if ( transactionIsolation != null ) {
+                return transactionIsolation;
+            }
+            if ( factoryConfiguration().jdbcTransactionIsolation().isDefined() ) {
+                return factoryConfiguration().jdbcTransactionIsolation().level();
+            }
+        }
+        return connection().getTransactionIsolation();
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        if ( connection != null ) {
+            connection.setHoldability( holdability );
+        }
+        this.holdability = holdability;
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        if ( connection == null && holdability != null ) {
+            return holdability;
+        }
+        return connection().getHoldability();
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        if ( connection != null ) {
+            connection.setSchema( schema );
+        }
+        this.schema = schema;
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        if ( connection == null && schema != null ) {
+            return schema;
+        }
+        return connection().getSchema();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        if ( connection != null ) {
+            connection.setCatalog( catalog );
+        }
+        this.catalog = catalog;
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        if ( connection == null && catalog != null ) {
+            return catalog;
+        }
+        return connection().getCatalog();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return connection == null ? null : connection.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        if ( connection != null ) {
+            connection.clearWarnings();
+        }
+    }
+
+    // --- //
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return connection().createStatement();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return connection().createStatement( resultSetType, resultSetConcurrency );
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return connection().createStatement( resultSetType, resultSetConcurrency, resultSetHoldability );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return connection().prepareStatement( sql );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return connection().prepareStatement( sql, resultSetType, resultSetConcurrency );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return connection().prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return connection().prepareStatement( sql, autoGeneratedKeys );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return connection().prepareStatement( sql, columnIndexes );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return connection().prepareStatement( sql, columnNames );
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return connection().prepareCall( sql );
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return connection().prepareCall( sql, resultSetType, resultSetConcurrency );
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return connection().prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return connection().nativeSQL( sql );
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return connection().getMetaData();
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return connection().getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        connection().setTypeMap( map );
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        return connection().setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        return connection().setSavepoint( name );
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        connection().rollback( savepoint );
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        connection().releaseSavepoint( savepoint );
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return connection().createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return connection().createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return connection().createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return connection().createSQLXML();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return connection().createArrayOf( typeName, elements );
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        return connection().createStruct( typeName, attributes );
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return connection().isValid( timeout );
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        try {
+            connection().setClientInfo( name, value );
+        } catch ( SQLClientInfoException se ) {
+            throw se;
+        } catch ( SQLException se ) {
+            throw new SQLClientInfoException( se.getMessage(), null, se );
+        }
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        try {
+            connection().setClientInfo( properties );
+        } catch ( SQLClientInfoException se ) {
+            throw se;
+        } catch ( SQLException se ) {
+            throw new SQLClientInfoException( se.getMessage(), null, se );
+        }
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return connection().getClientInfo( name );
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return connection().getClientInfo();
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        connection().setNetworkTimeout( executor, milliseconds );
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return connection().getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> target) throws SQLException {
+        return connection().unwrap( target );
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> target) throws SQLException {
+        return connection().isWrapperFor( target );
+    }
+
+    @Override
+    public String toString() {
+        return "logical[" + ( connection == null ? "not acquired" : connection ) + "]";
+    }
+}
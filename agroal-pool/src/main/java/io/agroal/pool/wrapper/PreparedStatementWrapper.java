@@ -3,6 +3,7 @@
 
 package io.agroal.pool.wrapper;
 
+import io.agroal.pool.StatementCache;
 import io.agroal.pool.util.AutoCloseableElement;
 import io.agroal.pool.wrapper.closed.ClosedPreparedStatement;
 
@@ -26,6 +27,7 @@ import java.sql.RowId;
 import java.sql.SQLException;
 import java.sql.SQLType;
 import java.sql.SQLXML;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Calendar;
@@ -56,9 +58,19 @@ public final class PreparedStatementWrapper extends StatementWrapper implements
     @SuppressWarnings( "unused" )
     private PreparedStatement wrappedStatement;
 
-    public PreparedStatementWrapper(ConnectionWrapper connectionWrapper, PreparedStatement statement, boolean trackJdbcResources, AutoCloseableElement head, boolean defaultHoldability) {
+    // key and entry of the statement in the statement cache of the connection, null if not cached
+    private final StatementCache.Key cacheKey;
+    private final StatementCache.Entry cacheEntry;
+
+    public PreparedStatementWrapper(ConnectionWrapper connectionWrapper, PreparedStatement statement, boolean trackJdbcResources, AutoCloseableElement<?> head, boolean defaultHoldability) {
+        this( connectionWrapper, statement, trackJdbcResources, head, defaultHoldability, null, null );
+    }
+
+    public PreparedStatementWrapper(ConnectionWrapper connectionWrapper, PreparedStatement statement, boolean trackJdbcResources, AutoCloseableElement<?> head, boolean defaultHoldability, StatementCache.Key key, StatementCache.Entry entry) {
         super( connectionWrapper, statement, trackJdbcResources, head, defaultHoldability );
         WRAPPED.setRelease( this, statement );
+        cacheKey = key;
+        cacheEntry = entry;
     }
 
     @Override
@@ -67,6 +79,15 @@ public final class PreparedStatementWrapper extends StatementWrapper implements
         super.close();
     }
 
+    @Override
+    protected void closeWrappedStatement(Statement statement) throws SQLException {
+        if ( cacheKey == null || isEscapeProcessingChanged() ) {
+            statement.close();
+        } else {
+            connection.getHandler().getStatementCache().release( cacheKey, cacheEntry );
+        }
+    }
+
     // --- //
 
     @Override
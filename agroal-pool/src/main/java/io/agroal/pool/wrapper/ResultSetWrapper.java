@@ -56,17 +56,23 @@ public final class ResultSetWrapper extends AutoCloseableElement<ResultSetWrappe
 
     private final StatementWrapper statement;
 
+    // enlistment is only verified for result sets held over commit
+    private final boolean holdState;
+
     @SuppressWarnings( "unused" )
     private ResultSet wrappedResultSet;
 
-    public ResultSetWrapper(StatementWrapper statementWrapper, ResultSet resultSet, AutoCloseableElement<ResultSetWrapper> head, boolean defaultHold) {
+    public ResultSetWrapper(StatementWrapper statementWrapper, ResultSet resultSet, AutoCloseableElement<?> head, boolean defaultHold) {
         super( head );
         statement = statementWrapper;
+        holdState = defaultHold;
         WRAPPED.setRelease( this, resultSet );
     }
 
     private void verifyEnlistment() throws SQLException {
-        statement.verifyEnlistment();
+        if ( holdState ) {
+            statement.verifyEnlistment();
+        }
     }
 
     @Override
@@ -78,8 +84,8 @@ public final class ResultSetWrapper extends AutoCloseableElement<ResultSetWrappe
             throw se;
         } finally {
             WRAPPED.setRelease( this, ClosedResultSet.INSTANCE );
-            pruneClosed();
-            statement.pruneClosedResultSets();
+            unregister();
+            statement.afterResultSetClose();
         }
     }
 
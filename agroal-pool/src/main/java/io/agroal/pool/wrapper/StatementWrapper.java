@@ -3,6 +3,7 @@
 
 package io.agroal.pool.wrapper;
 
+import io.agroal.pool.Pool;
 import io.agroal.pool.util.AutoCloseableElement;
 import io.agroal.pool.wrapper.closed.ClosedStatement;
 
@@ -40,8 +41,8 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
     @SuppressWarnings( "ProtectedField" )
     protected final ConnectionWrapper connection;
 
-    // Collection of ResultSet to close them on close(). If null ResultSet are not tracked.
-    private final AutoCloseableElement<ResultSetWrapper> trackedResultSets;
+    // Head of the collection of ResultSet to close them on close(), which is this wrapper. If null ResultSet are not tracked.
+    private final AutoCloseableElement<?> trackedResultSets;
 
     // tracks the current holdability state of this statement
     private final boolean holdState;
@@ -49,14 +50,17 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
     // tracks the state of closeOnCompletion
     private boolean closeOnCompletionState;
 
+    // escape processing can't be read back from the statement, so it's not possible to restore it before reuse
+    private boolean escapeProcessingChanged;
+
     @SuppressWarnings( "unused" )
     private Statement wrappedStatement;
 
-    public StatementWrapper(ConnectionWrapper connectionWrapper, Statement statement, boolean trackResources, AutoCloseableElement<StatementWrapper> head, boolean defaultHold) {
+    public StatementWrapper(ConnectionWrapper connectionWrapper, Statement statement, boolean trackResources, AutoCloseableElement<?> head, boolean defaultHold) {
         super( head );
         connection = connectionWrapper;
         WRAPPED.setRelease( this, statement );
-        trackedResultSets = trackResources ? newHead() : null;
+        trackedResultSets = trackResources ? this : null;
         holdState = defaultHold;
     }
 
@@ -68,7 +72,29 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
         }
     }
 
-    protected ResultSet trackResultSet(ResultSet resultSet) {
+    protected ResultSet trackResultSet(ResultSet resultSet) throws SQLException {
+        Pool pool = connection.getHandler().getConnectionPool();
+        int maxRows = pool.getConfiguration().connectionFactoryConfiguration().detachedResultSetMaxRows();
+        if ( maxRows > 0 && resultSet != null && BufferedResultSet.canBuffer( resultSet ) ) {
+            BufferedResultSet bufferedResultSet = new BufferedResultSet( this, resultSet, pool.getResultSetMemory() );
+            try {
+                if ( bufferedResultSet.fill( resultSet, maxRows ) ) {
+                    resultSet.close();
+                    pool.getMetrics().afterResultSetDetached();
+                    return bufferedResultSet;
+                }
+            } catch ( SQLException se ) {
+                bufferedResultSet.close();
+                throw se;
+            }
+            // the rows that did not fit in the buffer are read from the database, so it's closed with this statement
+            bufferedResultSet.setRemainder( resultSet );
+            return wrapResultSet( bufferedResultSet );
+        }
+        return wrapResultSet( resultSet );
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet) {
         if ( trackedResultSets != null && resultSet != null ) {
             return new ResultSetWrapper( this, resultSet, trackedResultSets, holdState );
         }
@@ -86,18 +112,32 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
                 if ( trackedResultSets != null ) {
                     connection.addLeakedResultSets( trackedResultSets.closeAllAutocloseableElements() );
                 }
-                wrappedStatement().close();
+                closeWrappedStatement( wrappedStatement() );
             }
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
         } finally {
             WRAPPED.setRelease( this, ClosedStatement.INSTANCE );
-            pruneClosed();
-            connection.pruneClosedStatements();
+            unregister();
+            connection.afterStatementClose();
         }
     }
 
+    /**
+     * If the application changed escape processing on this statement.
+     */
+    protected boolean isEscapeProcessingChanged() {
+        return escapeProcessingChanged;
+    }
+
+    /**
+     * Closes the underlying statement. Subclasses may keep it open for reuse instead.
+     */
+    protected void closeWrappedStatement(Statement statement) throws SQLException {
+        statement.close();
+    }
+
     // --- //
 
     @Override
@@ -182,6 +222,7 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
         try {
             verifyEnlistment();
             wrappedStatement().setEscapeProcessing( enable );
+            escapeProcessingChanged = true;
         } catch ( SQLException se ) {
             connection.getHandler().setFlushOnly( se );
             throw se;
@@ -378,7 +419,7 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
     @Override
     public final Connection getConnection() throws SQLException {
         verifyEnlistment();
-        return connection;
+        return connection.applicationConnection();
     }
 
     @Override
@@ -663,9 +704,8 @@ public class StatementWrapper extends AutoCloseableElement<StatementWrapper> imp
         return "wrapped[ " + wrappedStatement() + " ]";
     }
 
-    void pruneClosedResultSets() {
+    void afterResultSetClose() {
         if ( trackedResultSets != null ) {
-            trackedResultSets.pruneClosed();
             if  ( closeOnCompletionState && trackedResultSets.isElementListEmpty() ) {
                 try {
                     close();
@@ -37,8 +37,8 @@ public final class XAConnectionWrapper extends AutoCloseableElement<XAConnection
 
     // --- //
 
-    // Collection of XAResources to close them on close(). If null Statements are not tracked.
-    private final AutoCloseableElement<XAResourceWrapper> trackedXAResources;
+    // Head of the collection of XAResources to close them on close(), which is this wrapper. If null Statements are not tracked.
+    private final AutoCloseableElement<?> trackedXAResources;
 
     private final ConnectionHandler handler;
 
@@ -49,7 +49,7 @@ public final class XAConnectionWrapper extends AutoCloseableElement<XAConnection
         super( null );
         handler = connectionHandler;
         WRAPPED.setRelease( this, xaConnection );
-        trackedXAResources = trackResources ? newHead() : null;
+        trackedXAResources = trackResources ? this : null;
     }
 
     private XAResource trackXAResource(XAResource resource) {
@@ -37,7 +37,7 @@ public class XAResourceWrapper extends AutoCloseableElement<XAResourceWrapper> i
     @SuppressWarnings( "unused" )
     private XAResource wrappedXAResource;
 
-    public XAResourceWrapper(ConnectionHandler connectionHandler, XAResource resource, AutoCloseableElement<XAResourceWrapper> head) {
+    public XAResourceWrapper(ConnectionHandler connectionHandler, XAResource resource, AutoCloseableElement<?> head) {
         super( head );
         handler = connectionHandler;
         WRAPPED.setRelease( this, resource );
@@ -58,6 +58,7 @@ public class XAResourceWrapper extends AutoCloseableElement<XAResourceWrapper> i
         handler.traceConnectionOperation( "xaResource.close()" );
         if ( wrappedXAResource() != ClosedXAResource.INSTANCE ) {
             WRAPPED.setRelease( this, ClosedXAResource.INSTANCE );
+            unregister();
         }
     }
 
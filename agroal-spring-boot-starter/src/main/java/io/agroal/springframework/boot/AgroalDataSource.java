@@ -3,9 +3,12 @@
 
 package io.agroal.springframework.boot;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSourceListener;
 import io.agroal.api.AgroalDataSourceMetrics;
+import io.agroal.api.AgroalPoolEvent;
 import io.agroal.api.AgroalPoolInterceptor;
+import io.agroal.api.AgroalPoolSnapshot;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration.ConnectionValidator;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration.ExceptionSorter;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration.MultipleAcquisitionAction;
@@ -154,6 +157,10 @@ public class AgroalDataSource implements io.agroal.api.AgroalDataSource, Initial
         connectionPoolConfiguration.validationTimeout( Duration.ofSeconds( timeout ) );
     }
 
+    public void setMetricsHistory(int history) {
+        connectionPoolConfiguration.metricsHistory( Duration.ofSeconds( history ) );
+    }
+
     public void setJtaTransactionIntegration(TransactionIntegration transactionIntegration) {
         connectionPoolConfiguration.transactionIntegration( transactionIntegration );
     }
@@ -175,10 +182,42 @@ public class AgroalDataSource implements io.agroal.api.AgroalDataSource, Initial
         connectionPoolConfiguration.enhancedLeakReport( enhanced );
     }
 
+    public void setEnhancedLeakReportSampling(int sampling) {
+        connectionPoolConfiguration.enhancedLeakReportSampling( sampling );
+    }
+
+    public void setReclaimUnreachable(boolean reclaim) {
+        connectionPoolConfiguration.reclaimUnreachable( reclaim );
+    }
+
+    public void setFlightRecorderSize(int size) {
+        connectionPoolConfiguration.flightRecorderSize( size );
+    }
+
+    public void setAsyncListenerBufferSize(int size) {
+        connectionPoolConfiguration.asyncListenerBufferSize( size );
+    }
+
     public void setFlushOnClose(boolean flush) {
         connectionPoolConfiguration.flushOnClose( flush );
     }
 
+    public void setLazyReset(boolean lazy) {
+        connectionPoolConfiguration.lazyReset( lazy );
+    }
+
+    public void setAsyncReturn(boolean async) {
+        connectionPoolConfiguration.asyncReturn( async );
+    }
+
+    public void setLazyAcquisition(boolean lazy) {
+        connectionPoolConfiguration.lazyAcquisition( lazy );
+    }
+
+    public void setStatementRelease(boolean release) {
+        connectionPoolConfiguration.statementRelease( release );
+    }
+
     public void setRecoveryEnable(boolean recovery) {
         connectionPoolConfiguration.recoveryEnable( recovery );
     }
@@ -255,6 +294,10 @@ public class AgroalDataSource implements io.agroal.api.AgroalDataSource, Initial
         connectionFactoryConfiguration.initialSql( initialSql );
     }
 
+    public void setInitialPreparedStatements(List<String> initialPreparedStatements) {
+        initialPreparedStatements.forEach( connectionFactoryConfiguration::addInitialPreparedStatement );
+    }
+
     public void setAutoCommit(boolean autoCommit) {
         connectionFactoryConfiguration.autoCommit( autoCommit );
     }
@@ -267,6 +310,18 @@ public class AgroalDataSource implements io.agroal.api.AgroalDataSource, Initial
         connectionFactoryConfiguration.trackJdbcResources( track );
     }
 
+    public void setPreparedStatementCacheSize(int size) {
+        connectionFactoryConfiguration.preparedStatementCacheSize( size );
+    }
+
+    public void setDetachedResultSetMaxRows(int rows) {
+        connectionFactoryConfiguration.detachedResultSetMaxRows( rows );
+    }
+
+    public void setDetachedResultSetMaxMemory(long bytes) {
+        connectionFactoryConfiguration.detachedResultSetMaxMemory( bytes );
+    }
+
     public void setPoolRecovery(boolean poolRecovery) {
         connectionFactoryConfiguration.poolRecovery( poolRecovery );
     }
@@ -321,6 +376,16 @@ public class AgroalDataSource implements io.agroal.api.AgroalDataSource, Initial
         return delegate.isHealthy( newConnection );
     }
 
+    @Override
+    public AgroalPoolSnapshot getSnapshot() {
+        return delegate.getSnapshot();
+    }
+
+    @Override
+    public List<AgroalPoolEvent> dumpFlightRecorder() {
+        return delegate.dumpFlightRecorder();
+    }
+
     @Override
     public List<AgroalPoolInterceptor> getPoolInterceptors() {
         return delegate.getPoolInterceptors();
@@ -355,6 +420,11 @@ public class AgroalDataSource implements io.agroal.api.AgroalDataSource, Initial
         return delegate.getReadOnlyConnection();
     }
 
+    @Override
+    public Connection getConnection(AgroalConnectionLabels labels) throws SQLException {
+        return delegate.getConnection( labels );
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
@@ -9,6 +9,7 @@ import org.jspecify.annotations.Nullable;
 import org.springframework.boot.jdbc.DataSourceUnwrapper;
 import org.springframework.jdbc.datasource.IsolationLevelDataSourceAdapter;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSource;
 
 public class AgroalIsolationLevelDataSourceAdapter extends IsolationLevelDataSourceAdapter {
@@ -22,12 +23,16 @@ public class AgroalIsolationLevelDataSourceAdapter extends IsolationLevelDataSou
         AgroalDataSource agroalDataSource = DataSourceUnwrapper.unwrap( obtainTargetDataSource(), AgroalDataSource.class );
         if ( agroalDataSource != null ) {
             Boolean readOnlyToUse = getCurrentReadOnlyFlag();
-            Connection con = readOnlyToUse == null ? agroalDataSource.getConnection() : agroalDataSource.getReadOnlyConnection();
             Integer isolationLevelToUse = getCurrentIsolationLevel();
-            if ( isolationLevelToUse != null ) {
-                con.setTransactionIsolation( isolationLevelToUse );
+            if ( isolationLevelToUse == null ) {
+                return readOnlyToUse == null ? agroalDataSource.getConnection() : agroalDataSource.getReadOnlyConnection();
             }
-            return con;
+            // prefer a connection that already has the isolation level
+            AgroalConnectionLabels labels = new AgroalConnectionLabels().transactionIsolation( isolationLevelToUse );
+            if ( readOnlyToUse != null ) {
+                labels.readOnly( true );
+            }
+            return agroalDataSource.getConnection( labels );
         }
         return super.doGetConnection( username, password );
     }
@@ -3,6 +3,7 @@
 
 package io.agroal.springframework.boot.metrics;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import io.agroal.api.AgroalDataSource;
@@ -10,6 +11,7 @@ import io.agroal.api.AgroalDataSourceMetrics;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.binder.MeterBinder;
 
 public class AgroalDataSourcePoolMetrics implements MeterBinder {
@@ -33,13 +35,29 @@ public class AgroalDataSourcePoolMetrics implements MeterBinder {
     private static final String METRIC_BLOCKING_TIME_MAX = AGROAL_METRIC_NAME_PREFIX + ".blocking.time.max";
     private static final String METRIC_BLOCKING_TIME_TOTAL = AGROAL_METRIC_NAME_PREFIX + ".blocking.time.total";
     private static final String METRIC_AWAITING_COUNT = AGROAL_METRIC_NAME_PREFIX + ".awaiting.count";
+    private static final String METRIC_ACQUIRE_TIMER = AGROAL_METRIC_NAME_PREFIX + ".connections.acquire";
+    private static final String METRIC_CREATION_TIMER = AGROAL_METRIC_NAME_PREFIX + ".connections.creation";
+    private static final String METRIC_HOLD_TIMER = AGROAL_METRIC_NAME_PREFIX + ".connections.hold";
 
     private final String name;
     private final AgroalDataSource dataSource;
+    private final Duration[] serviceLevelObjectives;
+    private final double[] percentiles;
+    private final boolean percentileHistogram;
 
     public AgroalDataSourcePoolMetrics(String name, AgroalDataSource dataSource) {
+        this(name, dataSource, new Duration[0], new double[0], false);
+    }
+
+    /**
+     * The timers for acquisition, creation and hold time publish the given SLO buckets and percentiles, and optionally a percentile histogram.
+     */
+    public AgroalDataSourcePoolMetrics(String name, AgroalDataSource dataSource, Duration[] serviceLevelObjectives, double[] percentiles, boolean percentileHistogram) {
         this.name = name;
         this.dataSource = dataSource;
+        this.serviceLevelObjectives = serviceLevelObjectives.clone();
+        this.percentiles = percentiles.clone();
+        this.percentileHistogram = percentileHistogram;
     }
 
     @Override
@@ -113,5 +131,36 @@ public class AgroalDataSourcePoolMetrics implements MeterBinder {
                 .description("Approximate number of threads blocked, waiting to acquire a connection")
                 .tags(METRIC_CATEGORY, name)
                 .register(registry);
+
+        // timers are fed by the pool on every operation, instead of being polled
+        Timer acquireTimer = timer(METRIC_ACQUIRE_TIMER, "Time an application waited to acquire a connection", registry);
+        Timer creationTimer = timer(METRIC_CREATION_TIMER, "Time for a connection to be created", registry);
+        Timer holdTimer = timer(METRIC_HOLD_TIMER, "Time a connection was held by an application, from acquire until return", registry);
+        metrics.addRecorder(new AgroalDataSourceMetrics.MetricsRecorder() {
+            @Override
+            public void recordAcquisition(long nanos) {
+                acquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordCreation(long nanos) {
+                creationTimer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordHold(long nanos) {
+                holdTimer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private Timer timer(String metricName, String description, MeterRegistry registry) {
+        return Timer.builder(metricName)
+                .description(description)
+                .tags(METRIC_CATEGORY, name)
+                .serviceLevelObjectives(serviceLevelObjectives)
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
     }
 }
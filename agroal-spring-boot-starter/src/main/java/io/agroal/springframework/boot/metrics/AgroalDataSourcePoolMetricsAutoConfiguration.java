@@ -9,17 +9,20 @@ import io.agroal.springframework.boot.AgroalDataSourceAutoConfiguration;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.MeterBinder;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.SimpleAutowireCandidateResolver;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.boot.jdbc.DataSourceUnwrapper;
 import org.springframework.boot.micrometer.metrics.autoconfigure.CompositeMeterRegistryAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 
 import javax.sql.DataSource;
 
+import java.time.Duration;
 import java.util.Map;
 
 @AutoConfiguration( after = { AgroalDataSourceAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class } )
@@ -28,16 +31,34 @@ import java.util.Map;
 public class AgroalDataSourcePoolMetricsAutoConfiguration {
 
     @Bean
-    AgroalDataSourceMeterBinder agroalDataSourceMeterBinder( ConfigurableListableBeanFactory beanFactory ) {
-        return new AgroalDataSourceMeterBinder( SimpleAutowireCandidateResolver.resolveAutowireCandidates( beanFactory, DataSource.class, false, true ) );
+    AgroalDataSourceMeterBinder agroalDataSourceMeterBinder(
+            ConfigurableListableBeanFactory beanFactory,
+            @Value( "${spring.datasource.agroal.metrics-slo:}" ) String[] serviceLevelObjectives,
+            @Value( "${spring.datasource.agroal.metrics-percentiles:}" ) double[] percentiles,
+            @Value( "${spring.datasource.agroal.metrics-percentile-histogram:false}" ) boolean percentileHistogram ) {
+        Duration[] slo = new Duration[serviceLevelObjectives.length];
+        for ( int i = 0; i < slo.length; i++ ) {
+            slo[i] = DurationStyle.detectAndParse( serviceLevelObjectives[i].trim() );
+        }
+        return new AgroalDataSourceMeterBinder( SimpleAutowireCandidateResolver.resolveAutowireCandidates( beanFactory, DataSource.class, false, true ), slo, percentiles, percentileHistogram );
     }
 
     public static class AgroalDataSourceMeterBinder implements MeterBinder {
 
         private final Map<String, DataSource> dataSources;
+        private final Duration[] serviceLevelObjectives;
+        private final double[] percentiles;
+        private final boolean percentileHistogram;
 
         AgroalDataSourceMeterBinder( Map<String, DataSource> dataSources ) {
+            this( dataSources, new Duration[0], new double[0], false );
+        }
+
+        AgroalDataSourceMeterBinder( Map<String, DataSource> dataSources, Duration[] serviceLevelObjectives, double[] percentiles, boolean percentileHistogram ) {
             this.dataSources = dataSources;
+            this.serviceLevelObjectives = serviceLevelObjectives;
+            this.percentiles = percentiles;
+            this.percentileHistogram = percentileHistogram;
         }
 
         @Override
@@ -48,7 +69,7 @@ public class AgroalDataSourcePoolMetricsAutoConfiguration {
         private void bindDataSourceToRegistry( String name, DataSource dataSource, MeterRegistry registry ) {
             AgroalDataSource agroalDataSource = DataSourceUnwrapper.unwrap( dataSource, AgroalDataSource.class );
             if ( agroalDataSource != null && agroalDataSource.getMetrics() instanceof DefaultMetricsRepository ) {
-                new AgroalDataSourcePoolMetrics( name, agroalDataSource ).bindTo( registry );
+                new AgroalDataSourcePoolMetrics( name, agroalDataSource, serviceLevelObjectives, percentiles, percentileHistogram ).bindTo( registry );
             }
         }
     }
@@ -0,0 +1,556 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+import static java.lang.System.identityHashCode;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+public interface MockCallableStatement extends MockPreparedStatement, CallableStatement {
+
+    @Override
+    default Array getArray(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Array getArray(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default BigDecimal getBigDecimal(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default BigDecimal getBigDecimal(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    @Deprecated
+    default BigDecimal getBigDecimal(int parameterIndex, int scale) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Blob getBlob(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Blob getBlob(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default boolean getBoolean(String parameterName) throws SQLException {
+        return false;
+    }
+
+    @Override
+    default boolean getBoolean(int parameterIndex) throws SQLException {
+        return false;
+    }
+
+    @Override
+    default byte getByte(String parameterName) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default byte getByte(int parameterIndex) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default byte[] getBytes(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default byte[] getBytes(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Reader getCharacterStream(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Reader getCharacterStream(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Clob getClob(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Clob getClob(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Date getDate(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Date getDate(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Date getDate(String parameterName, Calendar cal) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Date getDate(int parameterIndex, Calendar cal) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default double getDouble(String parameterName) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default double getDouble(int parameterIndex) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default float getFloat(String parameterName) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default float getFloat(int parameterIndex) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default int getInt(String parameterName) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default int getInt(int parameterIndex) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default long getLong(String parameterName) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default long getLong(int parameterIndex) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default Reader getNCharacterStream(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Reader getNCharacterStream(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default NClob getNClob(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default NClob getNClob(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default String getNString(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default String getNString(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Object getObject(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Object getObject(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default <T> T getObject(String parameterName, Class<T> type) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Object getObject(String parameterName, Map<String, Class<?>> map) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default <T> T getObject(int parameterIndex, Class<T> type) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Object getObject(int parameterIndex, Map<String, Class<?>> map) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Ref getRef(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Ref getRef(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default RowId getRowId(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default RowId getRowId(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default SQLXML getSQLXML(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default SQLXML getSQLXML(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default short getShort(String parameterName) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default short getShort(int parameterIndex) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    default String getString(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default String getString(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Time getTime(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Time getTime(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Time getTime(String parameterName, Calendar cal) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Time getTime(int parameterIndex, Calendar cal) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Timestamp getTimestamp(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Timestamp getTimestamp(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Timestamp getTimestamp(String parameterName, Calendar cal) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default Timestamp getTimestamp(int parameterIndex, Calendar cal) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default URL getURL(String parameterName) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default URL getURL(int parameterIndex) throws SQLException {
+        return null;
+    }
+
+    @Override
+    default void registerOutParameter(String parameterName, int sqlType) throws SQLException {
+    }
+
+    @Override
+    default void registerOutParameter(int parameterIndex, int sqlType) throws SQLException {
+    }
+
+    @Override
+    default void registerOutParameter(String parameterName, int sqlType, String typeName) throws SQLException {
+    }
+
+    @Override
+    default void registerOutParameter(String parameterName, int sqlType, int scale) throws SQLException {
+    }
+
+    @Override
+    default void registerOutParameter(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    }
+
+    @Override
+    default void registerOutParameter(int parameterIndex, int sqlType, int scale) throws SQLException {
+    }
+
+    @Override
+    default void setAsciiStream(String parameterName, InputStream x) throws SQLException {
+    }
+
+    @Override
+    default void setAsciiStream(String parameterName, InputStream x, int length) throws SQLException {
+    }
+
+    @Override
+    default void setAsciiStream(String parameterName, InputStream x, long length) throws SQLException {
+    }
+
+    @Override
+    default void setBigDecimal(String parameterName, BigDecimal x) throws SQLException {
+    }
+
+    @Override
+    default void setBinaryStream(String parameterName, InputStream x) throws SQLException {
+    }
+
+    @Override
+    default void setBinaryStream(String parameterName, InputStream x, int length) throws SQLException {
+    }
+
+    @Override
+    default void setBinaryStream(String parameterName, InputStream x, long length) throws SQLException {
+    }
+
+    @Override
+    default void setBlob(String parameterName, InputStream x) throws SQLException {
+    }
+
+    @Override
+    default void setBlob(String parameterName, Blob x) throws SQLException {
+    }
+
+    @Override
+    default void setBlob(String parameterName, InputStream x, long length) throws SQLException {
+    }
+
+    @Override
+    default void setBoolean(String parameterName, boolean x) throws SQLException {
+    }
+
+    @Override
+    default void setByte(String parameterName, byte x) throws SQLException {
+    }
+
+    @Override
+    default void setBytes(String parameterName, byte[] x) throws SQLException {
+    }
+
+    @Override
+    default void setCharacterStream(String parameterName, Reader reader) throws SQLException {
+    }
+
+    @Override
+    default void setCharacterStream(String parameterName, Reader reader, int length) throws SQLException {
+    }
+
+    @Override
+    default void setCharacterStream(String parameterName, Reader reader, long length) throws SQLException {
+    }
+
+    @Override
+    default void setClob(String parameterName, Reader reader) throws SQLException {
+    }
+
+    @Override
+    default void setClob(String parameterName, Clob x) throws SQLException {
+    }
+
+    @Override
+    default void setClob(String parameterName, Reader reader, long length) throws SQLException {
+    }
+
+    @Override
+    default void setDate(String parameterName, Date x) throws SQLException {
+    }
+
+    @Override
+    default void setDate(String parameterName, Date x, Calendar cal) throws SQLException {
+    }
+
+    @Override
+    default void setDouble(String parameterName, double x) throws SQLException {
+    }
+
+    @Override
+    default void setFloat(String parameterName, float x) throws SQLException {
+    }
+
+    @Override
+    default void setInt(String parameterName, int x) throws SQLException {
+    }
+
+    @Override
+    default void setLong(String parameterName, long x) throws SQLException {
+    }
+
+    @Override
+    default void setNCharacterStream(String parameterName, Reader reader) throws SQLException {
+    }
+
+    @Override
+    default void setNCharacterStream(String parameterName, Reader reader, long length) throws SQLException {
+    }
+
+    @Override
+    default void setNClob(String parameterName, Reader reader) throws SQLException {
+    }
+
+    @Override
+    default void setNClob(String parameterName, NClob x) throws SQLException {
+    }
+
+    @Override
+    default void setNClob(String parameterName, Reader reader, long length) throws SQLException {
+    }
+
+    @Override
+    default void setNString(String parameterName, String x) throws SQLException {
+    }
+
+    @Override
+    default void setNull(String parameterName, int x) throws SQLException {
+    }
+
+    @Override
+    default void setNull(String parameterName, int x, String typeName) throws SQLException {
+    }
+
+    @Override
+    default void setObject(String parameterName, Object x) throws SQLException {
+    }
+
+    @Override
+    default void setObject(String parameterName, Object x, int targetSqlType) throws SQLException {
+    }
+
+    @Override
+    default void setObject(String parameterName, Object x, int targetSqlType, int scale) throws SQLException {
+    }
+
+    @Override
+    default void setRowId(String parameterName, RowId x) throws SQLException {
+    }
+
+    @Override
+    default void setSQLXML(String parameterName, SQLXML x) throws SQLException {
+    }
+
+    @Override
+    default void setShort(String parameterName, short x) throws SQLException {
+    }
+
+    @Override
+    default void setString(String parameterName, String x) throws SQLException {
+    }
+
+    @Override
+    default void setTime(String parameterName, Time x) throws SQLException {
+    }
+
+    @Override
+    default void setTime(String parameterName, Time x, Calendar cal) throws SQLException {
+    }
+
+    @Override
+    default void setTimestamp(String parameterName, Timestamp x) throws SQLException {
+    }
+
+    @Override
+    default void setTimestamp(String parameterName, Timestamp x, Calendar cal) throws SQLException {
+    }
+
+    @Override
+    default void setURL(String parameterName, URL x) throws SQLException {
+    }
+
+    @Override
+    default boolean wasNull() throws SQLException {
+        return false;
+    }
+
+// --- //
+
+    class Empty implements MockCallableStatement {
+
+        @Override
+        public String toString() {
+            return "MockCallableStatement@" + identityHashCode( this );
+        }
+    }
+}
@@ -42,7 +42,7 @@ public interface MockConnection extends Connection {
 
     @Override
     default CallableStatement prepareCall(String sql) throws SQLException {
-        return null;
+        return new MockCallableStatement.Empty();
     }
 
     @Override
@@ -129,7 +129,7 @@ public interface MockConnection extends Connection {
 
     @Override
     default CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-        return null;
+        return new MockCallableStatement.Empty();
     }
 
     @Override
@@ -180,7 +180,7 @@ public interface MockConnection extends Connection {
 
     @Override
     default CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-        return null;
+        return new MockCallableStatement.Empty();
     }
 
     @Override
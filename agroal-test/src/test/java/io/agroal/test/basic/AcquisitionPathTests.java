@@ -0,0 +1,129 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceMetrics;
+import io.agroal.api.cache.ConnectionCache;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.HANDOFF;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.INLINE_CREATION;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.LOCAL_CACHE;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.SHARED_SCAN;
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.TIMEOUT;
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static java.util.logging.Logger.getLogger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class AcquisitionPathTests {
+
+    private static final Logger logger = getLogger( AcquisitionPathTests.class.getName() );
+
+    private static final int TIMEOUT_MS = 50;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver();
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Acquisitions classified by path" )
+    void acquisitionPathTest() throws SQLException, InterruptedException, ExecutionException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .acquisitionTimeout( ofMillis( TIMEOUT_MS ) )
+                ) ) ) {
+            AgroalDataSourceMetrics metrics = dataSource.getMetrics();
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( 1, metrics.acquireCount( INLINE_CREATION ), "Expected first connection to be created inline" );
+
+                assertThrows( SQLException.class, dataSource::getConnection, "Expected acquisition timeout" );
+                assertEquals( 1, metrics.acquireCount( TIMEOUT ), "Expected acquisition timeout to be accounted" );
+                assertTrue( metrics.blockingTimeMax( TIMEOUT ).toMillis() >= TIMEOUT_MS, "Expected timeout latency to be at least the acquisition timeout" );
+
+                assertThrows( SQLException.class, () -> dataSource.isHealthy( false ), "Expected health check to timeout" );
+                assertEquals( 1, metrics.acquireCount( TIMEOUT ), "Expected health check not to be accounted as an acquisition" );
+            }
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( 1, metrics.acquireCount( LOCAL_CACHE ), "Expected connection from the local cache" );
+            }
+
+            CompletableFuture.runAsync( () -> {
+                try ( Connection c = dataSource.getConnection() ) {
+                    assertEquals( 1, metrics.acquireCount( SHARED_SCAN ), "Expected connection found on scan of the pool" );
+                } catch ( SQLException e ) {
+                    throw new RuntimeException( e );
+                }
+            } ).get();
+
+            logger.info( metrics.toString() );
+            assertEquals( 3, metrics.acquireCount(), "Expected successful acquisitions to add up" );
+            assertEquals( 0, metrics.acquireCount( HANDOFF ), "Expected no handoff" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Handoff of a returned connection to a waiting thread" )
+    void handoffTest() throws SQLException, InterruptedException, ExecutionException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionCache( ConnectionCache.none() )
+                        .acquisitionTimeout( ofSeconds( 5 ) )
+                ) ) ) {
+            AgroalDataSourceMetrics metrics = dataSource.getMetrics();
+
+            CompletableFuture<Void> waiter;
+            try ( Connection c = dataSource.getConnection() ) {
+                waiter = CompletableFuture.runAsync( () -> {
+                    try ( Connection other = dataSource.getConnection() ) {
+                        logger.info( "Got connection " + other );
+                    } catch ( SQLException e ) {
+                        throw new RuntimeException( e );
+                    }
+                } );
+                while ( dataSource.getMetrics().awaitingCount() == 0 ) {
+                    Thread.sleep( 10 );
+                }
+            }
+            waiter.get();
+
+            assertEquals( 1, metrics.acquireCount( HANDOFF ), "Expected connection handed over to the waiting thread" );
+        }
+    }
+}
@@ -0,0 +1,187 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceListener;
+import io.agroal.api.AgroalPoolInterceptor;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.test.MockConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.lang.System.nanoTime;
+import static java.text.MessageFormat.format;
+import static java.util.logging.Logger.getLogger;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class AllocationTests {
+
+    private static final Logger logger = getLogger( AllocationTests.class.getName() );
+
+    private static final int WARMUP = 200_000, ITERATIONS = 100_000;
+
+    // the connection wrapper handed to the application is the only object expected, with some margin for JVMs without compressed oops
+    private static final long MAX_BYTES_PER_CYCLE = 128;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver( MockConnection.Empty.class );
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Allocation per borrow of a connection" )
+    void borrowAllocationTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            double bytes = allocatedBytesPerCycle( () -> {
+                try ( Connection connection = dataSource.getConnection() ) {
+                    connection.getAutoCommit();
+                }
+            } );
+            logger.info( format( "Allocated {0} bytes per borrow", bytes ) );
+            assertTrue( bytes <= MAX_BYTES_PER_CYCLE, "Allocated " + bytes + " bytes per borrow" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Allocation per borrow of a connection with metrics, listeners and interceptors" )
+    void borrowDispatchAllocationTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ), new AcquireListener() ) ) {
+            dataSource.setPoolInterceptors( List.of( new AcquireInterceptor(), new AcquireInterceptor() ) );
+
+            double bytes = allocatedBytesPerCycle( () -> {
+                try ( Connection connection = dataSource.getConnection() ) {
+                    connection.getAutoCommit();
+                }
+            } );
+            logger.info( format( "Allocated {0} bytes per borrow", bytes ) );
+            assertTrue( bytes <= MAX_BYTES_PER_CYCLE, "Allocated " + bytes + " bytes per borrow" );
+            assertTrue( dataSource.getMetrics().acquireCount() >= WARMUP + ITERATIONS );
+        }
+    }
+
+    @Test
+    @DisplayName( "Allocation per borrow of a connection with several interceptors installed" )
+    void borrowInterceptorChainAllocationTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            CreateInterceptor createInterceptor = new CreateInterceptor();
+            dataSource.setPoolInterceptors( List.of( createInterceptor, new CreateInterceptor(), new CreateInterceptor(), new CreateInterceptor(), new AcquireInterceptor(), new AcquireInterceptor() ) );
+
+            long start = nanoTime();
+            double bytes = allocatedBytesPerCycle( () -> {
+                try ( Connection connection = dataSource.getConnection() ) {
+                    connection.getAutoCommit();
+                }
+            } );
+            logger.info( format( "Allocated {0} bytes per borrow, in {1} ns", bytes, ( nanoTime() - start ) / ( WARMUP + ITERATIONS ) ) );
+            assertTrue( bytes <= MAX_BYTES_PER_CYCLE, "Allocated " + bytes + " bytes per borrow" );
+            assertTrue( createInterceptor.count <= 1, "Expected create interceptor not to be invoked on acquisition" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Allocation per tracked statement" )
+    void statementAllocationTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            try ( Connection connection = dataSource.getConnection() ) {
+                double bytes = allocatedBytesPerCycle( () -> {
+                    try ( Statement statement = connection.createStatement() ) {
+                        statement.getMaxRows();
+                    }
+                } );
+                logger.info( format( "Allocated {0} bytes per statement", bytes ) );
+                // the mock statement is allocated as well
+                assertTrue( bytes <= 2 * MAX_BYTES_PER_CYCLE, "Allocated " + bytes + " bytes per statement" );
+            }
+        }
+    }
+
+    // --- //
+
+    /**
+     * Average number of bytes allocated by the current thread on each execution of a task, after some executions to warm up.
+     */
+    static double allocatedBytesPerCycle(SQLRunnable task) throws SQLException {
+        if ( !( ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean ) ) {
+            assumeTrue( false, "Thread allocated memory measurement not available" );
+            return 0;
+        }
+        assumeTrue( threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled(), "Thread allocated memory measurement not available" );
+
+        for ( int i = 0; i < WARMUP; i++ ) {
+            task.run();
+        }
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for ( int i = 0; i < ITERATIONS; i++ ) {
+            task.run();
+        }
+        return (double) ( threadMXBean.getCurrentThreadAllocatedBytes() - before ) / ITERATIONS;
+    }
+
+    @FunctionalInterface
+    interface SQLRunnable {
+        void run() throws SQLException;
+    }
+
+    private static class AcquireListener implements AgroalDataSourceListener {
+
+        private long count;
+
+        @Override
+        public void onConnectionAcquire(Connection connection) {
+            count++;
+        }
+    }
+
+    private static class AcquireInterceptor implements AgroalPoolInterceptor {
+
+        private long count;
+
+        @Override
+        public void onConnectionAcquire(Connection connection) {
+            count++;
+        }
+
+        @Override
+        public void onConnectionReturn(Connection connection) {
+            count--;
+        }
+    }
+
+    private static class CreateInterceptor implements AgroalPoolInterceptor {
+
+        private long count;
+
+        @Override
+        public void onConnectionCreate(Connection connection) {
+            count++;
+        }
+    }
+}
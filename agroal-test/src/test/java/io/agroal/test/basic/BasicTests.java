@@ -7,6 +7,7 @@ import io.agroal.api.AgroalDataSource;
 import io.agroal.api.AgroalDataSourceListener;
 import io.agroal.api.configuration.AgroalConnectionPoolConfiguration;
 import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.pool.wrapper.StatementWrapper;
 import io.agroal.test.MockConnection;
 import io.agroal.test.MockStatement;
 import org.junit.jupiter.api.AfterAll;
@@ -19,7 +20,11 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.LongAdder;
@@ -35,10 +40,12 @@ import static java.lang.Thread.currentThread;
 import static java.text.MessageFormat.format;
 import static java.time.Duration.ofMillis;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.logging.Logger.getLogger;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -333,6 +340,132 @@ public class BasicTests {
         }
     }
 
+    @Test
+    @DisplayName( "Enhanced leak report with sampling and recent operations" )
+    @SuppressWarnings( "JDBCResourceOpenedButNotSafelyClosed" )
+    void enhancedLeakReportSamplingTest() throws SQLException, InterruptedException {
+        int LEAK_DETECTION_MS = 500;
+
+        CountDownLatch latch = new CountDownLatch( 1 );
+        LeakDetectionListener listener = new LeakDetectionListener( currentThread(), latch );
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).leakTimeout( ofMillis( LEAK_DETECTION_MS ) ).enhancedLeakReport() ), listener ) ) {
+            Connection connection = dataSource.getConnection();
+            for ( int i = 0; i < 100; i++ ) {
+                connection.getSchema();
+            }
+            connection.isReadOnly();
+
+            if ( !latch.await( 3L * LEAK_DETECTION_MS, MILLISECONDS ) ) {
+                fail( format( "Missed detection of {0} leaks", latch.getCount() ) );
+            }
+            for ( int i = 0; i < 50 && listener.getInfo( "Operations executed" ) == null; i++ ) {
+                Thread.sleep( 20 ); // hold for a bit to allow for enhanced info
+            }
+
+            String acquisition = listener.getInfo( "Leaked connection " + connection.unwrap( Connection.class ) + " acquired at" );
+            assertNotNull( acquisition, "Expected acquisition stack trace on extended leak report" );
+            assertTrue( acquisition.contains( "enhancedLeakReportSamplingTest" ), "Expected acquisition site on the stack trace" );
+            assertFalse( acquisition.contains( "io.agroal.pool." ), "Expected pool frames to be omitted from the stack trace" );
+
+            String operations = listener.getInfo( "Operations executed" );
+            assertNotNull( operations, "Expected operations on extended leak report" );
+            String[] tracedOperations = operations.substring( operations.lastIndexOf( ": " ) + 2 ).split( ", " );
+            assertEquals( 32, tracedOperations.length, "Expected only the most recent operations" );
+            assertEquals( "isReadOnly()", tracedOperations[tracedOperations.length - 1] );
+        }
+
+        CountDownLatch sampledLatch = new CountDownLatch( 1 );
+        LeakDetectionListener sampledListener = new LeakDetectionListener( currentThread(), sampledLatch );
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).leakTimeout( ofMillis( LEAK_DETECTION_MS ) ).enhancedLeakReport().enhancedLeakReportSampling( Integer.MAX_VALUE ) ), sampledListener ) ) {
+            assertNotNull( dataSource.getConnection().getSchema() );
+
+            if ( !sampledLatch.await( 3L * LEAK_DETECTION_MS, MILLISECONDS ) ) {
+                fail( format( "Missed detection of {0} leaks", sampledLatch.getCount() ) );
+            }
+            Thread.sleep( 100 ); // hold for a bit to allow for enhanced info
+            assertEquals( 0, sampledListener.getInfoCount(), "Expected acquisition not to be sampled for extended leak report" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Unreachable connections are reclaimed" )
+    void reclaimUnreachableTest() throws SQLException, InterruptedException {
+        CountDownLatch latch = new CountDownLatch( 1 );
+        LeakDetectionListener listener = new LeakDetectionListener( currentThread(), latch );
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).reclaimUnreachable().acquisitionTimeout( ofMillis( 1000 ) ) ), listener ) ) {
+            Connection raw = leakConnection( dataSource );
+
+            for ( int i = 0; i < 50 && latch.getCount() > 0; i++ ) {
+                System.gc();
+                latch.await( 100, MILLISECONDS );
+            }
+            assertEquals( 0, latch.getCount(), "Expected unreachable connection to be reported as a leak" );
+
+            // the acquisition site is reported after the leak, and before the connection is flushed
+            for ( int i = 0; i < 50 && ( listener.getInfo( "Leaked connection " + raw ) == null || dataSource.getSnapshot().connectionCount() > 0 ); i++ ) {
+                Thread.sleep( 20 );
+            }
+            assertNotNull( listener.getInfo( "Leaked connection " + raw + " acquired at: " + BasicTests.class.getName() ), "Expected acquisition site to be reported" );
+            assertEquals( 1, dataSource.getMetrics().leakDetectionCount() );
+
+            try ( Connection connection = dataSource.getConnection() ) {
+                assertNotNull( connection.getSchema(), "Expected connection to be available after reclaim" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Connections reachable from statements are not reclaimed" )
+    void reclaimReachableTest() throws SQLException, InterruptedException {
+        assertThrows( IllegalArgumentException.class, () -> new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).reclaimUnreachable().connectionFactoryConfiguration( cf -> cf.trackJdbcResources( false ) ) ).get(), "Expected reclaim to require tracking of JDBC resources" );
+
+        CountDownLatch latch = new CountDownLatch( 1 );
+        LeakDetectionListener listener = new LeakDetectionListener( currentThread(), latch );
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).reclaimUnreachable() ), listener ) ) {
+            Statement statement = dataSource.getConnection().createStatement();
+
+            for ( int i = 0; i < 5 && latch.getCount() > 0; i++ ) {
+                System.gc();
+                latch.await( 100, MILLISECONDS );
+            }
+            assertEquals( 1, latch.getCount(), "Expected connection reachable from a statement not to be reclaimed" );
+            assertEquals( 0, dataSource.getMetrics().leakDetectionCount() );
+            assertEquals( 1, dataSource.getMetrics().activeCount(), "Expected connection to remain active" );
+
+            try ( Connection connection = statement.getConnection() ) {
+                assertNotNull( connection.getSchema(), "Expected connection to be usable" );
+            }
+        }
+    }
+
+    private static Connection leakConnection(AgroalDataSource dataSource) throws SQLException {
+        Connection leaked = dataSource.getConnection();
+        assertNotNull( leaked.getSchema() );
+        return leaked.unwrap( Connection.class );
+    }
+
+    @Test
+    @DisplayName( "JDBC resources are not wrapped when not tracked" )
+    void untrackedResourcesTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).connectionFactoryConfiguration( cf -> cf.trackJdbcResources( false ) ) ) ) ) {
+            try ( Connection connection = dataSource.getConnection() ) {
+                assertFalse( connection.createStatement() instanceof StatementWrapper, "Expected driver statement" );
+                assertFalse( connection.prepareStatement( "SELECT 1" ) instanceof StatementWrapper, "Expected driver prepared statement" );
+                assertFalse( connection.prepareCall( "CALL 1" ) instanceof StatementWrapper, "Expected driver callable statement" );
+            }
+        }
+    }
+
     @Test
     @SuppressWarnings( "JDBCResourceOpenedButNotSafelyClosed" )
     @DisplayName( "Initial SQL test" )
@@ -403,12 +536,116 @@ public class BasicTests {
         }
     }
 
+    @Test
+    @DisplayName( "Single acquisition is tracked per thread" )
+    void singleAcquisitionPerThreadTest() throws SQLException, InterruptedException, ExecutionException {
+        int MAX_POOL_SIZE = 2;
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( MAX_POOL_SIZE )
+                        .multipleAcquisition( STRICT ) ), new NoWarningsAgroalListener() ) ) {
+
+            // connections returned to the pool no longer count as held
+            for ( int i = 0; i < 2 * MAX_POOL_SIZE; i++ ) {
+                try ( Connection connection = dataSource.getConnection() ) {
+                    assertNotNull( connection.getSchema(), "Expected non null value" );
+                }
+            }
+
+            try ( Connection connection = dataSource.getConnection() ) {
+                assertNotNull( connection.getSchema(), "Expected non null value" );
+                assertThrows( SQLException.class, dataSource::getConnection, "Expected exception on multiple acquisition" );
+
+                // other threads are not affected
+                ExecutorService executor = Executors.newSingleThreadExecutor();
+                try {
+                    executor.submit( () -> {
+                        try ( Connection other = dataSource.getConnection() ) {
+                            return other.getSchema();
+                        }
+                    } ).get();
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Asynchronous listener dispatch" )
+    void asyncListenerTest() throws SQLException, InterruptedException {
+        int BUFFER_SIZE = 8, ACQUISITIONS = 100;
+
+        CountDownLatch releaseLatch = new CountDownLatch( 1 );
+        BlockingListener listener = new BlockingListener( releaseLatch );
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .asyncListenerBufferSize( BUFFER_SIZE )
+                ), listener ) ) {
+
+            // the listener blocks on the first acquisition, and the pool must not wait for it
+            for ( int i = 0; i < ACQUISITIONS; i++ ) {
+                try ( Connection connection = dataSource.getConnection() ) {
+                    assertNotNull( connection.getSchema(), "Expected non null value" );
+                }
+            }
+            assertTrue( dataSource.getMetrics().listenerEventDropCount() > 0, "Expected events to be dropped while the listener is blocked" );
+            logger.info( format( "Dropped {0} listener events", dataSource.getMetrics().listenerEventDropCount() ) );
+
+            releaseLatch.countDown();
+            if ( !listener.deliveredLatch.await( 1, SECONDS ) ) {
+                fail( "Events were not delivered to the listener" );
+            }
+            assertNotEquals( currentThread(), listener.deliveryThread, "Expected events to be delivered on another thread" );
+            assertEquals( currentThread(), listener.beforeAcquireThread, "Expected events before an operation to be delivered synchronously" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Asynchronous listener failures are reported" )
+    void asyncListenerFailureTest() throws SQLException, InterruptedException {
+        RuntimeException failure = new RuntimeException( "Listener failure" );
+        CountDownLatch returnLatch = new CountDownLatch( 1 );
+        List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+
+        Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler( ( thread, throwable ) -> uncaught.add( throwable ) );
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).asyncListenerBufferSize( 8 ) ), new AgroalDataSourceListener() {
+            @Override
+            public void onConnectionAcquire(Connection connection) {
+                throw failure;
+            }
+
+            @Override
+            public void onConnectionReturn(Connection connection) {
+                returnLatch.countDown();
+            }
+        } ) ) {
+
+            try ( Connection connection = dataSource.getConnection() ) {
+                assertNotNull( connection.getSchema(), "Expected non null value" );
+            }
+            if ( !returnLatch.await( 1, SECONDS ) ) {
+                fail( "Events after a listener failure were not delivered" );
+            }
+            assertTrue( uncaught.contains( failure ), "Expected listener failure to be reported to the uncaught exception handler" );
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler( defaultHandler );
+        }
+    }
+
     // --- //
 
     @SuppressWarnings( "WeakerAccess" )
     private static class LeakDetectionListener implements AgroalDataSourceListener {
         private final Thread leakingThread;
         private final CountDownLatch latch;
+        private final List<String> infoMessages = new CopyOnWriteArrayList<>();
         private int infoCount, warningCount;
 
         LeakDetectionListener(Thread leakingThread, CountDownLatch latch) {
@@ -431,9 +668,14 @@ public class BasicTests {
         @Override
         public void onInfo(String message) {
             infoCount++;
+            infoMessages.add( message );
             logger.info( message );
         }
 
+        String getInfo(String prefix) {
+            return infoMessages.stream().filter( m -> m.startsWith( prefix ) ).findFirst().orElse( null );
+        }
+
         int getInfoCount() {
             return infoCount;
         }
@@ -499,6 +741,33 @@ public class BasicTests {
         }
     }
 
+    private static class BlockingListener implements AgroalDataSourceListener {
+        private final CountDownLatch releaseLatch;
+        private final CountDownLatch deliveredLatch = new CountDownLatch( 1 );
+        private volatile Thread deliveryThread;
+        private volatile Thread beforeAcquireThread;
+
+        BlockingListener(CountDownLatch releaseLatch) {
+            this.releaseLatch = releaseLatch;
+        }
+
+        @Override
+        public void beforeConnectionAcquire() {
+            beforeAcquireThread = currentThread();
+        }
+
+        @Override
+        public void onConnectionAcquire(Connection connection) {
+            deliveryThread = currentThread();
+            try {
+                releaseLatch.await();
+            } catch ( InterruptedException e ) {
+                currentThread().interrupt();
+            }
+            deliveredLatch.countDown();
+        }
+    }
+
     private static class NoWarningsAgroalListener implements AgroalDataSourceListener {
 
         @SuppressWarnings( "WeakerAccess" )
@@ -6,6 +6,7 @@ package io.agroal.test.basic;
 import io.agroal.api.AgroalDataSource;
 import io.agroal.api.AgroalDataSourceListener;
 import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.pool.wrapper.ConnectionWrapper;
 import io.agroal.pool.wrapper.StatementWrapper;
 import io.agroal.test.MockConnection;
 import io.agroal.test.MockStatement;
@@ -185,6 +186,31 @@ public class ConnectionCloseTests {
         resultSet.close();
     }
 
+    @Test
+    @DisplayName( "Statements closed in any order are no longer tracked" )
+    void manyStatementsTest() throws SQLException {
+        OnWarningListener listener = new OnWarningListener();
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ), listener ) ) {
+            try ( Connection connection = dataSource.getConnection() ) {
+                ConnectionWrapper wrapper = (ConnectionWrapper) connection;
+                Statement[] statements = new Statement[10_000];
+                for ( int i = 0; i < statements.length; i++ ) {
+                    statements[i] = connection.createStatement();
+                }
+                // close in the order of creation, keeping the middle one open for a while
+                for ( int i = 0; i < statements.length; i++ ) {
+                    if ( i != statements.length / 2 ) {
+                        statements[i].close();
+                    }
+                }
+                assertTrue( wrapper.hasTrackedStatements(), "Expected open statement to be tracked" );
+                statements[statements.length / 2].close();
+                assertFalse( wrapper.hasTrackedStatements(), "Expected closed statements not to be tracked" );
+            }
+        }
+        assertFalse( listener.getWarning().get(), "Unexpected warning on leak of statements" );
+    }
+
     @Test
     @DisplayName( "JDBC resources tracking disabled" )
     @SuppressWarnings( "InstanceofConcreteClass" )
@@ -20,6 +20,7 @@ import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.util.logging.Logger;
 
+import static io.agroal.api.AgroalDataSourceMetrics.AcquisitionPath.LOCAL_CACHE;
 import static io.agroal.api.configuration.AgroalConnectionFactoryConfiguration.TransactionIsolation.NONE;
 import static io.agroal.api.configuration.AgroalConnectionFactoryConfiguration.TransactionIsolation.READ_COMMITTED;
 import static io.agroal.api.configuration.AgroalConnectionFactoryConfiguration.TransactionIsolation.READ_UNCOMMITTED;
@@ -30,10 +31,13 @@ import static io.agroal.api.configuration.AgroalConnectionPoolConfiguration.Exce
 import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
 import static io.agroal.test.MockDriver.deregisterMockDriver;
 import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.lang.Thread.currentThread;
 import static java.text.MessageFormat.format;
+import static java.time.Duration.ofSeconds;
 import static java.util.logging.Logger.getLogger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -216,6 +220,34 @@ public class ConnectionResetTests {
 
     // --- //
 
+    @Test
+    @DisplayName( "Test connection reset on a background thread" )
+    void asyncReturnTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled().connectionPoolConfiguration(
+                cp -> cp.maxSize( 1 ).asyncReturn().acquisitionTimeout( ofSeconds( 1 ) ).connectionFactoryConfiguration( cf -> cf.connectionProviderClass( ResetThreadDataSource.class ) ) ) ) ) {
+            try ( Connection connection = dataSource.getConnection() ) {
+                connection.setTransactionIsolation( Connection.TRANSACTION_SERIALIZABLE );
+            }
+            try ( Connection connection = dataSource.getConnection() ) {
+                assertEquals( Connection.TRANSACTION_READ_COMMITTED, connection.unwrap( ResetThreadConnection.class ).isolation, "Expected connection to be reset before being handed over" );
+            }
+            assertNotNull( ResetThreadConnection.resetThread );
+            assertNotEquals( currentThread(), ResetThreadConnection.resetThread, "Expected connection to be reset on a background thread" );
+            assertTrue( ResetThreadConnection.resetThread.getName().contains( "-return-" ), "Expected connection to be reset outside the housekeeping thread" );
+            assertEquals( 1, dataSource.getMetrics().creationCount() );
+
+            while ( dataSource.getMetrics().availableCount() == 0 ) {
+                Thread.onSpinWait();
+            }
+            long localCacheCount = dataSource.getMetrics().acquireCount( LOCAL_CACHE );
+            try ( Connection connection = dataSource.getConnection() ) {
+                assertEquals( localCacheCount + 1, dataSource.getMetrics().acquireCount( LOCAL_CACHE ), "Expected connection to be cached on the thread that returned it" );
+            }
+        }
+    }
+
+    // --- //
+
     public static class FakeConnection implements MockConnection {
 
         private static final int DEFAULT_ISOLATION = 99;
@@ -276,6 +308,41 @@ public class ConnectionResetTests {
 
     }
 
+    public static class ResetThreadDataSource implements MockDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return new ResetThreadConnection();
+        }
+    }
+
+    public static class ResetThreadConnection implements MockConnection {
+
+        private static volatile Thread resetThread;
+
+        private int isolation = Connection.TRANSACTION_READ_COMMITTED;
+
+        @Override
+        @SuppressWarnings( "MagicConstant" )
+        public int getTransactionIsolation() {
+            return isolation;
+        }
+
+        @Override
+        public void setTransactionIsolation(int level) {
+            if ( level == Connection.TRANSACTION_READ_COMMITTED ) {
+                resetThread = currentThread();
+            }
+            isolation = level;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return (T) this;
+        }
+    }
+
     public static class SneakyConnection implements MockConnection {
         @Override
         public SQLWarning getWarnings() throws SQLException {
@@ -0,0 +1,218 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.test.MockConnection;
+import io.agroal.test.MockResultSet;
+import io.agroal.test.MockStatement;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class DetachedResultSetTests {
+
+    private static final int ROWS = 5;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver( RowsConnection.class );
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Result set can be read after the connection is closed" )
+    void detachedTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).connectionFactoryConfiguration( cf -> cf.detachedResultSetMaxRows( 100 ) ) ) ) ) {
+            ResultSet resultSet;
+            try ( Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement() ) {
+                resultSet = statement.executeQuery( "SELECT * FROM ITEMS" );
+            }
+            assertEquals( 0, dataSource.getMetrics().activeCount(), "Expected connection to be returned to the pool" );
+            assertEquals( 1, dataSource.getMetrics().detachedResultSetCount() );
+            assertTrue( dataSource.getMetrics().detachedResultSetMemory() > 0, "Expected buffer memory to be reported" );
+
+            assertEquals( ROWS, readRows( resultSet ) );
+            assertEquals( Types.VARCHAR, resultSet.getMetaData().getColumnType( resultSet.findColumn( "NAME" ) ) );
+            assertThrows( SQLException.class, resultSet::previous, "Expected result set to be forward-only" );
+            assertThrows( SQLException.class, () -> resultSet.updateInt( 1, 0 ), "Expected result set to be read-only" );
+
+            resultSet.close();
+            assertEquals( 0, dataSource.getMetrics().detachedResultSetMemory(), "Expected buffer memory to be released on close" );
+            assertThrows( SQLException.class, resultSet::next );
+        }
+    }
+
+    @Test
+    @DisplayName( "Rows beyond the limits are read from the database" )
+    void limitsTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).connectionFactoryConfiguration( cf -> cf.detachedResultSetMaxRows( 2 ) ) ) ) ) {
+            try ( Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement() ) {
+                assertEquals( ROWS, readRows( statement.executeQuery( "SELECT * FROM ITEMS" ) ) );
+            }
+            assertEquals( 0, dataSource.getMetrics().detachedResultSetCount(), "Expected result set not to be detached" );
+            assertEquals( 0, dataSource.getMetrics().detachedResultSetMemory() );
+        }
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ).connectionFactoryConfiguration( cf -> cf.detachedResultSetMaxRows( 100 ).detachedResultSetMaxMemory( 200 ) ) ) ) ) {
+            try ( Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement() ) {
+                ResultSet resultSet = statement.executeQuery( "SELECT * FROM ITEMS" );
+                assertTrue( dataSource.getMetrics().detachedResultSetMemory() <= 200, "Expected buffer memory to be capped" );
+                assertEquals( ROWS, readRows( resultSet ) );
+            }
+            assertEquals( 0, dataSource.getMetrics().detachedResultSetCount(), "Expected result set not to be detached" );
+            assertEquals( 0, dataSource.getMetrics().detachedResultSetMemory() );
+
+            ResultSet resultSet;
+            try ( Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement() ) {
+                resultSet = statement.executeQuery( "SELECT * FROM ITEMS" );
+                assertTrue( dataSource.getMetrics().detachedResultSetMemory() > 0, "Expected buffer memory to be reserved" );
+            }
+            assertTrue( resultSet.isClosed(), "Expected result set not detached to be closed with the statement" );
+            assertEquals( 0, dataSource.getMetrics().detachedResultSetMemory(), "Expected buffer memory to be released on statement close" );
+        }
+    }
+
+    private static int readRows(ResultSet resultSet) throws SQLException {
+        int rows = 0;
+        while ( resultSet.next() ) {
+            rows++;
+            assertEquals( rows, resultSet.getInt( "id" ) );
+            assertEquals( rows, resultSet.getObject( 1 ) );
+            assertEquals( new BigDecimal( rows + ".50" ), resultSet.getBigDecimal( "price" ) );
+            assertEquals( rows % 2 == 0, resultSet.getBoolean( "ACTIVE" ) );
+            if ( rows == 3 ) {
+                assertNull( resultSet.getString( "name" ) );
+                assertTrue( resultSet.wasNull() );
+            } else {
+                assertEquals( "item" + rows, resultSet.getString( "name" ) );
+                assertFalse( resultSet.wasNull() );
+            }
+        }
+        return rows;
+    }
+
+    // --- //
+
+    public static class RowsConnection implements MockConnection {
+
+        @Override
+        public Statement createStatement() throws SQLException {
+            return new RowsStatement();
+        }
+    }
+
+    public static class RowsStatement implements MockStatement {
+
+        @Override
+        public ResultSet executeQuery(String sql) throws SQLException {
+            return new RowsResultSet();
+        }
+    }
+
+    public static class RowsResultSet implements MockResultSet {
+
+        private static final String[] LABELS = {"id", "name", "price", "active"};
+        private static final int[] TYPES = {Types.INTEGER, Types.VARCHAR, Types.DECIMAL, Types.BOOLEAN};
+
+        private int row;
+        private boolean wasNull;
+
+        @Override
+        public boolean next() throws SQLException {
+            return ++row <= ROWS;
+        }
+
+        @Override
+        public boolean wasNull() throws SQLException {
+            return wasNull;
+        }
+
+        @Override
+        public int getInt(int columnIndex) throws SQLException {
+            wasNull = false;
+            return row;
+        }
+
+        @Override
+        public long getLong(int columnIndex) throws SQLException {
+            return getInt( columnIndex );
+        }
+
+        @Override
+        public String getString(int columnIndex) throws SQLException {
+            wasNull = row == 3;
+            return wasNull ? null : "item" + row;
+        }
+
+        @Override
+        public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+            wasNull = false;
+            return new BigDecimal( row + ".50" );
+        }
+
+        @Override
+        public boolean getBoolean(int columnIndex) throws SQLException {
+            wasNull = false;
+            return row % 2 == 0;
+        }
+
+        @Override
+        public Object getObject(int columnIndex) throws SQLException {
+            wasNull = false;
+            return row;
+        }
+
+        @Override
+        public ResultSetMetaData getMetaData() throws SQLException {
+            return (ResultSetMetaData) Proxy.newProxyInstance( ResultSetMetaData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                switch ( method.getName() ) {
+                    case "getColumnCount":
+                        return LABELS.length;
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return LABELS[(int) args[0] - 1];
+                    case "getColumnType":
+                        return TYPES[(int) args[0] - 1];
+                    default:
+                        return method.getReturnType() == int.class ? 0 : method.getReturnType() == boolean.class ? (Object) false : null;
+                }
+            } );
+        }
+    }
+}
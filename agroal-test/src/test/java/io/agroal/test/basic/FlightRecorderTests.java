@@ -0,0 +1,121 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalPoolEvent;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static io.agroal.api.AgroalPoolEvent.Type.BEFORE_CONNECTION_ACQUIRE;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_ACQUIRE;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_CREATION;
+import static io.agroal.api.AgroalPoolEvent.Type.CONNECTION_RETURN;
+import static io.agroal.api.AgroalPoolEvent.Type.POOL_BLOCK;
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.time.Duration.ofMillis;
+import static java.util.logging.Logger.getLogger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class FlightRecorderTests {
+
+    private static final Logger logger = getLogger( FlightRecorderTests.class.getName() );
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver();
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Flight recorder disabled by default" )
+    void disabledTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            try ( Connection c = dataSource.getConnection() ) {
+                assertTrue( dataSource.dumpFlightRecorder().isEmpty(), "Expected no events with flight recorder disabled" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Flight recorder records pool exhaustion" )
+    void exhaustionTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .acquisitionTimeout( ofMillis( 50 ) )
+                        .flightRecorderSize( 64 )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertThrows( SQLException.class, dataSource::getConnection, "Expected acquisition timeout" );
+            }
+
+            List<AgroalPoolEvent> events = dataSource.dumpFlightRecorder();
+            events.forEach( event -> logger.info( event.toString() ) );
+
+            List<AgroalPoolEvent.Type> types = events.stream().map( AgroalPoolEvent::type ).toList();
+            assertEquals( 2, types.stream().filter( BEFORE_CONNECTION_ACQUIRE::equals ).count(), "Expected two acquisition attempts" );
+            assertEquals( 1, types.stream().filter( CONNECTION_ACQUIRE::equals ).count(), "Expected a single successful acquisition" );
+            assertEquals( 1, types.stream().filter( CONNECTION_CREATION::equals ).count(), "Expected a single connection creation" );
+            assertTrue( types.contains( POOL_BLOCK ), "Expected a thread to block on an exhausted pool" );
+            assertEquals( CONNECTION_RETURN, types.get( types.size() - 1 ), "Expected connection return as last event" );
+
+            AgroalPoolEvent acquire = events.get( types.indexOf( CONNECTION_ACQUIRE ) );
+            AgroalPoolEvent creation = events.get( types.indexOf( CONNECTION_CREATION ) );
+            assertEquals( creation.connectionId(), acquire.connectionId(), "Expected the created connection to be acquired" );
+            assertTrue( acquire.connectionId() != 0, "Expected connection identity on the event" );
+
+            for ( int i = 1; i < events.size(); i++ ) {
+                assertEquals( events.get( i - 1 ).sequence() + 1, events.get( i ).sequence(), "Expected events in sequence" );
+                assertTrue( events.get( i - 1 ).nanoTime() <= events.get( i ).nanoTime(), "Expected events in chronological order" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Flight recorder keeps only the most recent events" )
+    void wrapAroundTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .flightRecorderSize( 8 )
+                ) ) ) {
+
+            for ( int i = 0; i < 100; i++ ) {
+                try ( Connection c = dataSource.getConnection() ) {
+                    logger.fine( "Acquired connection " + c );
+                }
+            }
+
+            List<AgroalPoolEvent> events = dataSource.dumpFlightRecorder();
+            assertEquals( 8, events.size(), "Expected the recorder to be full" );
+            assertTrue( events.get( 0 ).sequence() > 300, "Expected old events to be overwritten" );
+            assertEquals( CONNECTION_RETURN, events.get( events.size() - 1 ).type(), "Expected connection return as last event" );
+        }
+    }
+}
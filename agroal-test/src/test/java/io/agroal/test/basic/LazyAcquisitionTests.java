@@ -0,0 +1,154 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.test.MockConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class LazyAcquisitionTests {
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver( AutoCommitConnection.class );
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Connections not used are not acquired from the pool" )
+    void unusedConnectionTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled().connectionPoolConfiguration(
+                cp -> cp.maxSize( 1 ).lazyAcquisition().acquisitionTimeout( ofMillis( 100 ) ) ) ) ) {
+            // more connections than max-size, none of them used
+            try ( Connection c1 = dataSource.getConnection(); Connection c2 = dataSource.getConnection() ) {
+                assertTrue( c1.getAutoCommit() );
+                c1.setAutoCommit( false );
+                assertFalse( c1.getAutoCommit() );
+                c1.commit();
+                c2.rollback();
+                assertFalse( c2.isClosed() );
+            }
+            assertEquals( 0, dataSource.getMetrics().acquireCount(), "Expected no connection to be acquired" );
+            assertEquals( 0, dataSource.getMetrics().creationCount() );
+        }
+    }
+
+    @Test
+    @DisplayName( "Connections are acquired on first use, with the attributes set before" )
+    void firstUseTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled().connectionPoolConfiguration(
+                cp -> cp.maxSize( 1 ).lazyAcquisition().acquisitionTimeout( ofMillis( 100 ) ) ) ) ) {
+            Connection connection = dataSource.getConnection();
+            connection.setAutoCommit( false );
+            connection.createStatement().close();
+            assertEquals( 1, dataSource.getMetrics().acquireCount() );
+            assertEquals( 1, dataSource.getMetrics().activeCount() );
+            assertFalse( connection.unwrap( AutoCommitConnection.class ).autoCommit, "Expected auto-commit to be set on the connection" );
+
+            try ( Connection other = dataSource.getConnection() ) {
+                assertThrows( SQLException.class, other::createStatement, "Expected pool to be exhausted" );
+            }
+
+            connection.close();
+            assertEquals( 0, dataSource.getMetrics().activeCount(), "Expected connection to return to the pool on close" );
+            assertTrue( connection.isClosed() );
+            assertThrows( SQLException.class, connection::createStatement );
+        }
+    }
+
+    @Test
+    @DisplayName( "Connections in auto-commit are returned to the pool after each statement" )
+    void statementReleaseTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled().connectionPoolConfiguration(
+                cp -> cp.maxSize( 1 ).statementRelease().acquisitionTimeout( ofMillis( 100 ) ) ) ) ) {
+            try ( Connection c1 = dataSource.getConnection(); Connection c2 = dataSource.getConnection() ) {
+                // both connections share the single connection of the pool
+                for ( int i = 0; i < 3; i++ ) {
+                    try ( Statement statement = c1.createStatement() ) {
+                        assertEquals( 1, dataSource.getMetrics().activeCount() );
+                    }
+                    assertEquals( 0, dataSource.getMetrics().activeCount(), "Expected connection to return to the pool after the statement" );
+                    c2.createStatement().close();
+                }
+                assertEquals( 6, dataSource.getMetrics().acquireCount() );
+
+                // statements return the connection of the application, that remains usable after the release
+                try ( Statement statement = c1.createStatement() ) {
+                    assertSame( c1, statement.getConnection(), "Expected statement to return the logical connection" );
+                }
+                assertFalse( c1.isClosed() );
+                c1.createStatement().close();
+
+                // with auto-commit disabled the connection is held until commit
+                c1.setAutoCommit( false );
+                c1.createStatement().close();
+                assertEquals( 1, dataSource.getMetrics().activeCount(), "Expected connection to be held while not in auto-commit" );
+                assertThrows( SQLException.class, c2::createStatement, "Expected pool to be exhausted" );
+                c1.commit();
+                c1.setAutoCommit( true );
+                c1.createStatement().close();
+                assertEquals( 0, dataSource.getMetrics().activeCount() );
+
+                // attributes set while released are applied when acquired again
+                c1.setAutoCommit( false );
+                c1.createStatement().close();
+                assertFalse( c1.unwrap( AutoCommitConnection.class ).autoCommit, "Expected auto-commit to be applied on acquisition" );
+                c1.setAutoCommit( true );
+            }
+            assertEquals( 0, dataSource.getMetrics().activeCount() );
+        }
+    }
+
+    // --- //
+
+    public static class AutoCommitConnection implements MockConnection {
+
+        private boolean autoCommit = true;
+
+        @Override
+        public boolean getAutoCommit() {
+            return autoCommit;
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) {
+            this.autoCommit = autoCommit;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return (T) this;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceMetrics.MetricsBucket;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static java.util.logging.Logger.getLogger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class MetricsHistoryTests {
+
+    private static final Logger logger = getLogger( MetricsHistoryTests.class.getName() );
+
+    private static final int ACQUISITIONS = 10;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver();
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Metrics history disabled by default" )
+    void disabledTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertTrue( dataSource.getMetrics().perSecondHistory().isEmpty(), "Expected no history" );
+                assertTrue( dataSource.getMetrics().perMinuteHistory().isEmpty(), "Expected no history" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Metrics history per second and per minute" )
+    void historyTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .acquisitionTimeout( ofMillis( 50 ) )
+                        .metricsHistory( ofMinutes( 5 ) )
+                ) ) ) {
+
+            for ( int i = 0; i < ACQUISITIONS; i++ ) {
+                try ( Connection c = dataSource.getConnection() ) {
+                    if ( i == 0 ) {
+                        assertThrows( SQLException.class, dataSource::getConnection, "Expected acquisition timeout" );
+                    }
+                }
+            }
+
+            List<MetricsBucket> perSecond = dataSource.getMetrics().perSecondHistory();
+            List<MetricsBucket> perMinute = dataSource.getMetrics().perMinuteHistory();
+            perSecond.stream().filter( b -> b.acquireCount() > 0 ).forEach( b -> logger.info( b.toString() ) );
+            perMinute.forEach( b -> logger.info( b.toString() ) );
+
+            assertTrue( !perSecond.isEmpty() && perSecond.size() <= 60, "Expected at most one minute of per-second history" );
+            assertTrue( !perMinute.isEmpty() && perMinute.size() <= 5, "Expected at most five minutes of per-minute history" );
+            assertEquals( ofSeconds( 1 ), perSecond.get( 0 ).duration(), "Expected per-second buckets" );
+            assertEquals( ofMinutes( 1 ), perMinute.get( 0 ).duration(), "Expected per-minute buckets" );
+
+            assertEquals( ACQUISITIONS, perSecond.stream().mapToLong( MetricsBucket::acquireCount ).sum(), "Expected all acquisitions on the history" );
+            assertEquals( ACQUISITIONS, perMinute.stream().mapToLong( MetricsBucket::acquireCount ).sum(), "Expected all acquisitions on the history" );
+            assertEquals( 1, perSecond.stream().mapToLong( MetricsBucket::creationCount ).sum(), "Expected a single connection creation" );
+            assertEquals( 1, perMinute.stream().mapToLong( MetricsBucket::timeoutCount ).sum(), "Expected a single acquisition timeout" );
+            assertEquals( 1, perMinute.stream().mapToLong( MetricsBucket::maxActiveCount ).max().orElse( 0 ), "Expected a single active connection" );
+
+            for ( MetricsBucket bucket : perMinute ) {
+                assertTrue( bucket.blockingTimePercentile( 50 ).compareTo( bucket.blockingTimePercentile( 100 ) ) <= 0, "Expected percentiles in order" );
+            }
+            for ( int i = 1; i < perSecond.size(); i++ ) {
+                assertTrue( perSecond.get( i - 1 ).start().isBefore( perSecond.get( i ).start() ), "Expected buckets in chronological order" );
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceMetrics.MetricsRecorder;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class MetricsRecorderTests {
+
+    private static final int ACQUISITIONS = 5;
+    private static final int HOLD_MS = 20;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver();
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Recorder notified of acquire, creation and hold times" )
+    void recorderTest() throws SQLException, InterruptedException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+
+            CountingRecorder recorder = new CountingRecorder();
+            dataSource.getMetrics().addRecorder( recorder );
+
+            for ( int i = 0; i < ACQUISITIONS; i++ ) {
+                try ( Connection c = dataSource.getConnection() ) {
+                    Thread.sleep( HOLD_MS );
+                }
+            }
+
+            assertEquals( ACQUISITIONS, recorder.acquisitions.longValue(), "Expected a recording for each acquisition" );
+            assertEquals( 1, recorder.creations.longValue(), "Expected a recording for the single connection created" );
+            assertEquals( ACQUISITIONS, recorder.holds.longValue(), "Expected a recording for each return" );
+            assertTrue( recorder.minHold.get() >= MILLISECONDS.toNanos( HOLD_MS ), "Expected hold time to include the time the connection was in use" );
+
+            dataSource.getMetrics().removeRecorder( recorder );
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( ACQUISITIONS, recorder.acquisitions.longValue(), "Expected no recording after the recorder is removed" );
+            }
+            assertEquals( ACQUISITIONS, recorder.holds.longValue(), "Expected no recording after the recorder is removed" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Recorder ignored with metrics disabled" )
+    void disabledTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            CountingRecorder recorder = new CountingRecorder();
+            dataSource.getMetrics().addRecorder( recorder );
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( 0, recorder.acquisitions.longValue(), "Expected no recording with metrics disabled" );
+            }
+        }
+    }
+
+    // --- //
+
+    private static class CountingRecorder implements MetricsRecorder {
+
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder creations = new LongAdder();
+        private final LongAdder holds = new LongAdder();
+        private final AtomicLong minHold = new AtomicLong( Long.MAX_VALUE );
+
+        @Override
+        public void recordAcquisition(long nanos) {
+            acquisitions.increment();
+        }
+
+        @Override
+        public void recordCreation(long nanos) {
+            creations.increment();
+        }
+
+        @Override
+        public void recordHold(long nanos) {
+            holds.increment();
+            minHold.accumulateAndGet( nanos, Math::min );
+        }
+    }
+}
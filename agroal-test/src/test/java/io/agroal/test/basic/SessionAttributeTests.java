@@ -0,0 +1,261 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalConnectionLabels;
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.test.MockConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.sql.Connection.TRANSACTION_READ_COMMITTED;
+import static java.sql.Connection.TRANSACTION_SERIALIZABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class SessionAttributeTests {
+
+    private static final int TRANSACTIONS = 10;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver( RoundTripCountingConnection.class );
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        RoundTripCountingConnection.GETS.set( 0 );
+        RoundTripCountingConnection.SETS.set( 0 );
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Redundant session attribute calls do not reach the driver" )
+    void redundantCallsTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            try ( Connection c = dataSource.getConnection() ) {
+                // warm up: the first getter of each attribute reads the value from the driver
+                c.getAutoCommit();
+                c.getTransactionIsolation();
+                c.isReadOnly();
+                c.getSchema();
+                c.getCatalog();
+            }
+            resetCounters();
+
+            for ( int i = 0; i < TRANSACTIONS; i++ ) {
+                try ( Connection c = dataSource.getConnection() ) {
+                    // what an ORM does on every transaction
+                    boolean autoCommit = c.getAutoCommit();
+                    int isolation = c.getTransactionIsolation();
+                    c.setAutoCommit( false );
+                    c.setTransactionIsolation( isolation );
+                    c.setReadOnly( c.isReadOnly() );
+                    c.setSchema( c.getSchema() );
+                    c.setCatalog( c.getCatalog() );
+                    c.commit();
+                    c.setAutoCommit( autoCommit );
+                }
+            }
+
+            assertEquals( 0, RoundTripCountingConnection.GETS.get(), "Expected getters to be answered without the driver" );
+            assertEquals( 2 * TRANSACTIONS, RoundTripCountingConnection.SETS.get(), "Expected only setters that change the value to reach the driver" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Session attributes are tracked across set and reset" )
+    void trackingTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( TRANSACTION_READ_COMMITTED, c.getTransactionIsolation() );
+                c.setTransactionIsolation( TRANSACTION_SERIALIZABLE );
+                c.setSchema( "other" );
+                c.setReadOnly( true );
+                assertEquals( TRANSACTION_SERIALIZABLE, c.getTransactionIsolation() );
+                assertEquals( "other", c.getSchema() );
+                assertTrue( c.isReadOnly() );
+                assertEquals( "other", c.unwrap( Connection.class ).getSchema(), "Expected the value to be set on the driver" );
+            }
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( TRANSACTION_READ_COMMITTED, c.getTransactionIsolation(), "Expected isolation to be reset" );
+                assertFalse( c.isReadOnly(), "Expected read-only to be reset" );
+                assertEquals( "other", c.getSchema(), "Expected schema to be kept as it has no default" );
+            }
+
+            Connection closed = dataSource.getConnection();
+            closed.close();
+            assertThrows( SQLException.class, closed::getAutoCommit, "Expected closed connection not to answer getters" );
+            assertThrows( SQLException.class, () -> closed.setReadOnly( false ), "Expected closed connection not to skip setters" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Lazy reset only applies the differences before the connection is used" )
+    void lazyResetTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ).lazyReset() ) ) ) {
+            try ( Connection c = dataSource.getConnection() ) {
+                c.getAutoCommit();
+            }
+            resetCounters();
+
+            for ( int i = 0; i < TRANSACTIONS; i++ ) {
+                try ( Connection c = dataSource.getConnection() ) {
+                    assertTrue( c.getAutoCommit(), "Expected default auto-commit" );
+                    c.setAutoCommit( false );
+                    c.createStatement().close();
+                    c.commit();
+                }
+            }
+            assertEquals( 1, RoundTripCountingConnection.SETS.get(), "Expected auto-commit to be flipped only once" );
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertTrue( c.getAutoCommit(), "Expected default auto-commit" );
+                assertEquals( 1, RoundTripCountingConnection.SETS.get(), "Expected reset not to be applied before use" );
+                c.createStatement().close();
+                assertTrue( c.unwrap( RoundTripCountingConnection.class ).autoCommit, "Expected reset to be applied on use" );
+            }
+            assertEquals( 2, RoundTripCountingConnection.SETS.get(), "Expected auto-commit to be set back once" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Labeled acquisition prefers connections already in the requested state" )
+    void labelsTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled().connectionPoolConfiguration( cp -> cp.maxSize( 2 ).lazyReset() ) ) ) {
+            try ( Connection c1 = dataSource.getConnection( tenantLabels( "tenant1" ) ); Connection c2 = dataSource.getConnection( tenantLabels( "tenant2" ) ) ) {
+                assertEquals( "tenant1", c1.getSchema() );
+                assertEquals( "tenant2", c2.getSchema() );
+                assertEquals( TRANSACTION_SERIALIZABLE, c1.getTransactionIsolation() );
+            }
+            assertEquals( 2, dataSource.getMetrics().labelMissCount(), "Expected new connections to be changed to the requested state" );
+            resetCounters();
+
+            for ( int i = 0; i < TRANSACTIONS; i++ ) {
+                for ( String tenant : new String[]{"tenant1", "tenant2"} ) {
+                    try ( Connection c = dataSource.getConnection( tenantLabels( tenant ) ) ) {
+                        assertEquals( tenant, c.unwrap( RoundTripCountingConnection.class ).schema, "Expected connection already in the requested state" );
+                    }
+                }
+            }
+            assertEquals( 0, RoundTripCountingConnection.SETS.get(), "Expected labels not to be applied again" );
+            assertEquals( 2 * TRANSACTIONS, dataSource.getMetrics().labelHitCount() );
+            assertEquals( 2, dataSource.getMetrics().labelMissCount() );
+
+            try ( Connection c = dataSource.getConnection( tenantLabels( "tenant3" ) ) ) {
+                assertEquals( "tenant3", c.unwrap( RoundTripCountingConnection.class ).schema );
+            }
+            assertEquals( 1, RoundTripCountingConnection.SETS.get(), "Expected only the schema to be changed" );
+            assertEquals( 3, dataSource.getMetrics().labelMissCount() );
+        }
+    }
+
+    private static AgroalConnectionLabels tenantLabels(String tenant) {
+        return new AgroalConnectionLabels().schema( tenant ).transactionIsolation( TRANSACTION_SERIALIZABLE ).label( "tenant", "SET app.tenant = '" + tenant + "'" );
+    }
+
+    // --- //
+
+    public static class RoundTripCountingConnection implements MockConnection {
+
+        static final AtomicInteger GETS = new AtomicInteger();
+        static final AtomicInteger SETS = new AtomicInteger();
+
+        private boolean autoCommit = true;
+        private int isolation = TRANSACTION_READ_COMMITTED;
+        private boolean readOnly;
+        private String schema = "public";
+        private String catalog = "db";
+
+        @Override
+        public boolean getAutoCommit() throws SQLException {
+            GETS.incrementAndGet();
+            return autoCommit;
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) throws SQLException {
+            SETS.incrementAndGet();
+            this.autoCommit = autoCommit;
+        }
+
+        @Override
+        public int getTransactionIsolation() throws SQLException {
+            GETS.incrementAndGet();
+            return isolation;
+        }
+
+        @Override
+        public void setTransactionIsolation(int level) throws SQLException {
+            SETS.incrementAndGet();
+            isolation = level;
+        }
+
+        @Override
+        public boolean isReadOnly() throws SQLException {
+            GETS.incrementAndGet();
+            return readOnly;
+        }
+
+        @Override
+        public void setReadOnly(boolean readOnly) throws SQLException {
+            SETS.incrementAndGet();
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public String getSchema() throws SQLException {
+            GETS.incrementAndGet();
+            return schema;
+        }
+
+        @Override
+        public void setSchema(String schema) throws SQLException {
+            SETS.incrementAndGet();
+            this.schema = schema;
+        }
+
+        @Override
+        public String getCatalog() throws SQLException {
+            GETS.incrementAndGet();
+            return catalog;
+        }
+
+        @Override
+        public void setCatalog(String catalog) throws SQLException {
+            SETS.incrementAndGet();
+            this.catalog = catalog;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return (T) this;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalPoolSnapshot;
+import io.agroal.api.AgroalPoolSnapshot.ConnectionSnapshot;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+import static io.agroal.api.AgroalDataSource.FlushMode.GRACEFUL;
+import static io.agroal.api.AgroalPoolSnapshot.ConnectionState.CHECKED_IN;
+import static io.agroal.api.AgroalPoolSnapshot.ConnectionState.CHECKED_OUT;
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.time.Duration.ofMinutes;
+import static java.util.logging.Logger.getLogger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class SnapshotTests {
+
+    private static final Logger logger = getLogger( SnapshotTests.class.getName() );
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver();
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Snapshot of pool state" )
+    void snapshotTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 3 )
+                        .leakTimeout( ofMinutes( 5 ) )
+                        .maxLifetime( ofMinutes( 10 ) )
+                ) ) ) {
+
+            assertEquals( 0, dataSource.getSnapshot().connectionCount(), "Expected empty pool" );
+
+            try ( Connection c1 = dataSource.getConnection(); Connection c2 = dataSource.getConnection() ) {
+                AgroalPoolSnapshot snapshot = dataSource.getSnapshot();
+                logger.info( snapshot.toString() );
+
+                assertEquals( 2, snapshot.connectionCount(), "Expected two connections in pool" );
+                assertEquals( 2, snapshot.activeCount(), "Expected two active connections" );
+                assertEquals( 0, snapshot.availableCount(), "Expected no available connections" );
+                assertEquals( 2, snapshot.maxUsedCount(), "Expected max used to be two" );
+                assertEquals( snapshot.connectionCount(), snapshot.connections().size(), "Expected an entry for each connection" );
+
+                for ( ConnectionSnapshot connection : snapshot.connections() ) {
+                    logger.info( connection.toString() );
+                    assertEquals( CHECKED_OUT, connection.state(), "Expected connection in use" );
+                    assertEquals( Thread.currentThread().getName(), connection.holdingThread(), "Expected connection held by this thread" );
+                    assertFalse( connection.enlisted(), "Expected connection not enlisted" );
+                    assertNotNull( connection.lifetimeRemaining(), "Expected lifetime remaining with max lifetime set" );
+                    assertTrue( connection.lifetimeRemaining().compareTo( ofMinutes( 10 ) ) < 0, "Expected lifetime remaining to be smaller than max lifetime" );
+                    assertTrue( connection.age().compareTo( connection.idleTime() ) >= 0, "Expected age greater than idle time" );
+                }
+            }
+
+            AgroalPoolSnapshot snapshot = dataSource.getSnapshot();
+            assertEquals( 2, snapshot.availableCount(), "Expected connections returned to the pool" );
+            assertEquals( 0, snapshot.activeCount(), "Expected no active connections" );
+            for ( ConnectionSnapshot connection : snapshot.connections() ) {
+                assertEquals( CHECKED_IN, connection.state(), "Expected connection available" );
+                assertNull( connection.holdingThread(), "Expected connection not held" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Snapshot without max lifetime" )
+    void noLifetimeTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            try ( Connection c = dataSource.getConnection() ) {
+                ConnectionSnapshot connection = dataSource.getSnapshot().connections().get( 0 );
+                assertNull( connection.lifetimeRemaining(), "Expected no lifetime remaining with max lifetime disabled" );
+                assertNull( connection.holdingThread(), "Expected holding thread not to be tracked" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Pool metrics match the snapshot" )
+    void countersTest() throws SQLException, InterruptedException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp.maxSize( 4 ) ) ) ) {
+
+            try ( Connection c1 = dataSource.getConnection(); Connection c2 = dataSource.getConnection(); Connection c3 = dataSource.getConnection() ) {
+                assertCounters( dataSource );
+                assertEquals( 3, dataSource.getMetrics().activeCount(), "Expected three active connections" );
+            }
+            assertCounters( dataSource );
+            assertEquals( 0, dataSource.getMetrics().activeCount(), "Expected no active connections" );
+            assertEquals( 3, dataSource.getMetrics().availableCount(), "Expected connections returned to the pool" );
+
+            try ( Connection connection = dataSource.getConnection() ) {
+                dataSource.flush( GRACEFUL );
+                for ( int i = 0; i < 50 && dataSource.getSnapshot().connectionCount() > 1; i++ ) {
+                    Thread.sleep( 20 );
+                }
+                assertEquals( 1, dataSource.getSnapshot().flushingCount(), "Expected connection to be flushed" );
+                assertEquals( 1, dataSource.getMetrics().activeCount(), "Expected connection flushed while checked out to remain active" );
+                assertEquals( 0, dataSource.getMetrics().flushingCount(), "Expected connection flushed while checked out not to be counted as flushing" );
+            }
+            // the connection is destroyed in the background
+            for ( int i = 0; i < 50 && dataSource.getMetrics().activeCount() > 0; i++ ) {
+                Thread.sleep( 20 );
+            }
+            assertEquals( 0, dataSource.getMetrics().activeCount(), "Expected flushed connection to be destroyed on return" );
+            assertEquals( 0, dataSource.getMetrics().flushingCount() );
+        }
+    }
+
+    private static void assertCounters(AgroalDataSource dataSource) {
+        AgroalPoolSnapshot snapshot = dataSource.getSnapshot();
+        logger.info( snapshot.toString() );
+        assertEquals( snapshot.activeCount(), dataSource.getMetrics().activeCount(), "Active count does not match snapshot" );
+        assertEquals( snapshot.availableCount(), dataSource.getMetrics().availableCount(), "Available count does not match snapshot" );
+        assertEquals( snapshot.heldCount(), dataSource.getMetrics().heldCount(), "Held count does not match snapshot" );
+        assertEquals( snapshot.validatingCount(), dataSource.getMetrics().validatingCount(), "Validating count does not match snapshot" );
+        assertEquals( snapshot.flushingCount(), dataSource.getMetrics().flushingCount(), "Flushing count does not match snapshot" );
+    }
+}
@@ -0,0 +1,448 @@
+// Copyright (C) 2017 Red Hat, Inc. and individual contributors as indicated by the @author tags.
+// You may not use this file except in compliance with the Apache License, Version 2.0.
+
+package io.agroal.test.basic;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.test.MockCallableStatement;
+import io.agroal.test.MockConnection;
+import io.agroal.test.MockPreparedStatement;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static io.agroal.test.AgroalTestGroup.FUNCTIONAL;
+import static io.agroal.test.MockDriver.deregisterMockDriver;
+import static io.agroal.test.MockDriver.registerMockDriver;
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+import static java.sql.Statement.RETURN_GENERATED_KEYS;
+import static java.sql.Types.INTEGER;
+import static java.sql.Types.VARCHAR;
+import static java.util.logging.Logger.getLogger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="agent@local">agent</a>
+ */
+@Tag( FUNCTIONAL )
+public class StatementCacheTests {
+
+    private static final Logger logger = getLogger( StatementCacheTests.class.getName() );
+
+    private static final String SQL = "SELECT 1";
+    private static final String CALL = "{call test(?, ?)}";
+
+    private static final int CALLS = 1000;
+
+    @BeforeAll
+    static void setupMockDriver() {
+        registerMockDriver( StatementCountingConnection.class );
+    }
+
+    @AfterAll
+    static void teardown() {
+        deregisterMockDriver();
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        StatementCountingConnection.PREPARED.set( 0 );
+        StatementCountingConnection.PREPARED_CALL.set( 0 );
+        StatementCountingConnection.CLOSED.set( 0 );
+        StatementCountingConnection.CLEARED.set( 0 );
+        StatementCountingConnection.BATCH_CLEARED.set( 0 );
+    }
+
+    // --- //
+
+    @Test
+    @DisplayName( "Statements are prepared once and reused" )
+    void reuseTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( 2 ) )
+                ) ) ) {
+
+            for ( int i = 0; i < 3; i++ ) {
+                try ( Connection c = dataSource.getConnection(); PreparedStatement ps = c.prepareStatement( SQL ) ) {
+                    ps.setInt( 1, i );
+                }
+            }
+            logger.info( dataSource.getMetrics().toString() );
+
+            assertEquals( 1, StatementCountingConnection.PREPARED.get(), "Expected a single statement to be prepared" );
+            assertEquals( 0, StatementCountingConnection.CLOSED.get(), "Expected statement to be kept open" );
+            assertEquals( 3, StatementCountingConnection.CLEARED.get(), "Expected parameters to be cleared every time the statement is closed" );
+            assertEquals( 2, dataSource.getMetrics().statementCacheHitCount(), "Expected cache hits" );
+            assertEquals( 1, dataSource.getMetrics().statementCacheMissCount(), "Expected a single cache miss" );
+
+            try ( Connection c = dataSource.getConnection() ) {
+                PreparedStatement ps = c.prepareStatement( SQL );
+                ps.close();
+                assertThrows( SQLException.class, () -> ps.setInt( 1, 0 ), "Expected wrapper to be closed" );
+            }
+        }
+        assertEquals( StatementCountingConnection.PREPARED.get(), StatementCountingConnection.CLOSED.get(), "Expected all statements to be closed with the connection" );
+    }
+
+    @Test
+    @DisplayName( "Statement settings are restored before reuse" )
+    void resetTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( 2 ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                try ( PreparedStatement ps = c.prepareStatement( SQL ) ) {
+                    ps.setMaxRows( 10 );
+                    ps.setQueryTimeout( 5 );
+                    ps.setFetchSize( 100 );
+                    ps.addBatch();
+                }
+                try ( PreparedStatement ps = c.prepareStatement( SQL ) ) {
+                    assertEquals( 0, ps.getMaxRows(), "Expected max rows to be restored" );
+                    assertEquals( 0, ps.getQueryTimeout(), "Expected query timeout to be restored" );
+                    assertEquals( 0, ps.getFetchSize(), "Expected fetch size to be restored" );
+                    ps.setEscapeProcessing( false );
+                }
+                assertEquals( 1, StatementCountingConnection.BATCH_CLEARED.get(), "Expected batch to be cleared" );
+                assertEquals( 1, StatementCountingConnection.CLOSED.get(), "Expected statement with escape processing changed to be closed" );
+
+                c.prepareStatement( SQL ).close();
+                assertEquals( 2, StatementCountingConnection.PREPARED.get(), "Expected statement to be prepared again" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Statements are distinguished by their arguments" )
+    void keyTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( 10 ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                c.prepareStatement( SQL ).close();
+                c.prepareStatement( SQL, RETURN_GENERATED_KEYS ).close();
+                c.prepareStatement( SQL, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY ).close();
+                c.prepareStatement( SQL, new String[]{"id"} ).close();
+                c.prepareStatement( SQL, new String[]{"id"} ).close();
+
+                try ( PreparedStatement first = c.prepareStatement( SQL ); PreparedStatement second = c.prepareStatement( SQL ) ) {
+                    assertNotEquals( first.unwrap( PreparedStatement.class ), second.unwrap( PreparedStatement.class ), "Expected statement in use not to be shared" );
+                }
+            }
+
+            assertEquals( 5, StatementCountingConnection.PREPARED.get(), "Expected a statement for each distinct set of arguments and for concurrent use" );
+            assertEquals( 1, StatementCountingConnection.CLOSED.get(), "Expected duplicate statement to be closed" );
+            assertEquals( 2, dataSource.getMetrics().statementCacheHitCount(), "Expected cache hits" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Least recently used statements are evicted" )
+    void evictionTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( 2 ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                c.prepareStatement( "SELECT 1" ).close();
+                c.prepareStatement( "SELECT 2" ).close();
+                c.prepareStatement( "SELECT 1" ).close();
+                c.prepareStatement( "SELECT 3" ).close(); // evicts SELECT 2
+                c.prepareStatement( "SELECT 1" ).close();
+                c.prepareStatement( "SELECT 2" ).close();
+            }
+
+            assertEquals( 4, StatementCountingConnection.PREPARED.get(), "Expected statement to be prepared again after eviction" );
+            assertEquals( 2, dataSource.getMetrics().statementCacheEvictionCount(), "Expected evictions" );
+            assertEquals( 2, StatementCountingConnection.CLOSED.get(), "Expected evicted statements to be closed" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Initial statements are prepared on connection creation" )
+    void initialStatementsTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf
+                                .preparedStatementCacheSize( 2 )
+                                .addInitialPreparedStatement( SQL ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( 1, StatementCountingConnection.PREPARED.get(), "Expected initial statement to be prepared on creation" );
+                c.prepareStatement( SQL ).close();
+            }
+
+            assertEquals( 1, StatementCountingConnection.PREPARED.get(), "Expected initial statement to be used from the cache" );
+            assertEquals( 1, dataSource.getMetrics().statementCacheHitCount(), "Expected a cache hit" );
+            assertEquals( 0, dataSource.getMetrics().statementCacheMissCount(), "Expected no cache miss" );
+        }
+
+        resetCounters();
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.addInitialPreparedStatement( SQL ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                assertEquals( 1, StatementCountingConnection.PREPARED.get(), "Expected initial statement to be prepared on creation" );
+                assertEquals( 1, StatementCountingConnection.CLOSED.get(), "Expected initial statement to be closed without statement cache" );
+            }
+        }
+    }
+
+    @Test
+    @DisplayName( "Statement cache disabled by default" )
+    void disabledTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier().metricsEnabled().connectionPoolConfiguration( cp -> cp.maxSize( 1 ) ) ) ) {
+            for ( int i = 0; i < 2; i++ ) {
+                try ( Connection c = dataSource.getConnection() ) {
+                    c.prepareStatement( SQL ).close();
+                }
+            }
+            assertEquals( 2, StatementCountingConnection.PREPARED.get(), "Expected statements to be prepared every time" );
+            assertEquals( 2, StatementCountingConnection.CLOSED.get(), "Expected statements to be closed" );
+            assertTrue( dataSource.getMetrics().statementCacheMissCount() == 0, "Expected no cache activity" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Callable statements are prepared once and reused" )
+    void callableReuseTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( 2 ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                for ( int i = 0; i < 3; i++ ) {
+                    try ( CallableStatement cs = c.prepareCall( CALL ) ) {
+                        cs.setInt( 1, i );
+                        cs.execute();
+                    }
+                }
+                c.prepareStatement( CALL ).close();
+            }
+
+            assertEquals( 1, StatementCountingConnection.PREPARED_CALL.get(), "Expected a single callable statement to be prepared" );
+            assertEquals( 1, StatementCountingConnection.PREPARED.get() - StatementCountingConnection.PREPARED_CALL.get(), "Expected prepared and callable statements not to be shared" );
+            assertEquals( 0, StatementCountingConnection.CLOSED.get(), "Expected statements to be kept open" );
+            assertEquals( 2, dataSource.getMetrics().statementCacheHitCount(), "Expected cache hits" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Callable statements with registered out parameters are not reused" )
+    void outParameterTest() throws SQLException {
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( 2 ) )
+                ) ) ) {
+
+            try ( Connection c = dataSource.getConnection() ) {
+                CallableStatement registered, fresh;
+                try ( CallableStatement cs = c.prepareCall( CALL ) ) {
+                    cs.registerOutParameter( 2, VARCHAR );
+                    cs.execute();
+                    registered = cs.unwrap( CallableStatement.class );
+                }
+                try ( CallableStatement cs = c.prepareCall( CALL ) ) {
+                    fresh = cs.unwrap( CallableStatement.class );
+                    assertNotEquals( registered, fresh, "Expected statement with registered out parameters not to be reused" );
+                    cs.setInt( 1, 1 );
+                    cs.execute();
+                }
+                try ( CallableStatement cs = c.prepareCall( CALL ) ) {
+                    assertEquals( fresh, cs.unwrap( CallableStatement.class ), "Expected statement without registered out parameters to be reused" );
+                    cs.registerOutParameter( "result", INTEGER );
+                    cs.execute();
+                }
+                try ( CallableStatement cs = c.prepareCall( CALL ) ) {
+                    assertNotEquals( fresh, cs.unwrap( CallableStatement.class ), "Expected statement with registered out parameters not to be reused" );
+                }
+            }
+
+            assertEquals( 3, StatementCountingConnection.PREPARED_CALL.get(), "Expected callable statement to be prepared again after out parameters were registered" );
+            assertEquals( 2, StatementCountingConnection.CLOSED.get(), "Expected statements with registered out parameters to be closed" );
+            assertEquals( 1, dataSource.getMetrics().statementCacheHitCount(), "Expected a single cache hit" );
+        }
+    }
+
+    @Test
+    @DisplayName( "Prepare calls saved by the statement cache" )
+    void preparedCallsSavedTest() throws SQLException {
+        long[] prepared = new long[2];
+        for ( int cacheSize : new int[]{0, 8} ) {
+            resetCounters();
+            try ( AgroalDataSource dataSource = AgroalDataSource.from( new AgroalDataSourceConfigurationSupplier()
+                    .connectionPoolConfiguration( cp -> cp
+                            .maxSize( 1 )
+                            .connectionFactoryConfiguration( cf -> cf.preparedStatementCacheSize( cacheSize ) )
+                    ) ) ) {
+
+                long start = System.nanoTime();
+                for ( int i = 0; i < CALLS; i++ ) {
+                    try ( Connection c = dataSource.getConnection(); CallableStatement cs = c.prepareCall( CALL ) ) {
+                        cs.setInt( 1, i );
+                        cs.execute();
+                    }
+                }
+                prepared[cacheSize == 0 ? 0 : 1] = StatementCountingConnection.PREPARED_CALL.get();
+                logger.info( "Cache size " + cacheSize + ": " + StatementCountingConnection.PREPARED_CALL.get() + " prepareCall() in " + CALLS + " calls, " + ( System.nanoTime() - start ) / CALLS + "ns per call" );
+            }
+        }
+        logger.info( "Statement cache saved " + ( prepared[0] - prepared[1] ) + " prepareCall() out of " + CALLS );
+
+        assertEquals( CALLS, prepared[0], "Expected every call to be prepared without cache" );
+        assertEquals( 1, prepared[1], "Expected a single call to be prepared with cache" );
+    }
+
+    // --- //
+
+    public static class StatementCountingConnection implements MockConnection {
+
+        static final AtomicInteger PREPARED = new AtomicInteger();
+        static final AtomicInteger PREPARED_CALL = new AtomicInteger();
+        static final AtomicInteger CLOSED = new AtomicInteger();
+        static final AtomicInteger CLEARED = new AtomicInteger();
+        static final AtomicInteger BATCH_CLEARED = new AtomicInteger();
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return new CountingPreparedStatement();
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+            return new CountingPreparedStatement();
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            return new CountingPreparedStatement();
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+            return new CountingPreparedStatement();
+        }
+
+        @Override
+        public CallableStatement prepareCall(String sql) throws SQLException {
+            return new CountingCallableStatement();
+        }
+
+        private static class CountingPreparedStatement implements MockPreparedStatement {
+
+            private boolean closed;
+            private int maxRows;
+            private int queryTimeout;
+            private int fetchSize;
+
+            CountingPreparedStatement() {
+                PREPARED.incrementAndGet();
+            }
+
+            @Override
+            public void clearParameters() throws SQLException {
+                CLEARED.incrementAndGet();
+            }
+
+            @Override
+            public void clearBatch() throws SQLException {
+                BATCH_CLEARED.incrementAndGet();
+            }
+
+            @Override
+            public int getMaxRows() throws SQLException {
+                return maxRows;
+            }
+
+            @Override
+            public void setMaxRows(int max) throws SQLException {
+                maxRows = max;
+            }
+
+            @Override
+            public int getQueryTimeout() throws SQLException {
+                return queryTimeout;
+            }
+
+            @Override
+            public void setQueryTimeout(int seconds) throws SQLException {
+                queryTimeout = seconds;
+            }
+
+            @Override
+            public int getFetchSize() throws SQLException {
+                return fetchSize;
+            }
+
+            @Override
+            public void setFetchSize(int rows) throws SQLException {
+                fetchSize = rows;
+            }
+
+            @Override
+            public void close() throws SQLException {
+                if ( !closed ) {
+                    closed = true;
+                    CLOSED.incrementAndGet();
+                }
+            }
+
+            @Override
+            public boolean isClosed() throws SQLException {
+                return closed;
+            }
+
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public <T> T unwrap(Class<T> iface) throws SQLException {
+                return (T) this;
+            }
+        }
+
+        private static class CountingCallableStatement extends CountingPreparedStatement implements MockCallableStatement {
+
+            CountingCallableStatement() {
+                PREPARED_CALL.incrementAndGet();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@
 
 package io.agroal.test.narayana;
 
+import io.agroal.api.AgroalConnectionLabels;
 import io.agroal.api.AgroalDataSource;
 import io.agroal.api.configuration.supplier.AgroalConnectionFactoryConfigurationSupplier;
 import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
@@ -180,6 +181,35 @@ class ReadOnlyTests {
         }
     }
 
+    @Test
+    @DisplayName( "Test read-only label with transaction" )
+    void readOnlyLabelTest() throws SQLException {
+        TransactionManager txManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        TransactionSynchronizationRegistry txSyncRegistry = new com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionSynchronizationRegistryImple();
+
+        AgroalDataSourceConfigurationSupplier configurationSupplier = new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration( cp -> cp
+                        .maxSize( 1 )
+                        .transactionIntegration( new NarayanaTransactionIntegration( txManager, txSyncRegistry ) )
+                );
+
+        try ( AgroalDataSource dataSource = AgroalDataSource.from( configurationSupplier ) ) {
+            txManager.begin();
+
+            try ( Connection connection = dataSource.getConnection( new AgroalConnectionLabels().readOnly( true ) ) ) {
+                logger.info( format( "Got connection {0} with tx", connection ) );
+
+                assertTrue( connection.isReadOnly() );
+                assertDoesNotThrow( () -> dataSource.getConnection( new AgroalConnectionLabels().readOnly( true ) ) );
+                assertThrows( SQLException.class, () -> dataSource.getConnection( new AgroalConnectionLabels().readOnly( false ) ) );
+            }
+
+            txManager.commit();
+        } catch ( NotSupportedException | SystemException | RollbackException | HeuristicMixedException | HeuristicRollbackException e ) {
+            fail( "Exception: " + e.getMessage() );
+        }
+    }
+
     // --- //
 
     public static class ReadOnlyAwareConnection implements MockConnection {
@@ -8,6 +8,7 @@ import io.agroal.springframework.boot.AgroalDataSourceAutoConfiguration;
 import io.agroal.springframework.boot.metrics.AgroalDataSourcePoolMetricsAutoConfiguration;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.binder.MeterBinder;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
@@ -67,6 +68,29 @@ class AgroalDataSourcePoolMetricsAutoConfigurationTests {
                 });
     }
 
+    @DisplayName("Timers for acquisition, creation and hold time are fed by the pool and publish the configured SLO buckets")
+    @Test
+    void testTimers() {
+        runner.withPropertyValues("spring.datasource.agroal.metrics=true", "spring.datasource.agroal.metrics-slo=10ms,1s", "spring.datasource.agroal.metrics-percentiles=0.5,0.99")
+                .run(context -> {
+                    AgroalDataSource dataSource = context.getBean(AgroalDataSource.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    Timer acquireTimer = registry.get("agroal.connections.acquire").timer();
+                    Timer creationTimer = registry.get("agroal.connections.creation").timer();
+                    Timer holdTimer = registry.get("agroal.connections.hold").timer();
+
+                    try (Connection c = dataSource.getConnection()) {
+                        LOG.info("Got connection {}", c);
+                        assertThat(acquireTimer.count()).isEqualTo(1);
+                        assertThat(creationTimer.count()).isEqualTo(1);
+                        assertThat(holdTimer.count()).isEqualTo(0);
+                    }
+                    assertThat(holdTimer.count()).isEqualTo(1);
+                    assertThat(acquireTimer.takeSnapshot().histogramCounts()).hasSize(2);
+                    assertThat(acquireTimer.takeSnapshot().percentileValues()).hasSize(2);
+                });
+    }
+
     @DisplayName("AgroalDataSourcePoolMetricsAutoConfiguration will not trigger without micrometer on the classpath")
     @Test
     void testMicrometerNotPresentOnClasspath() {